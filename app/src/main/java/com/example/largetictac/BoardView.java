@@ -0,0 +1,194 @@
+package com.example.largetictac;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.PorterDuff;
+import android.graphics.drawable.Drawable;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+
+import java.util.Arrays;
+
+/**
+ * The whole board as one View: draws the cells and stones on a Canvas instead of one Button per cell.
+ *
+ * Cells are drawn into a cached Bitmap. Placing a stone redraws only that cell in the cache, so a
+ * frame is a single bitmap copy however many stones are on the board. Touches are turned into
+ * (row, col) by dividing by the cell size.
+ */
+public class BoardView extends View {
+    /**
+     * Called on the UI thread when a cell is tapped.
+     */
+    public interface OnCellTapListener {
+        void onCellTap(int row, int col);
+    }
+
+    private int size = Model.BOARD_SIZE;
+    // Stone per cell (row * size + col): Model.EMPTY, PLAYER_X or PLAYER_O.
+    private int[] stones = new int[size * size];
+    private OnCellTapListener listener;
+
+    private final Drawable emptyCell;
+    private final Drawable xStone;
+    private final Drawable oStone;
+
+    // Cell side in pixels; the board keeps one cell of margin on each side, like the old button grid.
+    private int cellSize;
+    private Bitmap cache;
+    private Canvas cacheCanvas;
+
+    public BoardView(Context context) {
+        this(context, null);
+    }
+
+    public BoardView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        emptyCell = context.getDrawable(R.drawable.square);
+        xStone = context.getDrawable(R.drawable.xfortick);
+        oStone = context.getDrawable(R.drawable.ofortick);
+    }
+
+    /**
+     * Input: size (int) - rows and columns of the board.
+     * Output: None
+     * Logic: Empties the board and lays it out again for the new size.
+     */
+    public void setBoardSize(int size) {
+        this.size = size;
+        stones = new int[size * size];
+        requestLayout();
+        redrawAll();
+    }
+
+    public int getBoardSize() {
+        return size;
+    }
+
+    public void setOnCellTapListener(OnCellTapListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Output: int - The stone drawn on the cell (Model.EMPTY, PLAYER_X or PLAYER_O).
+     */
+    public int getStone(int row, int col) {
+        return stones[row * size + col];
+    }
+
+    /**
+     * Input: row, col (int); player (int) - the stone to show, or Model.EMPTY.
+     * Output: None
+     * Logic: Redraws only that cell in the cache.
+     */
+    public void setStone(int row, int col, int player) {
+        stones[row * size + col] = player;
+        if (cacheCanvas == null) return;
+        drawCell(cacheCanvas, row, col);
+        invalidate();
+    }
+
+    /**
+     * Input: player (int) - a stone, or Model.EMPTY.
+     * Output: None
+     * Logic: Shows that stone on every cell. With Model.EMPTY this clears the board.
+     */
+    public void fill(int player) {
+        Arrays.fill(stones, player);
+        redrawAll();
+    }
+
+    public void clear() {
+        fill(Model.EMPTY);
+    }
+
+    /**
+     * Output: int - The row (or column) under the pixel coordinate, or -1 if it is in the margin.
+     */
+    int cellAt(float pixel) {
+        if (cellSize == 0) return -1;
+        int cell = (int) Math.floor(pixel / cellSize) - 1;
+        return cell >= 0 && cell < size ? cell : -1;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        // Square, as wide as allowed
+        int width = MeasureSpec.getSize(widthMeasureSpec);
+        if (MeasureSpec.getMode(heightMeasureSpec) != MeasureSpec.UNSPECIFIED) {
+            width = Math.min(width, MeasureSpec.getSize(heightMeasureSpec));
+        }
+        setMeasuredDimension(width, width);
+    }
+
+    @Override
+    protected void onSizeChanged(int width, int height, int oldWidth, int oldHeight) {
+        super.onSizeChanged(width, height, oldWidth, oldHeight);
+        cellSize = Math.min(width, height) / (size + 2);
+        if (width == 0 || height == 0) {
+            cache = null;
+            cacheCanvas = null;
+            return;
+        }
+        cache = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        cacheCanvas = new Canvas(cache);
+        redrawAll();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (cache != null) canvas.drawBitmap(cache, 0, 0, null);
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                return true;
+            case MotionEvent.ACTION_UP:
+                int row = cellAt(event.getY());
+                int col = cellAt(event.getX());
+                performClick();
+                if (row >= 0 && col >= 0 && listener != null) listener.onCellTap(row, col);
+                return true;
+            default:
+                return super.onTouchEvent(event);
+        }
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    private void redrawAll() {
+        if (cacheCanvas == null) return;
+        cellSize = Math.min(getWidth(), getHeight()) / (size + 2);
+        cacheCanvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) drawCell(cacheCanvas, row, col);
+        }
+        invalidate();
+    }
+
+    private void drawCell(Canvas canvas, int row, int col) {
+        int left = (col + 1) * cellSize;
+        int top = (row + 1) * cellSize;
+        // Wipe the cell, then the empty square, then the stone on top
+        canvas.save();
+        canvas.clipRect(left, top, left + cellSize, top + cellSize);
+        canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+        canvas.restore();
+        emptyCell.setBounds(left, top, left + cellSize, top + cellSize);
+        emptyCell.draw(canvas);
+        int stone = stones[row * size + col];
+        if (stone == Model.EMPTY) return;
+        Drawable drawable = stone == Model.PLAYER_X ? xStone : oStone;
+        drawable.setBounds(left, top, left + cellSize, top + cellSize);
+        drawable.draw(canvas);
+    }
+}
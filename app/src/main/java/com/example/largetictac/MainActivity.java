@@ -1,12 +1,11 @@
 package com.example.largetictac;
 
+import android.content.SharedPreferences;
+import android.content.pm.PackageManager;
 import android.graphics.Color;
 import android.graphics.drawable.Drawable;
 import android.os.Bundle;
-import android.util.DisplayMetrics;
 import android.view.View;
-import android.view.ViewGroup;
-import android.widget.Button;
 import android.widget.LinearLayout;
 import android.widget.TextView;
 
@@ -16,52 +15,46 @@ import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
 
-import java.util.ArrayList;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 
 public class MainActivity extends AppCompatActivity {
     private Model model = new Model();
     boolean gameWon = false;
-    private final ArrayList<Integer> IDS = new ArrayList<Integer>();
+    boolean aiThinking = false;
+    private BoardView board;
+    private AsyncEngine engine;
+
+    // The AI gets at most this long per move, however fast or slow the device is.
+    private static final SearchBudget AI_BUDGET = SearchBudget.ofTime(1000);
+    private static final String OPENING_BOOK = "opening.book";
+    // Preference holding the package's lastUpdateTime when the book was last copied out of the assets.
+    private static final String BOOK_COPIED_FOR = "copiedForUpdateTime";
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         EdgeToEdge.enable(this);
         setContentView(R.layout.activity_main);
+        engine = new AsyncEngine(getMainExecutor());
+        // Disk I/O stays off the main thread; the first moves may be searched before the book is set.
+        engine.runInBackground(() -> {
+            OpeningBook book = loadOpeningBook();
+            if (book != null) getMainExecutor().execute(() -> model.setOpeningBook(book));
+        });
 
         LinearLayout llMainDynamic = findViewById(R.id.llDynamic);
         llMainDynamic.setOrientation(LinearLayout.VERTICAL);
-        DisplayMetrics metrics = getResources().getDisplayMetrics();
-        int width = metrics.widthPixels;
-
-        LinearLayout linearLayoutBoard = new LinearLayout(this);
-        linearLayoutBoard.setOrientation(LinearLayout.VERTICAL);
-        linearLayoutBoard.setLayoutParams(new LinearLayout.LayoutParams(LinearLayout.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
-
-        LinearLayout.LayoutParams rowLayout = new LinearLayout.LayoutParams(LinearLayout.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT);
-        rowLayout.setMargins(width / 17, 1, width / 17, 1);
-
-        LinearLayout.LayoutParams elementLayout = new LinearLayout.LayoutParams(width / 17, width / 17);
-        LinearLayout rowInBoard;
-
-        for (int i = 97; i < 112; i++) { // rows 'a' to 'p'
-            rowInBoard = new LinearLayout(this);
-            rowInBoard.setLayoutParams(rowLayout);
-            rowInBoard.setOrientation(LinearLayout.HORIZONTAL);
-            for (int j = 97; j < 112; j++) { // cols 'a' to 'p'
-                Button b = new Button(this);
-                b.setLayoutParams(elementLayout);
-                b.setTag((char) i + "" + (char) j);
-                b.setText((char) i + "" + (char) j);
-                b.setOnClickListener(onCellClick());
-                b.setId(View.generateViewId());
-                b.setBackgroundResource(R.drawable.square);
-                IDS.add(b.getId());
-                rowInBoard.addView(b);
-            }
-            linearLayoutBoard.addView(rowInBoard);
-        }
-        llMainDynamic.addView(linearLayoutBoard);
+
+        // The whole board is one view, with a cell's width of margin on each side
+        board = new BoardView(this);
+        board.setBoardSize(model.getSize());
+        board.setLayoutParams(new LinearLayout.LayoutParams(LinearLayout.LayoutParams.MATCH_PARENT, LinearLayout.LayoutParams.WRAP_CONTENT));
+        board.setOnCellTapListener(this::onCellTap);
+        llMainDynamic.addView(board);
 
         ViewCompat.setOnApplyWindowInsetsListener(findViewById(R.id.main), (v, insets) -> {
             Insets systemBars = insets.getInsets(WindowInsetsCompat.Type.systemBars());
@@ -70,91 +63,120 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
-    private View.OnClickListener onCellClick() {
-        return new View.OnClickListener() {
-            @Override
-            public void onClick(View view) {
-                // 1. If game is already over, do nothing
-                if (gameWon) return;
-
-                Button clickedButton = (Button) view;
-                String tag = (String) clickedButton.getTag();
-
-                int row = tag.charAt(0) - 'a';
-                int col = tag.charAt(1) - 'a';
-                TextView winnerText = findViewById(R.id.whoWon);
-
-                // --- HUMAN MOVE ---
-                if (model.isLegal(row, col)) {
-                    model.makeMove(row, col);
-                    clickedButton.setBackgroundResource(R.drawable.xfortick);
-
-                    // Check if Human Won
-                    if (model.checkWin(row, col) != Model.EMPTY) {
-                        gameWon = true;
-                        winnerText.setText("X Won!");
-
-                        // Fill board with X (Visual effect from your code)
-                        for (int ID : IDS) {
-                            findViewById(ID).setBackgroundResource(R.drawable.xfortick);
-                        }
-                        return; // Stop here, don't let AI move
-                    }
-
-                    // Check Tie
-                    if (model.isTie()) {
-                        gameWon = true;
-                        winnerText.setText("It's a Tie!");
-                        return; // Stop here
-                    }
-
-                    // Switch to AI
-                    model.changePlayer();
-
-                    // --- AI MOVE ---
-                    // Note: We use -1 for AI (O) and 1 for Human (X)
-                    Move move = model.getHeuristicMove(-1, 1);
-                    model.makeMove(move.row, move.col);
-
-                    char AIMoveRow = (char) (move.row + 'a');
-                    char AIMoveCol = (char) (move.col + 'a');
-
-                    // Find the button AI picked
-                    Button btn = findViewById(android.R.id.content).findViewWithTag(AIMoveRow + "" + AIMoveCol);
-                    if (btn != null) {
-                        btn.setBackgroundResource(R.drawable.ofortick);
-                    }
-
-                    // Check if AI Won
-                    if (model.checkWin(move.row, move.col) != Model.EMPTY) {
-                        gameWon = true; // FIX: This was missing!
-                        winnerText.setText("O Won!");
-
-                        // Fill board with O
-                        for (int ID : IDS) {
-                            findViewById(ID).setBackgroundResource(R.drawable.ofortick);
-                        }
-                    } else if (model.isTie()) {
-                        gameWon = true; // FIX: Ensure tie stops game
-                        winnerText.setText("It's a Tie!");
-                    } else {
-                        model.changePlayer();
-                    }
-                }
+    private void onCellTap(int row, int col) {
+        // 1. If game is already over or the AI is still thinking, do nothing
+        if (gameWon || aiThinking) return;
+
+        TextView winnerText = findViewById(R.id.whoWon);
+
+        // --- HUMAN MOVE ---
+        if (model.isLegal(row, col)) {
+            model.makeMove(row, col);
+            board.setStone(row, col, Model.PLAYER_X);
+
+            // Check if Human Won
+            if (model.checkWin(row, col) != Model.EMPTY) {
+                gameWon = true;
+                winnerText.setText("X Won!");
+
+                // Fill board with X (Visual effect from your code)
+                board.fill(Model.PLAYER_X);
+                return; // Stop here, don't let AI move
             }
-        };
+
+            // Check Tie
+            if (model.isTie()) {
+                gameWon = true;
+                winnerText.setText("It's a Tie!");
+                return; // Stop here
+            }
+
+            // Switch to AI
+            model.changePlayer();
+
+            // --- AI MOVE ---
+            // Note: We use -1 for AI (O) and 1 for Human (X)
+            // The search runs on a background thread; the UI keeps drawing while it thinks.
+            // If pondering already searched this reply, the answer comes back at once.
+            aiThinking = true;
+            engine.requestMove(model, -1, 1, AI_BUDGET, new AsyncEngine.Callback() {
+                @Override
+                public void onProgress(int depth, Move bestMoveSoFar) {
+                    winnerText.setText("Thinking... depth " + depth);
+                }
+
+                @Override
+                public void onMoveChosen(Move move) {
+                    aiThinking = false;
+                    winnerText.setText("");
+                    playAiMove(move);
+                }
+            });
+        }
+    }
+
+    private void playAiMove(Move move) {
+        TextView winnerText = findViewById(R.id.whoWon);
+        model.makeMove(move.row, move.col);
+
+        board.setStone(move.row, move.col, Model.PLAYER_O);
+
+        // Check if AI Won
+        if (model.checkWin(move.row, move.col) != Model.EMPTY) {
+            gameWon = true; // FIX: This was missing!
+            winnerText.setText("O Won!");
+
+            // Fill board with O
+            board.fill(Model.PLAYER_O);
+        } else if (model.isTie()) {
+            gameWon = true; // FIX: Ensure tie stops game
+            winnerText.setText("It's a Tie!");
+        } else {
+            model.changePlayer();
+            // Think about the AI's answers to the likely replies while the human thinks.
+            engine.startPondering(model, -1, 1, AI_BUDGET);
+        }
     }
 
     public void reset(View view) {
+        engine.newGame();
+        aiThinking = false;
         model.resetGame();
         gameWon = false;
         TextView winnerText = findViewById(R.id.whoWon);
         winnerText.setText("");
 
-        // Reset all buttons to squares
-        for (int ID : IDS) {
-            Button b = findViewById(ID);
-            b.setBackgroundResource(R.drawable.square);
+        board.clear();
+    }
+
+    /**
+     * Input: None
+     * Output: OpeningBook - The opening book shipped in the assets, or null if it can't be read.
+     * Logic: Runs on the engine's thread. The book is mapped from a copy in the app's files directory,
+     * since assets live inside the APK. The copy is only (re)written when it is missing or was made for an
+     * earlier install of the app: an update may ship a new book of the same size, so the preferences
+     * remember the package's lastUpdateTime the copy was made for.
+     */
+    private OpeningBook loadOpeningBook() {
+        File file = new File(getFilesDir(), OPENING_BOOK);
+        SharedPreferences preferences = getSharedPreferences(OPENING_BOOK, MODE_PRIVATE);
+        try {
+            long installed = getPackageManager().getPackageInfo(getPackageName(), 0).lastUpdateTime;
+            if (!file.exists() || preferences.getLong(BOOK_COPIED_FOR, 0) != installed) {
+                try (InputStream in = getAssets().open(OPENING_BOOK)) {
+                    Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+                preferences.edit().putLong(BOOK_COPIED_FOR, installed).apply();
+            }
+            return OpeningBook.open(file.toPath());
+        } catch (IOException | PackageManager.NameNotFoundException e) {
+            return null; // Play without a book
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    protected void onDestroy() {
+        engine.shutdown();
+        super.onDestroy();
+    }
+}
@@ -1,14 +0,0 @@
-package com.example.largetictac;
-
-
-public class Move {
-    public int row;
-    public int col;
-
-    public Move(int row, int col) {
-        this.row = row;
-        this.col = col;
-    }
-
-
-}
\ No newline at end of file
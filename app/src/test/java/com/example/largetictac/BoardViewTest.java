@@ -0,0 +1,94 @@
+package com.example.largetictac;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ * BoardView on the JVM: taps to cells, stones and layout.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class BoardViewTest {
+    // 17 cells across (15 + a margin cell on each side) of 10 pixels
+    private static final int PIXELS = 170;
+
+    private BoardView board;
+    private final ArrayList<int[]> taps = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        board = new BoardView(RuntimeEnvironment.getApplication());
+        board.setOnCellTapListener((row, col) -> taps.add(new int[]{row, col}));
+        board.measure(View.MeasureSpec.makeMeasureSpec(PIXELS, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(PIXELS, View.MeasureSpec.EXACTLY));
+        board.layout(0, 0, PIXELS, PIXELS);
+    }
+
+    @Test
+    public void tap_isMappedToItsCell() {
+        tap(25, 15); // x in column 1, y in row 0
+        tap(155, 155);
+        assertEquals(2, taps.size());
+        assertArrayEquals(new int[]{0, 1}, taps.get(0));
+        assertArrayEquals(new int[]{14, 14}, taps.get(1));
+    }
+
+    @Test
+    public void tapOnTheMargin_isIgnored() {
+        tap(5, 50);
+        tap(50, 165);
+        assertTrue(taps.isEmpty());
+    }
+
+    @Test
+    public void stones_areKeptPerCell() {
+        board.setStone(3, 4, Model.PLAYER_X);
+        board.setStone(4, 3, Model.PLAYER_O);
+        assertEquals(Model.PLAYER_X, board.getStone(3, 4));
+        assertEquals(Model.PLAYER_O, board.getStone(4, 3));
+        assertEquals(Model.EMPTY, board.getStone(3, 3));
+
+        board.fill(Model.PLAYER_O);
+        assertEquals(Model.PLAYER_O, board.getStone(0, 0));
+        board.clear();
+        assertEquals(Model.EMPTY, board.getStone(3, 4));
+    }
+
+    @Test
+    public void measure_isSquare() {
+        board.measure(View.MeasureSpec.makeMeasureSpec(300, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+        assertEquals(300, board.getMeasuredWidth());
+        assertEquals(300, board.getMeasuredHeight());
+    }
+
+    @Test
+    public void otherBoardSize_changesTheCells() {
+        board.setBoardSize(19);
+        board.layout(0, 0, 210, 210); // 21 cells of 10 pixels
+        tap(195, 195);
+        assertArrayEquals(new int[]{18, 18}, taps.get(0));
+    }
+
+    private void tap(float x, float y) {
+        long now = SystemClock.uptimeMillis();
+        MotionEvent down = MotionEvent.obtain(now, now, MotionEvent.ACTION_DOWN, x, y, 0);
+        MotionEvent up = MotionEvent.obtain(now, now + 50, MotionEvent.ACTION_UP, x, y, 0);
+        board.dispatchTouchEvent(down);
+        board.dispatchTouchEvent(up);
+        down.recycle();
+        up.recycle();
+    }
+}
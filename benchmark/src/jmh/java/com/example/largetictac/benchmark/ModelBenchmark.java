@@ -0,0 +1,59 @@
+package com.example.largetictac.benchmark;
+
+import com.example.largetictac.Model;
+import com.example.largetictac.Move;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cheap per-position queries of Model, measured on every corpus position.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ModelBenchmark {
+    @Param({Positions.OPENING, Positions.MIDDLE_GAME, Positions.CROWDED})
+    public String position;
+
+    private Model model;
+    private int lastRow;
+    private int lastCol;
+
+    @Setup
+    public void setUp() {
+        model = Positions.load(position);
+        int[] last = Positions.lastMove(position);
+        lastRow = last[0];
+        lastCol = last[1];
+    }
+
+    @Benchmark
+    public int checkWin() {
+        return model.checkWin(lastRow, lastCol);
+    }
+
+    @Benchmark
+    public boolean isLineOfLength() {
+        return model.isLineOfLength(lastRow, lastCol, 3);
+    }
+
+    @Benchmark
+    public double evaluateBoardState() {
+        return model.evaluateBoardState(Model.PLAYER_O);
+    }
+
+    @Benchmark
+    public ArrayList<Move> getPossibleAdjacentMoves() {
+        return model.getPossibleAdjacentMoves();
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.largetictac.benchmark;
+
+import com.example.largetictac.Model;
+import com.example.largetictac.Move;
+import com.example.largetictac.ParallelSearch;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed-depth root-splitting search per thread count. ops/s at N threads divided by ops/s
+ * at 1 thread is the speedup on the machine running the benchmark.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ParallelSearchBenchmark {
+    @Param({Positions.MIDDLE_GAME, Positions.CROWDED})
+    public String position;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private Model model;
+    private ParallelSearch parallelSearch;
+
+    @Setup
+    public void setUp() {
+        model = Positions.load(position);
+        model.setThreatSolverEnabled(false); // Measure the parallel minimax, not the single-threaded solver
+        parallelSearch = new ParallelSearch(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        parallelSearch.shutdown();
+    }
+
+    @Benchmark
+    public Move parallelSearch() {
+        int ai = model.getCurrentPlayer();
+        return parallelSearch.getHeuristicMove(model, ai, -ai);
+    }
+}
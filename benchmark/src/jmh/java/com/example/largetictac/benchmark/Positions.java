@@ -0,0 +1,70 @@
+package com.example.largetictac.benchmark;
+
+import com.example.largetictac.Model;
+
+/**
+ * Fixed benchmark corpus. Every position is a list of (row, col) pairs played alternately,
+ * starting with X. None of them contains five in a row. Keep these unchanged, otherwise
+ * results stop being comparable with earlier runs.
+ */
+public final class Positions {
+    public static final String OPENING = "opening";
+    public static final String MIDDLE_GAME = "middle";
+    public static final String CROWDED = "crowded";
+
+    private static final int[] OPENING_MOVES = {
+            7, 7, 6, 8, 8, 8, 8, 6,
+    };
+
+    private static final int[] MIDDLE_GAME_MOVES = {
+            10, 9, 10, 8, 6, 11, 4, 3, 5, 10, 4, 11, 4, 7, 9, 4, 5, 7, 7, 11,
+            5, 5, 3, 11, 5, 6, 7, 8, 4, 6, 8, 9, 10, 3, 3, 4, 9, 10, 11, 6,
+    };
+
+    private static final int[] CROWDED_MOVES = {
+            4, 13, 7, 11, 9, 11, 4, 1, 5, 11, 2, 3, 6, 12, 8, 7, 4, 10, 1, 3,
+            3, 10, 2, 9, 10, 11, 11, 3, 7, 2, 5, 12, 9, 2, 13, 6, 3, 2, 11, 12,
+            11, 5, 9, 9, 9, 12, 11, 13, 8, 6, 12, 4, 12, 10, 12, 12, 3, 4, 12, 1,
+            7, 5, 3, 9, 1, 6, 5, 10, 1, 5, 8, 5, 11, 1, 5, 9, 4, 6, 11, 4,
+            13, 13, 2, 6, 1, 4, 13, 11, 7, 13, 10, 13, 8, 2, 10, 10, 5, 3, 3, 5,
+            3, 8, 2, 11, 6, 9, 1, 11, 6, 5, 1, 10, 13, 12, 2, 7, 6, 7, 10, 9,
+    };
+
+    private Positions() {
+    }
+
+    /**
+     * Input: name - OPENING, MIDDLE_GAME or CROWDED.
+     * Output: Model - A fresh Model with that position played out; the side to move is the AI.
+     */
+    public static Model load(String name) {
+        Model model = new Model();
+        int[] moves = moves(name);
+        for (int i = 0; i < moves.length; i += 2) {
+            model.makeMove(moves[i], moves[i + 1]);
+            model.changePlayer();
+        }
+        return model;
+    }
+
+    /**
+     * Output: int[] - {row, col} of the last stone played in the position.
+     */
+    public static int[] lastMove(String name) {
+        int[] moves = moves(name);
+        return new int[]{moves[moves.length - 2], moves[moves.length - 1]};
+    }
+
+    private static int[] moves(String name) {
+        switch (name) {
+            case OPENING:
+                return OPENING_MOVES;
+            case MIDDLE_GAME:
+                return MIDDLE_GAME_MOVES;
+            case CROWDED:
+                return CROWDED_MOVES;
+            default:
+                throw new IllegalArgumentException("Unknown position: " + name);
+        }
+    }
+}
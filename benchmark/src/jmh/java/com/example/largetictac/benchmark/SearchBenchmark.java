@@ -0,0 +1,46 @@
+package com.example.largetictac.benchmark;
+
+import com.example.largetictac.Model;
+import com.example.largetictac.Move;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A full AI turn. The transposition table is cleared before every call, so each call
+ * costs a cold search and results don't depend on how many calls ran before.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SearchBenchmark {
+    @Param({Positions.OPENING, Positions.MIDDLE_GAME, Positions.CROWDED})
+    public String position;
+
+    private Model model;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        model = Positions.load(position);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTables() {
+        model.getTranspositionTable().clear();
+    }
+
+    @Benchmark
+    public Move getHeuristicMove() {
+        int ai = model.getCurrentPlayer();
+        return model.getHeuristicMove(ai, -ai);
+    }
+}
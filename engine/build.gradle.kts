@@ -0,0 +1,21 @@
+// Game engine (Model and search) as a plain Java library, so it can run and be
+// benchmarked on any JVM, not only inside the Android app.
+plugins {
+    `java-library`
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    testImplementation(libs.junit)
+}
+
+// DifferentialFuzzTest checks a few thousand positions in a normal build. Longer runs:
+//   ./gradlew :engine:test --tests '*DifferentialFuzzTest' -PfuzzPositions=1000000 -PfuzzSeed=7
+tasks.test {
+    findProperty("fuzzPositions")?.let { systemProperty("fuzz.positions", it) }
+    findProperty("fuzzSeed")?.let { systemProperty("fuzz.seed", it) }
+}
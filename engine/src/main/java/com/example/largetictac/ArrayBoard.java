@@ -0,0 +1,206 @@
+package com.example.largetictac;
+
+import java.util.Arrays;
+
+/**
+ * The original board: a size x size int array (15x15 by default) walked one cell at a time.
+ */
+public class ArrayBoard implements Board {
+    private static final int NOT_A_STONE = -1;
+
+    private final int size;
+    private final int[][] cells;
+
+    // Unordered list of occupied cells (packed as row * size + col) and where each sits in it.
+    private final int[] stones;
+    private final int[] stoneIndex;
+    private int stoneCount;
+
+    public ArrayBoard() {
+        this(Model.BOARD_SIZE);
+    }
+
+    /**
+     * Input: size (int) - rows and columns, at least 1.
+     * Output: A new, empty ArrayBoard.
+     */
+    public ArrayBoard(int size) {
+        if (size < 1) throw new IllegalArgumentException("size must be >= 1: " + size);
+        this.size = size;
+        cells = new int[size][size];
+        stones = new int[size * size];
+        stoneIndex = new int[size * size];
+        Arrays.fill(stoneIndex, NOT_A_STONE);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int stoneCount() {
+        return stoneCount;
+    }
+
+    @Override
+    public int stoneAt(int index) {
+        return stones[index];
+    }
+
+    @Override
+    public int get(int row, int col) {
+        return cells[row][col];
+    }
+
+    @Override
+    public void set(int row, int col, int value) {
+        int cell = row * size + col;
+        if (cells[row][col] == Model.EMPTY && value != Model.EMPTY) {
+            stoneIndex[cell] = stoneCount;
+            stones[stoneCount++] = cell;
+        } else if (cells[row][col] != Model.EMPTY && value == Model.EMPTY) {
+            // Swap the last stone into the hole
+            int last = stones[--stoneCount];
+            stones[stoneIndex[cell]] = last;
+            stoneIndex[last] = stoneIndex[cell];
+            stoneIndex[cell] = NOT_A_STONE;
+        }
+        cells[row][col] = value;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                cells[i][j] = Model.EMPTY;
+            }
+        }
+        Arrays.fill(stoneIndex, NOT_A_STONE);
+        stoneCount = 0;
+    }
+
+    @Override
+    public Board copy() {
+        ArrayBoard copy = new ArrayBoard(size);
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(cells[i], 0, copy.cells[i], 0, size);
+        }
+        System.arraycopy(stones, 0, copy.stones, 0, stoneCount);
+        System.arraycopy(stoneIndex, 0, copy.stoneIndex, 0, stoneIndex.length);
+        copy.stoneCount = stoneCount;
+        return copy;
+    }
+
+    /**
+     * Input: row, col (int) - start point; dr, dc (int) - direction deltas; player (int) - ID to count.
+     * Output: int - The number of consecutive stones.
+     * Logic: Scans strictly forward and backward along the defined vector (dr, dc) counting matching stones.
+     * Stops immediately upon hitting a border or a different stone. Does not count empty spaces.
+     */
+    @Override
+    public int countConsecutive(int row, int col, int dr, int dc, int player) {
+        int count = 1; // Start with the stone at (row, col)
+
+        // 1. Count forward
+        int r = row + dr;
+        int c = col + dc;
+        while (r >= 0 && r < size && c >= 0 && c < size && cells[r][c] == player) {
+            count++;
+            r += dr;
+            c += dc;
+        }
+
+        // 2. Count backward
+        r = row - dr;
+        c = col - dc;
+        while (r >= 0 && r < size && c >= 0 && c < size && cells[r][c] == player) {
+            count++;
+            r -= dr;
+            c -= dc;
+        }
+
+        return count;
+    }
+
+    /**
+     * Input: row, col, dr, dc, player, winLength.
+     * Output: int - The count of stones if the line is viable, or 0 if blocked.
+     * Logic: Counts connected stones forward/backward. Then counts adjacent empty spaces forward/backward.
+     * If (stones + empty_spaces) < winLength, the line is "dead" and returns 0. Otherwise returns the stone count.
+     */
+    @Override
+    public int getViableStoneCount(int row, int col, int dr, int dc, int player, int winLength) {
+        int stones = 1;
+
+        // 1. Count stones forward
+        int r = row + dr;
+        int c = col + dc;
+        while (r >= 0 && r < size && c >= 0 && c < size && cells[r][c] == player) {
+            stones++;
+            r += dr;
+            c += dc;
+        }
+        int fR = r, fC = c;
+
+        // 2. Count stones backward
+        r = row - dr;
+        c = col - dc;
+        while (r >= 0 && r < size && c >= 0 && c < size && cells[r][c] == player) {
+            stones++;
+            r -= dr;
+            c -= dc;
+        }
+        int bR = r, bC = c;
+
+        // 3. Count empty spaces (Potential)
+        int potential = stones;
+
+        // Forward potential
+        r = fR; c = fC;
+        while (r >= 0 && r < size && c >= 0 && c < size && cells[r][c] == Model.EMPTY) {
+            potential++;
+            r += dr;
+            c += dc;
+        }
+
+        // Backward potential
+        r = bR; c = bC;
+        while (r >= 0 && r < size && c >= 0 && c < size && cells[r][c] == Model.EMPTY) {
+            potential++;
+            r -= dr;
+            c -= dc;
+        }
+
+        // If total room is less than winLength, this line is useless.
+        if (potential < winLength) return 0;
+
+        return stones;
+    }
+
+    /**
+     * Input: row, col, dr, dc, player.
+     * Output: int - The PatternTable code of the 9-cell window centred on (row, col).
+     * Logic: Walks the 9 cells once, writing 2 bits per cell.
+     */
+    @Override
+    public int getLinePattern(int row, int col, int dr, int dc, int player) {
+        int code = 0;
+        for (int k = 0; k < PatternTable.WINDOW; k++) {
+            int r = row + (k - 4) * dr;
+            int c = col + (k - 4) * dc;
+            int cell;
+            if (r < 0 || r >= size || c < 0 || c >= size) {
+                cell = PatternTable.WALL_CELL;
+            } else if (cells[r][c] == Model.EMPTY) {
+                cell = PatternTable.EMPTY_CELL;
+            } else if (cells[r][c] == player) {
+                cell = PatternTable.OWN_CELL;
+            } else {
+                cell = PatternTable.OPPONENT_CELL;
+            }
+            code |= cell << (2 * k);
+        }
+        return code;
+    }
+}
@@ -0,0 +1,305 @@
+package com.example.largetictac;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs AI searches on a background thread so the caller (the UI thread) never blocks.
+ *
+ * The engine searches its own Model, which follows the caller's game: every request copies the
+ * caller's position, and the engine's Model is brought to that position stone by stone. So the caller
+ * can keep reading its own Model while the AI thinks, a cancelled search can never leave stones
+ * behind, and the transposition table, killers and history carry over from one turn to the next
+ * until newGame().
+ * Results and progress are handed to callbackExecutor (on Android: the main thread executor).
+ * A result is only delivered if its request was not cancelled or replaced in the meantime.
+ *
+ * Pondering: after the AI moved, startPondering searches the AI's answer to the human's most likely
+ * replies while the human thinks. If the human then plays one of them, requestMove answers from
+ * that search (at once if it already finished); any other move cancels pondering and searches as usual.
+ */
+public class AsyncEngine {
+    /**
+     * Called on the callback executor.
+     */
+    public interface Callback {
+        void onProgress(int depth, Move bestMoveSoFar);
+
+        void onMoveChosen(Move move);
+    }
+
+    private final ExecutorService searchThread = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ai-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Executor callbackExecutor;
+    private final long tableBytes;
+
+    // How many human replies are pondered, most likely first.
+    static final int PONDER_REPLIES = 4;
+    // Budget of the quick search that predicts the human's best reply.
+    private static final SearchBudget PREDICTION_BUDGET = new SearchBudget(0, 0, 2);
+
+    // Identifies the latest request. Results of older requests are dropped.
+    private volatile int currentRequest;
+    // The engine's Model (created by the first request) and, while it searches, the same Model.
+    private Model game;
+    private Model searching;
+    private Future<?> task;
+
+    // The replies being pondered (all guarded by this), and how many requests were answered from them.
+    private final ArrayList<Ponder> ponders = new ArrayList<>();
+    private int ponderHits;
+
+    /**
+     * One pondered reply: the position after it and, once searched, the AI's answer.
+     * A ponder hit that is still searching gets the caller's callback and request id attached.
+     */
+    private static final class Ponder {
+        final Move reply;
+        final long hash;
+        boolean started;
+        Move answer;
+        Callback callback;
+        int request;
+
+        Ponder(Move reply, long hash) {
+            this.reply = reply;
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * Input: callbackExecutor - where Callback methods are run (e.g. Context.getMainExecutor()).
+     * Output: A new AsyncEngine with its own search thread and a Model.DEFAULT_TABLE_BYTES transposition table.
+     */
+    public AsyncEngine(Executor callbackExecutor) {
+        this(callbackExecutor, Model.DEFAULT_TABLE_BYTES);
+    }
+
+    /**
+     * Input: callbackExecutor - as above; tableBytes - memory cap of the engine's transposition table.
+     * Output: A new AsyncEngine with its own search thread.
+     */
+    public AsyncEngine(Executor callbackExecutor, long tableBytes) {
+        this.callbackExecutor = callbackExecutor;
+        this.tableBytes = tableBytes;
+    }
+
+    /**
+     * Input: position - the game to search (copied, not modified); aiPlayer, humanPlayer - side IDs;
+     * budget - limits of the anytime search; callback - receives progress and the chosen move.
+     * Output: None
+     * Logic: Cancels any running request, copies the position and starts an anytime search on the
+     * background thread.
+     */
+    public synchronized void requestMove(Model position, int aiPlayer, int humanPlayer,
+                                         SearchBudget budget, Callback callback) {
+        if (answerFromPondering(position, callback)) return;
+        cancel();
+        final int request = currentRequest;
+        final Model snapshot = position.snapshot();
+        task = searchThread.submit(() -> {
+            Model model = prepare(snapshot, request, (depth, bestMove, score) -> callbackExecutor.execute(() -> {
+                if (request == currentRequest) callback.onProgress(depth, bestMove);
+            }));
+            if (model == null) return;
+            deliverMove(request, callback, model.getHeuristicMove(aiPlayer, humanPlayer, budget));
+        });
+    }
+
+    /**
+     * Input: position - the game right after the AI's move, human to move (copied, not modified);
+     * aiPlayer, humanPlayer - side IDs; budget - the budget requestMove will be called with.
+     * Output: None
+     * Logic: Cancels any running request. On the background thread, predicts the human's replies (the
+     * human's best move by a quick search, then the most forcing moves) and searches the AI's answer to
+     * each in turn with the full budget, so a hit has the same depth as a normal search.
+     */
+    public synchronized void startPondering(Model position, int aiPlayer, int humanPlayer, SearchBudget budget) {
+        cancel();
+        final int request = currentRequest;
+        final Model root = position.snapshot();
+        task = searchThread.submit(() -> ponder(root, aiPlayer, humanPlayer, budget, request));
+    }
+
+    /**
+     * Input: None
+     * Output: None
+     * Logic: Cancels any running request and forgets everything the engine learned during the game.
+     */
+    public synchronized void newGame() {
+        cancel();
+        searchThread.submit(() -> {
+            synchronized (this) {
+                if (game != null) game.resetGame();
+            }
+        });
+    }
+
+    /**
+     * Input: task - work that must not block the caller, e.g. loading files at startup.
+     * Output: None
+     * Logic: Runs the task on the search thread, after anything submitted before it. Results go back
+     * to the caller through its own executor.
+     */
+    public void runInBackground(Runnable task) {
+        searchThread.execute(task);
+    }
+
+    /**
+     * Output: int - How many requestMove calls were answered from pondering (since the engine was created).
+     */
+    public synchronized int getPonderHits() {
+        return ponderHits;
+    }
+
+    /**
+     * Output: int - How many pondered replies already have their answer.
+     */
+    synchronized int getFinishedPonders() {
+        int finished = 0;
+        for (Ponder ponder : ponders) {
+            if (ponder.answer != null) finished++;
+        }
+        return finished;
+    }
+
+    /**
+     * Input: position - a snapshot of the position to search; request - the id it was made for;
+     * listener - progress receiver (may be null).
+     * Output: Model - The engine's Model, now showing the position, or null if the request was cancelled.
+     * Logic: Runs on the search thread. Checking the request and lifting the stop flag happen under the
+     * lock, so a cancel() can't slip in between and be lost.
+     */
+    private synchronized Model prepare(Model position, int request, Model.SearchListener listener) {
+        if (request != currentRequest) return null;
+        if (game == null || game.getSize() != position.getSize() || game.getWinLength() != position.getWinLength()) {
+            game = position.copy(TranspositionTable.withMaxBytes(tableBytes,
+                    TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED));
+        }
+        game.syncPosition(position);
+        game.setSearchListener(listener);
+        searching = game;
+        return game;
+    }
+
+    // Runs on the search thread: predicts the replies, then searches them one by one until cancelled.
+    private void ponder(Model root, int aiPlayer, int humanPlayer, SearchBudget budget, int request) {
+        Model model = prepare(root, request, null);
+        if (model == null) return;
+        ArrayList<Move> replies = new ArrayList<>();
+        Move best = model.getHeuristicMove(humanPlayer, aiPlayer, PREDICTION_BUDGET);
+        replies.add(best);
+        for (Move move : model.getOrderedMoves(humanPlayer)) {
+            if (replies.size() == PONDER_REPLIES) break;
+            if (!move.equals(best)) replies.add(move);
+        }
+        ArrayList<Ponder> pondered = new ArrayList<>();
+        for (Move reply : replies) {
+            pondered.add(new Ponder(reply, root.getHash() ^ Zobrist.key(reply.row, reply.col, humanPlayer)));
+        }
+        synchronized (this) {
+            if (request != currentRequest) return;
+            ponders.addAll(pondered);
+        }
+
+        for (Ponder ponder : pondered) {
+            Model position = root.snapshot();
+            position.makeMove(ponder.reply.row, ponder.reply.col);
+            if (position.checkWin(ponder.reply.row, ponder.reply.col) != Model.EMPTY || position.isTie()) {
+                continue; // Game over, nothing to answer
+            }
+            position.changePlayer();
+            synchronized (this) {
+                model = prepare(position, request, (depth, bestMove, score) -> deliverProgress(ponder, depth, bestMove));
+                if (model == null) return;
+                ponder.started = true;
+            }
+            Move answer = model.getHeuristicMove(aiPlayer, humanPlayer, budget);
+            synchronized (this) {
+                if (model.isSearchStopped()) return; // Cancelled: the answer is not a full search
+                ponder.answer = answer;
+                if (ponder.callback != null) {
+                    // The human already played this reply and is waiting for the answer.
+                    deliverMove(ponder.request, ponder.callback, answer);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Input: position - the game after the human's move; callback - as for requestMove.
+     * Output: boolean - True if the position was pondered, and the answer is (or will be) delivered from there.
+     * Logic: Called with the lock held. A finished answer is delivered at once; a search still running for
+     * this reply keeps running and delivers to the callback. Every other pondered reply is dropped.
+     */
+    private boolean answerFromPondering(Model position, Callback callback) {
+        Ponder hit = null;
+        for (Ponder ponder : ponders) {
+            if (ponder.hash == position.getHash() && ponder.started) hit = ponder;
+        }
+        if (hit == null) return false;
+        ponderHits++;
+        if (hit.answer != null) {
+            cancel();
+            deliverMove(currentRequest, callback, hit.answer);
+            return true;
+        }
+        // Still searching it: stop after this search, with the new request id.
+        currentRequest++;
+        ponders.clear();
+        hit.callback = callback;
+        hit.request = currentRequest;
+        return true;
+    }
+
+    private synchronized void deliverProgress(Ponder ponder, int depth, Move bestMove) {
+        if (ponder.callback == null) return;
+        final Callback callback = ponder.callback;
+        final int request = ponder.request;
+        callbackExecutor.execute(() -> {
+            if (request == currentRequest) callback.onProgress(depth, bestMove);
+        });
+    }
+
+    private void deliverMove(int request, Callback callback, Move move) {
+        callbackExecutor.execute(() -> {
+            if (request == currentRequest) callback.onMoveChosen(move);
+        });
+    }
+
+    /**
+     * Input: None
+     * Output: None
+     * Logic: Stops the running search or pondering (if any) and makes sure none of its callbacks are
+     * delivered. Safe to call when nothing is running.
+     */
+    public synchronized void cancel() {
+        currentRequest++;
+        ponders.clear();
+        if (searching != null) {
+            searching.stopSearch();
+            searching = null;
+        }
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+    }
+
+    /**
+     * Input: None
+     * Output: None
+     * Logic: Cancels the running search and stops the background thread. The engine can't be used afterwards.
+     */
+    public synchronized void shutdown() {
+        cancel();
+        searchThread.shutdown();
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.largetictac;
+
+import java.util.Arrays;
+
+/**
+ * Board stored as bitmasks, one int per line and player.
+ *
+ * Every row, column, diagonal and anti-diagonal of a 15x15 board has at most 15 cells, so a
+ * line fits in the low 16 bits of an int. For each player we keep:
+ * - rows[r]   bit c = stone at (r, c)
+ * - cols[c]   bit r = stone at (r, c)
+ * - diags[c - r + 14]  bit r = stone at (r, c)   (direction 1, 1)
+ * - antis[r + c]       bit r = stone at (r, c)   (direction 1, -1)
+ * Counting a run through a cell is then a shift plus a leading/trailing-zero count
+ * instead of a loop with bounds checks. The masks fix the size at 15x15; use ArrayBoard or
+ * SparseBoard for other sizes.
+ */
+public class BitBoard implements Board {
+    private static final int N = Model.BOARD_SIZE;
+    private static final int FULL_LINE = (1 << N) - 1;
+    private static final int WINDOW_MASK = (1 << PatternTable.WINDOW) - 1;
+    private static final int NOT_A_STONE = -1;
+
+    // Which bits of each diagonal / anti-diagonal are real cells on the board.
+    private static final int[] DIAG_CELLS = new int[2 * N - 1];
+    private static final int[] ANTI_CELLS = new int[2 * N - 1];
+
+    static {
+        for (int r = 0; r < N; r++) {
+            for (int c = 0; c < N; c++) {
+                DIAG_CELLS[c - r + N - 1] |= 1 << r;
+                ANTI_CELLS[r + c] |= 1 << r;
+            }
+        }
+    }
+
+    // First index is the player: 0 for PLAYER_X, 1 for PLAYER_O.
+    private final int[][] rows = new int[2][N];
+    private final int[][] cols = new int[2][N];
+    private final int[][] diags = new int[2][2 * N - 1];
+    private final int[][] antis = new int[2][2 * N - 1];
+
+    // Unordered list of occupied cells (packed as row * N + col) and where each sits in it.
+    private final int[] stones = new int[N * N];
+    private final int[] stoneIndex = new int[N * N];
+    private int stoneCount;
+
+    public BitBoard() {
+        Arrays.fill(stoneIndex, NOT_A_STONE);
+    }
+
+    @Override
+    public int size() {
+        return N;
+    }
+
+    @Override
+    public int stoneCount() {
+        return stoneCount;
+    }
+
+    @Override
+    public int stoneAt(int index) {
+        return stones[index];
+    }
+
+    @Override
+    public int get(int row, int col) {
+        if ((rows[0][row] & (1 << col)) != 0) return Model.PLAYER_X;
+        if ((rows[1][row] & (1 << col)) != 0) return Model.PLAYER_O;
+        return Model.EMPTY;
+    }
+
+    @Override
+    public void set(int row, int col, int value) {
+        int cell = row * N + col;
+        boolean wasStone = stoneIndex[cell] != NOT_A_STONE;
+        if (!wasStone && value != Model.EMPTY) {
+            stoneIndex[cell] = stoneCount;
+            stones[stoneCount++] = cell;
+        } else if (wasStone && value == Model.EMPTY) {
+            // Swap the last stone into the hole
+            int last = stones[--stoneCount];
+            stones[stoneIndex[cell]] = last;
+            stoneIndex[last] = stoneIndex[cell];
+            stoneIndex[cell] = NOT_A_STONE;
+        }
+
+        for (int p = 0; p < 2; p++) {
+            rows[p][row] &= ~(1 << col);
+            cols[p][col] &= ~(1 << row);
+            diags[p][col - row + N - 1] &= ~(1 << row);
+            antis[p][row + col] &= ~(1 << row);
+        }
+        if (value == Model.EMPTY) return;
+
+        int p = value == Model.PLAYER_X ? 0 : 1;
+        rows[p][row] |= 1 << col;
+        cols[p][col] |= 1 << row;
+        diags[p][col - row + N - 1] |= 1 << row;
+        antis[p][row + col] |= 1 << row;
+    }
+
+    @Override
+    public void clear() {
+        for (int p = 0; p < 2; p++) {
+            Arrays.fill(rows[p], 0);
+            Arrays.fill(cols[p], 0);
+            Arrays.fill(diags[p], 0);
+            Arrays.fill(antis[p], 0);
+        }
+        Arrays.fill(stoneIndex, NOT_A_STONE);
+        stoneCount = 0;
+    }
+
+    @Override
+    public Board copy() {
+        BitBoard copy = new BitBoard();
+        for (int p = 0; p < 2; p++) {
+            System.arraycopy(rows[p], 0, copy.rows[p], 0, rows[p].length);
+            System.arraycopy(cols[p], 0, copy.cols[p], 0, cols[p].length);
+            System.arraycopy(diags[p], 0, copy.diags[p], 0, diags[p].length);
+            System.arraycopy(antis[p], 0, copy.antis[p], 0, antis[p].length);
+        }
+        System.arraycopy(stones, 0, copy.stones, 0, stoneCount);
+        System.arraycopy(stoneIndex, 0, copy.stoneIndex, 0, stoneIndex.length);
+        copy.stoneCount = stoneCount;
+        return copy;
+    }
+
+    /**
+     * Input: row, col, dr, dc, player - same as ArrayBoard.countConsecutive.
+     * Output: int - 1 plus the length of the player's runs directly before and after the cell.
+     * Logic: Takes the player's mask for the line and counts the set bits right above and right below
+     * the cell's bit.
+     */
+    @Override
+    public int countConsecutive(int row, int col, int dr, int dc, int player) {
+        int line = lineIndex(row, col, dr, dc);
+        int pos = bitIndex(row, col, dr, dc);
+        int stones = lineMask(line, dr, dc, player == Model.PLAYER_X ? 0 : 1);
+        return 1 + runAbove(stones, pos + 1) + runBelow(stones, pos - 1);
+    }
+
+    /**
+     * Input: row, col, dr, dc, player, winLength - same as ArrayBoard.getViableStoneCount.
+     * Output: int - The stone count, or 0 if the line has less than winLength cells of room.
+     * Logic: Same as countConsecutive, then counts the empty bits directly past both ends of the run.
+     */
+    @Override
+    public int getViableStoneCount(int row, int col, int dr, int dc, int player, int winLength) {
+        int line = lineIndex(row, col, dr, dc);
+        int pos = bitIndex(row, col, dr, dc);
+        int p = player == Model.PLAYER_X ? 0 : 1;
+        int stones = lineMask(line, dr, dc, p);
+        int empty = cellMask(line, dr, dc) & ~(stones | lineMask(line, dr, dc, 1 - p));
+
+        int above = runAbove(stones, pos + 1);
+        int below = runBelow(stones, pos - 1);
+        int count = 1 + above + below;
+
+        int potential = count + runAbove(empty, pos + 1 + above) + runBelow(empty, pos - 1 - below);
+        if (potential < winLength) return 0;
+        return count;
+    }
+
+    /**
+     * Input: row, col, dr, dc, player - same as ArrayBoard.getLinePattern.
+     * Output: int - The PatternTable code of the 9-cell window centred on (row, col).
+     * Logic: Moving along any of the 4 directions moves one bit up in the line mask, so the window is
+     * the 9 bits from pos - 4 to pos + 4 of each mask. Bits that aren't board cells are walls.
+     */
+    @Override
+    public int getLinePattern(int row, int col, int dr, int dc, int player) {
+        int line = lineIndex(row, col, dr, dc);
+        int shift = bitIndex(row, col, dr, dc); // (mask << 4) >>> pos puts bit pos - 4 at bit 0
+        int p = player == Model.PLAYER_X ? 0 : 1;
+        int own = ((lineMask(line, dr, dc, p) << 4) >>> shift) & WINDOW_MASK;
+        int opponent = ((lineMask(line, dr, dc, 1 - p) << 4) >>> shift) & WINDOW_MASK;
+        int wall = ~((cellMask(line, dr, dc) << 4) >>> shift) & WINDOW_MASK;
+        return PatternTable.fromMasks(own, opponent, wall);
+    }
+
+    /**
+     * Input: mask (int), from (int) - a bit index, may be past the top of the line.
+     * Output: int - How many bits are set in a row starting at bit 'from' and going up.
+     */
+    private static int runAbove(int mask, int from) {
+        if (from >= N) return 0;
+        return Integer.numberOfTrailingZeros(~(mask >>> from));
+    }
+
+    /**
+     * Input: mask (int), from (int) - a bit index, may be -1 (below the line).
+     * Output: int - How many bits are set in a row starting at bit 'from' and going down.
+     */
+    private static int runBelow(int mask, int from) {
+        if (from < 0) return 0;
+        return Integer.numberOfLeadingZeros(~(mask << (31 - from)));
+    }
+
+    /**
+     * Logic: Directions are symmetric for counting, so (dr, dc) and (-dr, -dc) use the same line.
+     */
+    private static int lineIndex(int row, int col, int dr, int dc) {
+        if (dr < 0 || (dr == 0 && dc < 0)) {
+            dr = -dr;
+            dc = -dc;
+        }
+        if (dr == 0) return row;
+        if (dc == 0) return col;
+        if (dc == 1) return col - row + N - 1;
+        return row + col;
+    }
+
+    private static int bitIndex(int row, int col, int dr, int dc) {
+        return dr == 0 ? col : row;
+    }
+
+    private int lineMask(int line, int dr, int dc, int p) {
+        if (dr == 0) return rows[p][line];
+        if (dc == 0) return cols[p][line];
+        if (dr == dc) return diags[p][line];
+        return antis[p][line];
+    }
+
+    private static int cellMask(int line, int dr, int dc) {
+        if (dr == 0 || dc == 0) return FULL_LINE;
+        if (dr == dc) return DIAG_CELLS[line];
+        return ANTI_CELLS[line];
+    }
+}
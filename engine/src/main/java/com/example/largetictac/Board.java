@@ -0,0 +1,78 @@
+package com.example.largetictac;
+
+/**
+ * Storage for the stones of one game.
+ * Model and its search only talk to the board through this interface, so the plain
+ * 2D array (ArrayBoard), the bitmask version (BitBoard) and the hash-based SparseBoard can be
+ * swapped freely. All must give identical answers for every method.
+ */
+public interface Board {
+    /**
+     * Output: int - Number of rows (and columns) of the board.
+     */
+    int size();
+
+    /**
+     * Output: int - Number of stones on the board.
+     */
+    int stoneCount();
+
+    /**
+     * Input: index (int) - 0 to stoneCount() - 1.
+     * Output: int - The cell of that stone, packed as row * size() + col. The order is arbitrary and
+     * changes as stones come and go, but lets callers visit every stone without scanning empty cells.
+     */
+    int stoneAt(int index);
+
+    /**
+     * Input: row, col (int)
+     * Output: int - PLAYER_X, PLAYER_O or EMPTY.
+     */
+    int get(int row, int col);
+
+    /**
+     * Input: row, col (int); value (int) - PLAYER_X, PLAYER_O or EMPTY.
+     * Output: None
+     * Logic: Overwrites the cell. Setting EMPTY removes a stone.
+     */
+    void set(int row, int col, int value);
+
+    /**
+     * Output: None
+     * Logic: Removes every stone.
+     */
+    void clear();
+
+    /**
+     * Output: Board - An independent board of the same type holding the same stones.
+     */
+    Board copy();
+
+    /**
+     * Input: row, col - start point; dr, dc - direction; player - ID to count.
+     * Output: int - 1 (the start point itself) plus the player's stones directly connected forward and backward.
+     */
+    int countConsecutive(int row, int col, int dr, int dc, int player);
+
+    /**
+     * Input: row, col - start point; dr, dc - direction; player - ID to count.
+     * Output: int - The same count as countConsecutive, or 0 if the stones plus the empty cells
+     * directly around them leave less than 5 cells of room (the line can never win).
+     */
+    default int getViableStoneCount(int row, int col, int dr, int dc, int player) {
+        return getViableStoneCount(row, col, dr, dc, player, 5);
+    }
+
+    /**
+     * Input: same as above; winLength (int) - stones in a row needed to win.
+     * Output: int - The same count as countConsecutive, or 0 if there is less than winLength cells of room.
+     */
+    int getViableStoneCount(int row, int col, int dr, int dc, int player, int winLength);
+
+    /**
+     * Input: row, col - the centre point; dr, dc - one of the 4 line directions (1,0), (0,1), (1,1), (1,-1);
+     * player - whose point of view.
+     * Output: int - The PatternTable code of the 9 cells from (row - 4dr, col - 4dc) to (row + 4dr, col + 4dc).
+     */
+    int getLinePattern(int row, int col, int dr, int dc, int player);
+}
@@ -0,0 +1,208 @@
+package com.example.largetictac;
+
+import java.util.Arrays;
+
+/**
+ * The "frontier": every empty cell that touches at least one stone.
+ * These are exactly the cells getPossibleAdjacentMoves returns, but instead of rescanning the
+ * board they are kept up to date as stones are placed and removed. Each update touches only
+ * the 8 neighbours of the changed cell, so undoing a move during search is as cheap as making it.
+ *
+ * Boards up to DENSE_CELLS cells keep one array slot per cell. Bigger boards keep the same
+ * numbers in CellMaps that only hold stones and cells next to stones, so memory and time follow
+ * the number of stones, not the area.
+ */
+public class CandidateSet {
+    // Largest board (in cells) that gets plain per-cell arrays.
+    public static final int DENSE_CELLS = 64 * 64;
+
+    private static final int NOT_IN_SET = -1;
+    // Added to the neighbour count of a cell that holds a stone itself (sparse mode only).
+    private static final int OCCUPIED = 1 << 8;
+
+    private final int size;
+
+    // Dense mode: how many of the 8 surrounding cells hold a stone, whether the cell has one,
+    // and where the cell sits in the frontier list.
+    private final int[] neighbourStones;
+    private final boolean[] occupied;
+    private final int[] positions;
+
+    // Sparse mode: the same data, only for cells where it isn't 0 / false / NOT_IN_SET.
+    // counts holds neighbour count + OCCUPIED.
+    private final CellMap counts;
+    private final CellMap sparsePositions;
+
+    // Unordered list of frontier cells (packed as row * size + col), so that adding and removing are both O(1).
+    private int[] cells;
+    private int count;
+
+    public CandidateSet() {
+        this(Model.BOARD_SIZE);
+    }
+
+    /**
+     * Input: size (int) - rows and columns of the board.
+     * Output: A new, empty CandidateSet.
+     */
+    public CandidateSet(int size) {
+        this.size = size;
+        if ((long) size * size <= DENSE_CELLS) {
+            neighbourStones = new int[size * size];
+            occupied = new boolean[size * size];
+            positions = new int[size * size];
+            cells = new int[size * size];
+            counts = null;
+            sparsePositions = null;
+        } else {
+            neighbourStones = null;
+            occupied = null;
+            positions = null;
+            cells = new int[256];
+            counts = new CellMap(1024);
+            sparsePositions = new CellMap(1024);
+        }
+        clear();
+    }
+
+    /**
+     * Input: None
+     * Output: None
+     * Logic: Forgets every stone, as for an empty board.
+     */
+    public void clear() {
+        if (counts == null) {
+            Arrays.fill(neighbourStones, 0);
+            Arrays.fill(occupied, false);
+            Arrays.fill(positions, NOT_IN_SET);
+        } else {
+            counts.clear();
+            sparsePositions.clear();
+        }
+        count = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Input: index (int) - 0 to size() - 1.
+     * Output: int - The frontier cell at that index, packed as row * board size + col.
+     * Logic: The order changes as cells come and go; callers that need an order must sort.
+     */
+    public int get(int index) {
+        return cells[index];
+    }
+
+    public boolean contains(int row, int col) {
+        return positionOf(row * size + col) != NOT_IN_SET;
+    }
+
+    /**
+     * Input: row, col (int) - a cell that just received a stone.
+     * Output: None
+     * Logic: The cell leaves the frontier. Each empty neighbour that had no stone around it joins.
+     */
+    public void onPlace(int row, int col) {
+        int cell = row * size + col;
+        setOccupied(cell, true);
+        remove(cell);
+        for (int r = Math.max(0, row - 1); r <= Math.min(size - 1, row + 1); r++) {
+            for (int c = Math.max(0, col - 1); c <= Math.min(size - 1, col + 1); c++) {
+                int neighbour = r * size + c;
+                if (neighbour == cell) continue;
+                int stones = addNeighbourStones(neighbour, 1);
+                if (!isOccupied(neighbour) && stones == 1) add(neighbour);
+            }
+        }
+    }
+
+    /**
+     * Input: row, col (int) - a cell whose stone was just removed.
+     * Output: None
+     * Logic: Exact reverse of onPlace. Neighbours with no stone left around them leave the frontier,
+     * and the cell itself rejoins if it still touches a stone.
+     */
+    public void onRemove(int row, int col) {
+        int cell = row * size + col;
+        setOccupied(cell, false);
+        for (int r = Math.max(0, row - 1); r <= Math.min(size - 1, row + 1); r++) {
+            for (int c = Math.max(0, col - 1); c <= Math.min(size - 1, col + 1); c++) {
+                int neighbour = r * size + c;
+                if (neighbour == cell) continue;
+                int stones = addNeighbourStones(neighbour, -1);
+                if (!isOccupied(neighbour) && stones == 0) remove(neighbour);
+            }
+        }
+        if (neighbourStones(cell) > 0) add(cell);
+    }
+
+    private void add(int cell) {
+        if (positionOf(cell) != NOT_IN_SET) return;
+        if (count == cells.length) cells = Arrays.copyOf(cells, count * 2);
+        setPosition(cell, count);
+        cells[count++] = cell;
+    }
+
+    private void remove(int cell) {
+        int position = positionOf(cell);
+        if (position == NOT_IN_SET) return;
+        // Swap the last cell into the hole
+        int last = cells[--count];
+        cells[position] = last;
+        setPosition(last, position);
+        setPosition(cell, NOT_IN_SET);
+    }
+
+    // ==================================================================================
+    //                      PER-CELL DATA (ARRAYS OR MAPS)
+    // ==================================================================================
+
+    private int positionOf(int cell) {
+        return counts == null ? positions[cell] : sparsePositions.get(cell, NOT_IN_SET);
+    }
+
+    private void setPosition(int cell, int position) {
+        if (counts == null) {
+            positions[cell] = position;
+        } else if (position == NOT_IN_SET) {
+            sparsePositions.remove(cell);
+        } else {
+            sparsePositions.put(cell, position);
+        }
+    }
+
+    private int neighbourStones(int cell) {
+        return counts == null ? neighbourStones[cell] : counts.get(cell, 0) & (OCCUPIED - 1);
+    }
+
+    private boolean isOccupied(int cell) {
+        return counts == null ? occupied[cell] : (counts.get(cell, 0) & OCCUPIED) != 0;
+    }
+
+    private void setOccupied(int cell, boolean stone) {
+        if (counts == null) {
+            occupied[cell] = stone;
+        } else {
+            putCount(cell, (counts.get(cell, 0) & (OCCUPIED - 1)) | (stone ? OCCUPIED : 0));
+        }
+    }
+
+    // Adds delta to the cell's neighbour count. Output: the new count.
+    private int addNeighbourStones(int cell, int delta) {
+        if (counts == null) return neighbourStones[cell] += delta;
+        int value = counts.get(cell, 0) + delta;
+        putCount(cell, value);
+        return value & (OCCUPIED - 1);
+    }
+
+    // Sparse mode: cells with nothing to remember leave the map, so it only holds cells near stones.
+    private void putCount(int cell, int value) {
+        if (value == 0) {
+            counts.remove(cell);
+        } else {
+            counts.put(cell, value);
+        }
+    }
+}
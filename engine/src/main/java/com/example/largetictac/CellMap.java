@@ -0,0 +1,113 @@
+package com.example.largetictac;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from packed cells (row * size + col, never negative) to ints, for boards too big
+ * for one array slot per cell. Open addressing with linear probing in two primitive arrays, so
+ * lookups allocate nothing; the arrays only grow (double) when the map gets half full.
+ * Removing shifts the following entries back instead of leaving tombstones, so a map that
+ * grows and shrinks all game long never slows down.
+ */
+final class CellMap {
+    private static final int FREE = -1;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int count;
+
+    /**
+     * Input: expected (int) - how many entries to make room for before the first resize.
+     */
+    CellMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    int size() {
+        return count;
+    }
+
+    /**
+     * Output: int - The value stored for the cell, or missing if there is none.
+     */
+    int get(int cell, int missing) {
+        int slot = slotOf(cell);
+        return keys[slot] == FREE ? missing : values[slot];
+    }
+
+    void put(int cell, int value) {
+        int slot = slotOf(cell);
+        if (keys[slot] == FREE) {
+            if (2 * (count + 1) > keys.length) {
+                resize(keys.length << 1);
+                slot = slotOf(cell);
+            }
+            keys[slot] = cell;
+            count++;
+        }
+        values[slot] = value;
+    }
+
+    /**
+     * Logic: Empties the slot, then moves every following entry of the same probe run that would no
+     * longer be found (its home slot is not cyclically after the hole) back into the hole.
+     */
+    void remove(int cell) {
+        int hole = slotOf(cell);
+        if (keys[hole] == FREE) return;
+        count--;
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            int key = keys[slot];
+            if (key == FREE) break;
+            int home = hash(key) & mask;
+            // Can the entry stay? Only if its home lies cyclically in (hole, slot].
+            boolean stays = hole <= slot ? (hole < home && home <= slot) : (hole < home || home <= slot);
+            if (stays) continue;
+            keys[hole] = key;
+            values[hole] = values[slot];
+            hole = slot;
+        }
+        keys[hole] = FREE;
+    }
+
+    void clear() {
+        Arrays.fill(keys, FREE);
+        count = 0;
+    }
+
+    // The slot holding the cell, or the free slot where it would go.
+    private int slotOf(int cell) {
+        int slot = hash(cell) & mask;
+        while (keys[slot] != FREE && keys[slot] != cell) slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private static int hash(int cell) {
+        int h = cell * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, FREE);
+        mask = capacity - 1;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.example.largetictac;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Session manager for a game backend: hosts many games at once and plays the AI's side of each.
+ *
+ * A game is only a GameSession (two bitsets and a byte per move, a few hundred bytes). The search
+ * state lives in a fixed pool of worker threads, one Model each: for every AI turn a worker loads the
+ * game into its Model (resetGame and the moves), searches and hands the move back. So memory grows
+ * with the number of workers, not of games. What never changes is shared anyway: Zobrist keys and
+ * PatternTable are static, and an OpeningBook can be given to every worker's Model.
+ *
+ * Scheduling: a game has at most one AI request waiting (it is the human's turn again only after the
+ * AI moved), and the requests wait in one FIFO queue, so the workers serve the games in turn and a busy
+ * game can't push the others back. Every request has a deadline, maxLatencyMillis after it was made:
+ * the search gets the budget's time, but never more than what is left until the deadline. A request
+ * that waited so long that nothing is left still gets an answer, from a 1-ply search, and is counted
+ * in getLateMoves().
+ *
+ * Results come as CompletableFutures, completed on the worker thread.
+ */
+public class GameServer {
+    // getWinner() of a game that ended with a full board
+    public static final int DRAW = GameSession.DRAW;
+
+    private static final int N = Model.BOARD_SIZE;
+    // Kept back from a request's deadline for handing the move back.
+    private static final long DEADLINE_RESERVE_MILLIS = 2;
+    // Below this, a full search isn't worth starting; the quick search answers instead.
+    private static final long MIN_SEARCH_MILLIS = 2;
+    private static final SearchBudget QUICK_BUDGET = new SearchBudget(1, 0, 1);
+
+    private final ConcurrentHashMap<Integer, GameSession> games = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final LinkedBlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private final Thread[] workers;
+    private final Model[] models;
+    private final SearchBudget budget;
+    private final long maxLatencyMillis;
+    private volatile boolean running = true;
+
+    private final LongAdder aiMoves = new LongAdder();
+    private final LongAdder lateMoves = new LongAdder();
+    private final LongAdder busyNanos = new LongAdder();
+
+    private static final class Request {
+        final GameSession game;
+        final long deadline;
+        final CompletableFuture<Move> result = new CompletableFuture<>();
+
+        Request(GameSession game, long deadline) {
+            this.game = game;
+            this.deadline = deadline;
+        }
+    }
+
+    /**
+     * Input: workerCount (int) - search threads, usually the number of cores; newModel - makes each
+     * worker's Model (its settings, table size and opening book are used for every game);
+     * budget - limits of the anytime search of one AI move; maxLatencyMillis - deadline of a request.
+     * Output: A new GameServer with its workers started.
+     */
+    public GameServer(int workerCount, Supplier<Model> newModel, SearchBudget budget, long maxLatencyMillis) {
+        if (workerCount < 1) throw new IllegalArgumentException("workerCount must be >= 1: " + workerCount);
+        this.budget = budget;
+        this.maxLatencyMillis = maxLatencyMillis;
+        workers = new Thread[workerCount];
+        models = new Model[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            Model model = newModel.get();
+            if (model.getSize() != N || model.getWinLength() != 5) {
+                throw new IllegalArgumentException("GameServer plays 15x15 five in a row");
+            }
+            models[i] = model;
+            workers[i] = new Thread(() -> work(model), "game-server-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * Input: aiPlayer (int) - the AI's side, PLAYER_X or PLAYER_O.
+     * Output: int - Id of the new game. With the AI as X, call requestAiMove for its first move.
+     */
+    public int newGame(int aiPlayer) {
+        if (aiPlayer != Model.PLAYER_X && aiPlayer != Model.PLAYER_O) {
+            throw new IllegalArgumentException("aiPlayer must be PLAYER_X or PLAYER_O: " + aiPlayer);
+        }
+        int id = nextId.incrementAndGet();
+        games.put(id, new GameSession(id, aiPlayer));
+        return id;
+    }
+
+    /**
+     * Input: game (int) - a game id; row, col (int) - the human's move.
+     * Output: CompletableFuture - The AI's reply, or null if the human's move ended the game.
+     * Logic: Throws IllegalStateException when it isn't the human's turn or the game is over, and
+     * IllegalArgumentException for an unknown game or a cell that is taken or off the board.
+     */
+    public CompletableFuture<Move> play(int game, int row, int col) {
+        GameSession session = session(game);
+        synchronized (session) {
+            checkPlaying(session);
+            if (session.getCurrentPlayer() == session.aiPlayer) throw new IllegalStateException("The AI is to move");
+            if (row < 0 || row >= N || col < 0 || col >= N || session.get(row * N + col) != Model.EMPTY) {
+                throw new IllegalArgumentException("Illegal move: " + row + "," + col);
+            }
+            session.play(row * N + col);
+            if (session.isOver()) return CompletableFuture.completedFuture(null);
+            return enqueue(session);
+        }
+    }
+
+    /**
+     * Input: game (int) - a game where the AI is to move and no AI move was asked for yet.
+     * Output: CompletableFuture - The AI's move.
+     */
+    public CompletableFuture<Move> requestAiMove(int game) {
+        GameSession session = session(game);
+        synchronized (session) {
+            checkPlaying(session);
+            if (session.getCurrentPlayer() != session.aiPlayer) throw new IllegalStateException("The human is to move");
+            if (session.aiMovePending) throw new IllegalStateException("The AI move was already asked for");
+            return enqueue(session);
+        }
+    }
+
+    /**
+     * Input: game (int)
+     * Output: int[] - The cells (row * 15 + col) of the moves so far, X's first.
+     */
+    public int[] getMoves(int game) {
+        GameSession session = session(game);
+        synchronized (session) {
+            int[] cells = new int[session.getMoveCount()];
+            for (int i = 0; i < cells.length; i++) cells[i] = session.getMove(i);
+            return cells;
+        }
+    }
+
+    /**
+     * Input: game (int)
+     * Output: int - PLAYER_X or PLAYER_O after five in a row, DRAW after a full board, EMPTY while playing.
+     */
+    public int getWinner(int game) {
+        GameSession session = session(game);
+        synchronized (session) {
+            return session.getWinner();
+        }
+    }
+
+    /**
+     * Input: game (int)
+     * Output: None
+     * Logic: Forgets the game. A move of it that is still queued is dropped (its future is cancelled);
+     * one that is being searched finishes, but isn't played.
+     */
+    public void endGame(int game) {
+        GameSession session = games.remove(game);
+        if (session == null) return;
+        synchronized (session) {
+            session.closed = true;
+        }
+    }
+
+    public int getGameCount() {
+        return games.size();
+    }
+
+    public int getWorkerCount() {
+        return workers.length;
+    }
+
+    /**
+     * Output: int - AI requests waiting for a worker.
+     */
+    public int getQueueLength() {
+        return queue.size();
+    }
+
+    public long getAiMoves() {
+        return aiMoves.sum();
+    }
+
+    /**
+     * Output: long - Time the workers spent loading games and searching, summed over all workers.
+     * Divided by getAiMoves(), it is the cost of one move on one core.
+     */
+    public long getBusyNanos() {
+        return busyNanos.sum();
+    }
+
+    /**
+     * Output: long - AI moves that were searched for 1 ply only, because their deadline had (almost) passed.
+     */
+    public long getLateMoves() {
+        return lateMoves.sum();
+    }
+
+    /**
+     * Input: None
+     * Output: None
+     * Logic: Stops the workers and cancels the queued requests. A search that is running, or that a worker
+     * is just starting, returns at once and its request is cancelled too.
+     */
+    public void shutdown() {
+        running = false;
+        for (int i = 0; i < workers.length; i++) {
+            models[i].stopSearch();
+            workers[i].interrupt();
+        }
+        Request request;
+        while ((request = queue.poll()) != null) request.result.cancel(false);
+    }
+
+    private GameSession session(int game) {
+        GameSession session = games.get(game);
+        if (session == null) throw new IllegalArgumentException("Unknown game: " + game);
+        return session;
+    }
+
+    private static void checkPlaying(GameSession session) {
+        if (session.closed) throw new IllegalStateException("Game " + session.id + " has ended");
+        if (session.isOver()) throw new IllegalStateException("Game " + session.id + " is over");
+    }
+
+    // Called with the session locked.
+    private CompletableFuture<Move> enqueue(GameSession session) {
+        if (!running) throw new IllegalStateException("The server is shut down");
+        session.aiMovePending = true;
+        Request request = new Request(session, System.nanoTime() + maxLatencyMillis * 1000000L);
+        queue.add(request);
+        return request.result;
+    }
+
+    /**
+     * Input: model - this worker's own Model.
+     * Output: None
+     * Logic: Takes requests in turn until shutdown: loads the game into the model, searches within the
+     * request's deadline and plays the move in the game, unless the game was ended or the server shut
+     * down meanwhile.
+     */
+    private void work(Model model) {
+        int[] cells = new int[N * N];
+        while (running) {
+            Request request;
+            try {
+                request = queue.take();
+            } catch (InterruptedException e) {
+                break;
+            }
+            GameSession game = request.game;
+            int count;
+            synchronized (game) {
+                if (game.closed) {
+                    request.result.cancel(false);
+                    continue;
+                }
+                count = game.getMoveCount();
+                for (int i = 0; i < count; i++) cells[i] = game.getMove(i);
+            }
+
+            Move move;
+            long start = System.nanoTime();
+            try {
+                move = search(model, cells, count, game.aiPlayer, request);
+            } catch (RuntimeException e) {
+                synchronized (game) {
+                    game.aiMovePending = false;
+                }
+                request.result.completeExceptionally(e);
+                continue;
+            } finally {
+                busyNanos.add(System.nanoTime() - start);
+            }
+            synchronized (game) {
+                game.aiMovePending = false;
+                if (game.closed || !running) {
+                    request.result.cancel(false);
+                    continue;
+                }
+                game.play(move.row * N + move.col);
+            }
+            aiMoves.increment();
+            request.result.complete(move);
+        }
+    }
+
+    private Move search(Model model, int[] cells, int count, int aiPlayer, Request request) {
+        // The search would try every cell of an empty board; the centre is the usual first move anyway.
+        if (count == 0) return Move.of(N / 2, N / 2);
+        model.resetGame();
+        for (int i = 0; i < count; i++) {
+            model.makeMove(cells[i] / N, cells[i] % N);
+            model.changePlayer();
+        }
+        // resetGame lifted a stop that shutdown may have sent before; from here on stopSearch reaches the search.
+        if (!running) return null;
+        return model.getHeuristicMove(aiPlayer, -aiPlayer, budgetFor(request));
+    }
+
+    /**
+     * Input: request - the request about to be searched.
+     * Output: SearchBudget - The server's budget, with its time cut to what is left until the deadline.
+     */
+    private SearchBudget budgetFor(Request request) {
+        long left = (request.deadline - System.nanoTime()) / 1000000L - DEADLINE_RESERVE_MILLIS;
+        if (left < MIN_SEARCH_MILLIS) {
+            lateMoves.increment();
+            return QUICK_BUDGET;
+        }
+        long time = budget.timeMillis > 0 ? Math.min(budget.timeMillis, left) : left;
+        return new SearchBudget(time, budget.maxNodes, budget.maxDepth);
+    }
+}
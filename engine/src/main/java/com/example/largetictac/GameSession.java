@@ -0,0 +1,119 @@
+package com.example.largetictac;
+
+import java.util.Arrays;
+
+/**
+ * One game of a GameServer, kept as small as possible so a server can hold thousands:
+ * the board as two bitsets (one bit per cell and player, 64 bytes) and the moves as one byte per
+ * move (15x15 = 225 cells fit in a byte). Everything else a search needs (the Model, its tables and
+ * buffers) belongs to the worker that plays the AI's move, not to the game.
+ *
+ * Not thread-safe by itself: GameServer locks the session while it reads or changes it.
+ */
+final class GameSession {
+    static final int N = Model.BOARD_SIZE;
+    static final int CELLS = N * N;
+    // getWinner() of a game that ended with a full board
+    static final int DRAW = 2;
+
+    private static final int WORDS = (CELLS + 63) / 64;
+    private static final int[][] DIRECTIONS = {{1, 0}, {0, 1}, {1, 1}, {1, -1}};
+
+    final int id;
+    final int aiPlayer;
+    // Words 0..WORDS-1 hold X's stones, the next WORDS words O's: bit (cell % 64) of word (cell / 64).
+    private final long[] stones = new long[2 * WORDS];
+    private byte[] moves = new byte[16];
+    private int moveCount;
+    private int winner = Model.EMPTY;
+    // True while an AI move of this game is queued or being searched.
+    boolean aiMovePending;
+    boolean closed;
+
+    GameSession(int id, int aiPlayer) {
+        this.id = id;
+        this.aiPlayer = aiPlayer;
+    }
+
+    /**
+     * Output: int - The side to move: X on an empty board, then in turns.
+     */
+    int getCurrentPlayer() {
+        return moveCount % 2 == 0 ? Model.PLAYER_X : Model.PLAYER_O;
+    }
+
+    int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Input: index (int) - 0 for the first move of the game.
+     * Output: int - The cell (row * N + col) of that move.
+     */
+    int getMove(int index) {
+        return moves[index] & 0xFF;
+    }
+
+    /**
+     * Input: cell (int) - row * N + col.
+     * Output: int - PLAYER_X, PLAYER_O or EMPTY.
+     */
+    int get(int cell) {
+        long bit = 1L << cell;
+        if ((stones[cell >>> 6] & bit) != 0) return Model.PLAYER_X;
+        if ((stones[WORDS + (cell >>> 6)] & bit) != 0) return Model.PLAYER_O;
+        return Model.EMPTY;
+    }
+
+    /**
+     * Output: int - PLAYER_X or PLAYER_O once five in a row was made, DRAW once the board is full,
+     * EMPTY while the game goes on.
+     */
+    int getWinner() {
+        return winner;
+    }
+
+    boolean isOver() {
+        return winner != Model.EMPTY;
+    }
+
+    /**
+     * Input: cell (int) - an empty cell; the caller checked that the game isn't over.
+     * Output: None
+     * Logic: Places the side to move's stone, records the move and checks for five in a row through it.
+     */
+    void play(int cell) {
+        int player = getCurrentPlayer();
+        stones[(player == Model.PLAYER_X ? 0 : WORDS) + (cell >>> 6)] |= 1L << cell;
+        if (moveCount == moves.length) moves = Arrays.copyOf(moves, Math.min(2 * moves.length, CELLS));
+        moves[moveCount++] = (byte) cell;
+        if (makesFive(cell, player)) {
+            winner = player;
+        } else if (moveCount == CELLS) {
+            winner = DRAW;
+        }
+    }
+
+    private boolean makesFive(int cell, int player) {
+        int row = cell / N;
+        int col = cell % N;
+        for (int[] dir : DIRECTIONS) {
+            int count = 1 + run(row, col, dir[0], dir[1], player) + run(row, col, -dir[0], -dir[1], player);
+            if (count >= 5) return true;
+        }
+        return false;
+    }
+
+    // Stones of the player in a row from (row, col), not counting the cell itself.
+    private int run(int row, int col, int dr, int dc, int player) {
+        int count = 0;
+        int r = row + dr;
+        int c = col + dc;
+        while (r >= 0 && r < N && c >= 0 && c < N && get(r * N + c) == player) {
+            count++;
+            r += dr;
+            c += dc;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.largetictac;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the score of Model.evaluateBoardState up to date as stones are placed and removed.
+ *
+ * evaluateBoardState adds, for every stone and every direction, 2^(viable run length).
+ * That value only depends on the line the stone lies on, so the board score is the sum of
+ * independent per-line scores. A move changes exactly 4 lines (its row, column, diagonal and
+ * anti-diagonal), so only those 4 are re-scored. Reading the score is then O(1).
+ *
+ * With pattern scoring on, each stone instead scores PatternTable.score of its 9-cell window on the
+ * line. That also only depends on the line, so the same per-line bookkeeping works.
+ *
+ * On boards larger than MAX_LINE_SIZE a whole line is too long to re-score per move. With pattern
+ * scoring, a stone's score only depends on the 4 cells on each side, so there only the stones
+ * within 4 cells of the change are re-scored (beforeUpdate takes their old scores out, update adds
+ * the new ones): the cost is the same for any board size.
+ */
+public class IncrementalEvaluator {
+    // Largest board that re-scores whole lines. Above it, pattern scoring is updated locally.
+    public static final int MAX_LINE_SIZE = 32;
+    private static final int[][] DIRECTIONS = {{1, 0}, {0, 1}, {1, 1}, {1, -1}};
+
+    private final int n;
+    private final int winLength;
+    private final int rowLines;
+    private final int colLines;
+    private final int diagLines;
+    private final int antiDiagLines;
+
+    // Per-line scores, allocated when first needed. Index 0 is PLAYER_X, index 1 is PLAYER_O.
+    private int[][] lineScores;
+    private final int[] totals = new int[2];
+    private boolean patternScoring;
+
+    public IncrementalEvaluator() {
+        this(Model.BOARD_SIZE, 5);
+    }
+
+    /**
+     * Input: size (int) - rows and columns of the board; winLength (int) - stones in a row needed to win
+     * (only the 2^count scoring uses it, pattern scores are for five in a row).
+     */
+    public IncrementalEvaluator(int size, int winLength) {
+        n = size;
+        this.winLength = winLength;
+        rowLines = 0;
+        colLines = n;
+        diagLines = 2 * n;
+        antiDiagLines = 2 * n + (2 * n - 1);
+    }
+
+    // True when scores are kept per stone window instead of per line.
+    private boolean local() {
+        return patternScoring && n > MAX_LINE_SIZE;
+    }
+
+    private int[][] lineScores() {
+        if (lineScores == null) lineScores = new int[2][2 * n + 2 * (2 * n - 1)];
+        return lineScores;
+    }
+
+    /**
+     * Input: enabled (boolean)
+     * Output: None
+     * Logic: Switches between 2^count scoring and PatternTable scoring. Scores already summed are from
+     * the old scheme, so call rebuild afterwards.
+     */
+    public void setPatternScoring(boolean enabled) {
+        patternScoring = enabled;
+    }
+
+    /**
+     * Input: board (Board)
+     * Output: None
+     * Logic: Re-scores every line of the board from scratch.
+     */
+    public void rebuild(Board board) {
+        reset();
+        if (local()) {
+            for (int i = 0; i < board.stoneCount(); i++) {
+                int cell = board.stoneAt(i);
+                int row = cell / n;
+                int col = cell % n;
+                int player = board.get(row, col);
+                for (int[] dir : DIRECTIONS) {
+                    totals[player == Model.PLAYER_X ? 0 : 1] +=
+                            PatternTable.score(board.getLinePattern(row, col, dir[0], dir[1], player));
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < n; i++) {
+            update(board, i, i);             // Row i, column i, main diagonal, anti-diagonal 2i
+            update(board, 0, i);             // Diagonals starting on the top edge, anti-diagonals 0..n-1
+            update(board, i, 0);             // Diagonals starting on the left edge
+            update(board, n - 1, i);         // Anti-diagonals n-1..2n-2
+        }
+    }
+
+    /**
+     * Input: None
+     * Output: None
+     * Logic: Sets every line score to 0, which is the score of an empty board.
+     */
+    public void reset() {
+        if (lineScores != null) {
+            Arrays.fill(lineScores[0], 0);
+            Arrays.fill(lineScores[1], 0);
+        }
+        totals[0] = 0;
+        totals[1] = 0;
+    }
+
+    /**
+     * Input: board (Board) - the board BEFORE a stone is placed on or removed from (row, col).
+     * Output: None
+     * Logic: Only needed for local updates: takes the scores of the stones near the cell out of the
+     * totals, update() adds them back once the cell has changed. Does nothing otherwise.
+     */
+    public void beforeUpdate(Board board, int row, int col) {
+        if (local()) addNearbyScores(board, row, col, -1);
+    }
+
+    /**
+     * Input: board (Board) - the board AFTER a stone was placed on or removed from (row, col).
+     * Output: None
+     * Logic: Re-scores the row, column, diagonal and anti-diagonal through the changed cell for both players.
+     */
+    public void update(Board board, int row, int col) {
+        if (local()) {
+            addNearbyScores(board, row, col, 1);
+            return;
+        }
+        // Row: starts at column 0
+        rescoreLine(board, rowLines + row, row, 0, 0, 1, n);
+
+        // Column: starts at row 0
+        rescoreLine(board, colLines + col, 0, col, 1, 0, n);
+
+        // Diagonal ↘: walk back to the top or left edge
+        int back = Math.min(row, col);
+        int r0 = row - back;
+        int c0 = col - back;
+        rescoreLine(board, diagLines + (col - row + n - 1), r0, c0, 1, 1, n - Math.max(r0, c0));
+
+        // Anti-Diagonal ↙: walk back to the top or right edge
+        back = Math.min(row, n - 1 - col);
+        r0 = row - back;
+        c0 = col + back;
+        rescoreLine(board, antiDiagLines + (row + col), r0, c0, 1, -1, Math.min(n - r0, c0 + 1));
+    }
+
+    /**
+     * Input: board; row, col - the changed cell; sign - +1 to add the scores, -1 to take them out.
+     * Output: None
+     * Logic: In each direction, the stones whose 9-cell window covers the cell are the ones at most 4 cells
+     * away on that line. Reads the 17 cells from -8 to +8 once and slides the window (seen from PLAYER_X)
+     * over the 9 centres, like rescorePatternLine does for a whole line.
+     */
+    private void addNearbyScores(Board board, int row, int col, int sign) {
+        for (int[] dir : DIRECTIONS) {
+            int dr = dir[0];
+            int dc = dir[1];
+            // Window centred on -4: cells -8..0
+            int code = 0;
+            for (int k = 0; k < PatternTable.WINDOW; k++) {
+                code |= cellCodeAt(board, row + (k - 8) * dr, col + (k - 8) * dc) << (2 * k);
+            }
+            for (int i = -4; i <= 4; i++) {
+                int r = row + i * dr;
+                int c = col + i * dc;
+                int centre = (code >>> 8) & 3;
+                if (centre == PatternTable.OWN_CELL) {
+                    totals[0] += sign * PatternTable.score(code);
+                } else if (centre == PatternTable.OPPONENT_CELL) {
+                    totals[1] += sign * PatternTable.score(PatternTable.swapPlayers(code));
+                }
+                code = (code >>> 2) | (cellCodeAt(board, r + 5 * dr, c + 5 * dc) << (2 * (PatternTable.WINDOW - 1)));
+            }
+        }
+    }
+
+    // 2-bit window cell of (r, c), seen from PLAYER_X.
+    private int cellCodeAt(Board board, int r, int c) {
+        if (r < 0 || r >= n || c < 0 || c >= n) return PatternTable.WALL_CELL;
+        int stone = board.get(r, c);
+        if (stone == Model.PLAYER_X) return PatternTable.OWN_CELL;
+        if (stone == Model.PLAYER_O) return PatternTable.OPPONENT_CELL;
+        return PatternTable.EMPTY_CELL;
+    }
+
+    /**
+     * Input: aiPlayer (int)
+     * Output: double - Exactly the value Model.evaluateBoardState(aiPlayer) would return.
+     * Logic: Difference between the AI's and the human's summed line scores.
+     */
+    public double evaluate(int aiPlayer) {
+        int ai = aiPlayer == Model.PLAYER_X ? 0 : 1;
+        return totals[ai] - totals[1 - ai];
+    }
+
+    private void rescoreLine(Board board, int line, int r0, int c0, int dr, int dc, int length) {
+        if (patternScoring) {
+            rescorePatternLine(board, line, r0, c0, dr, dc, length);
+            return;
+        }
+        int[][] lineScores = lineScores();
+        for (int p = 0; p < 2; p++) {
+            int player = p == 0 ? Model.PLAYER_X : Model.PLAYER_O;
+            int score = scoreLine(board, r0, c0, dr, dc, length, player, winLength);
+            totals[p] += score - lineScores[p][line];
+            lineScores[p][line] = score;
+        }
+    }
+
+    /**
+     * Input: board, the line (start r0/c0, direction dr/dc, length) and a player.
+     * Output: int - The sum of 2^count over the player's stones on this line.
+     * Logic: Finds each run of the player's stones. Like getViableStoneCount, a run only counts when the run
+     * plus the empty cells directly around it leave room for winLength. Every stone of a run of length L gets
+     * the same count L, so the run adds L * 2^L.
+     */
+    private static int scoreLine(Board board, int r0, int c0, int dr, int dc, int length, int player, int winLength) {
+        int score = 0;
+        int i = 0;
+        while (i < length) {
+            if (board.get(r0 + i * dr, c0 + i * dc) != player) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < length && board.get(r0 + i * dr, c0 + i * dc) == player) i++;
+            int stones = i - start;
+
+            int room = stones;
+            for (int j = start - 1; j >= 0 && board.get(r0 + j * dr, c0 + j * dc) == Model.EMPTY; j--) room++;
+            for (int j = i; j < length && board.get(r0 + j * dr, c0 + j * dc) == Model.EMPTY; j++) room++;
+
+            if (room >= winLength) score += stones << stones;
+        }
+        return score;
+    }
+
+    /**
+     * Input: same as rescoreLine.
+     * Output: None
+     * Logic: Slides the 9-cell window (seen from PLAYER_X) along the line, 2 bits in and 2 bits out per
+     * step, and adds PatternTable.score for every stone: as is for X, with the players swapped for O.
+     */
+    private void rescorePatternLine(Board board, int line, int r0, int c0, int dr, int dc, int length) {
+        // Window centred on cell 0: cells -4..-1 are off the board
+        int code = 0;
+        for (int k = 0; k < PatternTable.WINDOW; k++) {
+            code |= cellCode(board, r0, c0, dr, dc, length, k - 4) << (2 * k);
+        }
+        int xScore = 0;
+        int oScore = 0;
+        for (int i = 0; i < length; i++) {
+            int stone = board.get(r0 + i * dr, c0 + i * dc);
+            if (stone == Model.PLAYER_X) {
+                xScore += PatternTable.score(code);
+            } else if (stone == Model.PLAYER_O) {
+                oScore += PatternTable.score(PatternTable.swapPlayers(code));
+            }
+            code = (code >>> 2) | (cellCode(board, r0, c0, dr, dc, length, i + 5) << (2 * (PatternTable.WINDOW - 1)));
+        }
+        int[][] lineScores = lineScores();
+        totals[0] += xScore - lineScores[0][line];
+        lineScores[0][line] = xScore;
+        totals[1] += oScore - lineScores[1][line];
+        lineScores[1][line] = oScore;
+    }
+
+    // 2-bit window cell of line cell i, seen from PLAYER_X.
+    private static int cellCode(Board board, int r0, int c0, int dr, int dc, int length, int i) {
+        if (i < 0 || i >= length) return PatternTable.WALL_CELL;
+        int stone = board.get(r0 + i * dr, c0 + i * dc);
+        if (stone == Model.PLAYER_X) return PatternTable.OWN_CELL;
+        if (stone == Model.PLAYER_O) return PatternTable.OPPONENT_CELL;
+        return PatternTable.EMPTY_CELL;
+    }
+}
@@ -0,0 +1,527 @@
+package com.example.largetictac;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Monte Carlo tree search, the alternative to minimax: hand one to Model.setMctsSearch and the anytime
+ * getHeuristicMove uses it for that game.
+ *
+ * Every playout walks down the tree picking children by UCT (or, with priors, by PUCT with priors from
+ * the move ordering scores), adds the children of the node it stops at, plays random moves next to the
+ * stones until someone makes five, and adds the result to every node on the way. The move played is
+ * the root child with the most playouts.
+ *
+ * The tree lives in flat arrays with a fixed number of nodes, so memory is capacity * BYTES_PER_NODE
+ * however long it searches; once the arrays are full, playouts go on without adding nodes. The children
+ * of a node are one block of the arrays.
+ *
+ * Playouts run on several threads at once, each on its own snapshot of the position: the calling thread
+ * and a pool of threads - 1 helpers that stays between searches (idle helpers end after IDLE_SECONDS,
+ * so a search dropped without shutdown() doesn't hold on to them). A thread counts
+ * its visit on the way down and its result on the way up, so until the result comes in the visit
+ * counts as a loss (virtual loss) and the other threads pick other children.
+ *
+ * Between moves the tree is kept: if the next position is the root after one or two moves, that
+ * subtree becomes the new root and the rest is freed.
+ */
+public class MctsSearch {
+    public static final int DEFAULT_CAPACITY = 1 << 18;
+    // moves, firstChild, childCount, visits, priors, remap (4 bytes each) and results (8 bytes)
+    public static final int BYTES_PER_NODE = 32;
+
+    // Playouts of a search whose budget has neither a time nor a node limit.
+    static final long DEFAULT_PLAYOUTS = 20000;
+    // A random game that goes on this many stones without a five counts as a draw.
+    private static final int PLAYOUT_STONES = 60;
+    private static final double UCT_EXPLORATION = 1.0;
+    private static final double PUCT_EXPLORATION = 2.0;
+    // childCount of a node whose children are being added by another thread.
+    private static final int EXPANDING = -1;
+    // Results are counted in half points (win 2, draw 1, loss 0), so they add up as integers.
+    private static final int WIN = 2;
+    private static final int DRAW = 1;
+    private static final int NONE = -1;
+    // Helper threads idle this long (no search) end; the next search starts them again.
+    private static final long IDLE_SECONDS = 30;
+
+    private final int threads;
+    private final int capacity;
+    // Runs the playouts of every thread but the calling one (null with one thread).
+    private final ThreadPoolExecutor helpers;
+    private boolean priorsEnabled;
+    private long seed = 1;
+
+    // Per node: the cell played to reach it, where its children start, and how many there are
+    // (0 = not expanded yet, EXPANDING, or the count). Visits include playouts still running.
+    private final int[] moves;
+    private final int[] firstChild;
+    private final AtomicIntegerArray childCount;
+    private final AtomicIntegerArray visits;
+    // Half points won by the player who moved into the node.
+    private final AtomicLongArray results;
+    private final float[] priors;
+    // Scratch space for keeping a subtree between moves.
+    private final int[] remap;
+    private final AtomicInteger used = new AtomicInteger();
+
+    // The position at node 0 (NONE = no tree).
+    private int root = NONE;
+    private long rootHash;
+    private int rootPlayer;
+    private int rootSize;
+
+    private long lastPlayouts;
+    private long lastElapsedNanos;
+    private int lastReusedNodes;
+
+    /**
+     * Input: threads (int) - playout threads, at least 1 (the calling thread is one of them).
+     * Output: A new MctsSearch with room for DEFAULT_CAPACITY nodes.
+     */
+    public MctsSearch(int threads) {
+        this(threads, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Input: threads (int) - as above; capacity (int) - the most nodes the tree can hold.
+     * Output: A new MctsSearch. Its arrays and helper thread pool are made here, once.
+     */
+    public MctsSearch(int threads, int capacity) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be >= 1: " + threads);
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be >= 1: " + capacity);
+        this.threads = threads;
+        this.capacity = capacity;
+        moves = new int[capacity];
+        firstChild = new int[capacity];
+        childCount = new AtomicIntegerArray(capacity);
+        visits = new AtomicIntegerArray(capacity);
+        results = new AtomicLongArray(capacity);
+        priors = new float[capacity];
+        remap = new int[capacity];
+        if (threads > 1) {
+            helpers = new ThreadPoolExecutor(threads - 1, threads - 1, IDLE_SECONDS, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "mcts-worker");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            helpers.allowCoreThreadTimeOut(true);
+        } else {
+            helpers = null;
+        }
+    }
+
+    /**
+     * Input: enabled (boolean)
+     * Output: None
+     * Logic: Off (the default): plain UCT, unvisited children first in move ordering order. On: PUCT, where
+     * the move ordering scores (wins, blocks, fours, threes first) decide how much each child is explored.
+     */
+    public void setPriorsEnabled(boolean enabled) {
+        priorsEnabled = enabled;
+        clear(); // The statistics were gathered with the other selection rule
+    }
+
+    /**
+     * Input: seed (long) - seeds the random playouts. With one thread and a playout budget, the same
+     * position and seed always give the same move.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Output: long - Playouts of the last search.
+     */
+    public long getLastPlayouts() {
+        return lastPlayouts;
+    }
+
+    public long getLastElapsedNanos() {
+        return lastElapsedNanos;
+    }
+
+    /**
+     * Output: int - Nodes kept from the previous search when the last search started (0 = started from scratch).
+     */
+    public int getLastReusedNodes() {
+        return lastReusedNodes;
+    }
+
+    /**
+     * Output: int - Nodes in the tree now.
+     */
+    public synchronized int getTreeSize() {
+        return root == NONE ? 0 : used.get();
+    }
+
+    /**
+     * Input: None
+     * Output: None
+     * Logic: Forgets the tree, so the next search starts from scratch.
+     */
+    public synchronized void clear() {
+        root = NONE;
+        used.set(0);
+    }
+
+    /**
+     * Input: position - the game (not modified); aiPlayer (int) - the side to move; budget - time and/or
+     * playout limit (maxNodes counts playouts). maxDepth caps the depth of the tree. With neither a time
+     * nor a playout limit, DEFAULT_PLAYOUTS playouts are run.
+     * Output: Move - The root move with the most playouts.
+     * Logic: 1. Book moves, immediate wins and threat-solver results are checked first, like minimax.
+     * 2. The tree of the previous search is kept if the position follows from its root.
+     * 3. Playouts run on all threads until a limit is reached or position.stopSearch() is called.
+     */
+    public synchronized Move search(Model position, int aiPlayer, SearchBudget budget) {
+        long start = System.nanoTime();
+        lastPlayouts = 0;
+        lastReusedNodes = 0;
+        Move bookMove = position.getBookMove();
+        if (bookMove != null) return finish(start, bookMove);
+
+        // Empty board: the centre, like getHeuristicMove
+        if (position.getFrontierSize() == 0) {
+            return finish(start, Move.of(position.getSize() / 2, position.getSize() / 2));
+        }
+        ArrayList<Move> candidates = position.getPossibleAdjacentMoves();
+        for (Move move : candidates) {
+            if (position.winsImmediately(move, aiPlayer)) return finish(start, move);
+        }
+        int frontier = candidates.size();
+        Move forced = position.findForcedMove(aiPlayer, candidates);
+        if (forced != null) return finish(start, forced);
+
+        if (candidates.size() < frontier) {
+            // The threat solver left only the defences: the root gets exactly those children.
+            clearTree(position, aiPlayer);
+            expandRoot(candidates, position.getSize());
+        } else {
+            keepOrClearTree(position, aiPlayer);
+        }
+
+        long deadline = budget.timeMillis > 0 ? start + budget.timeMillis * 1000000L : 0;
+        long playoutLimit = budget.maxNodes > 0 ? budget.maxNodes
+                : (budget.timeMillis > 0 ? Long.MAX_VALUE : DEFAULT_PLAYOUTS);
+        AtomicLong playouts = new AtomicLong();
+
+        ArrayList<Future<?>> running = new ArrayList<>(threads - 1);
+        for (int t = 1; t < threads; t++) {
+            Playouts worker = new Playouts(position, seed + t, budget.maxDepth);
+            running.add(helpers.submit(() -> worker.run(position, playouts, playoutLimit, deadline)));
+        }
+        new Playouts(position, seed, budget.maxDepth).run(position, playouts, playoutLimit, deadline);
+        for (Future<?> helper : running) {
+            try {
+                helper.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Search interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Playout thread failed", e.getCause());
+            }
+        }
+        lastPlayouts = Math.min(playouts.get(), playoutLimit);
+        int best = bestChild();
+        if (best == NONE) return finish(start, candidates.get(0)); // No room for even the root's children
+        return finish(start, Move.of(best / position.getSize(), best % position.getSize()));
+    }
+
+    /**
+     * Input: None
+     * Output: None
+     * Logic: Stops the helper threads. With more than one thread the MctsSearch can't be used afterwards.
+     */
+    public void shutdown() {
+        if (helpers != null) helpers.shutdown();
+    }
+
+    private Move finish(long start, Move move) {
+        lastElapsedNanos = System.nanoTime() - start;
+        return move;
+    }
+
+    // The cell of the root child with the most playouts (more half points break ties), or NONE without children.
+    private int bestChild() {
+        int count = childCount.get(0);
+        int best = NONE;
+        for (int i = firstChild[0]; i < firstChild[0] + count; i++) {
+            if (best == NONE || visits.get(i) > visits.get(best)
+                    || (visits.get(i) == visits.get(best) && results.get(i) > results.get(best))) {
+                best = i;
+            }
+        }
+        return best == NONE ? NONE : moves[best];
+    }
+
+    /**
+     * Input: position, player - the position to search and the side to move.
+     * Output: None
+     * Logic: Looks for the position among the root, its children and grandchildren by Zobrist hash. If it
+     * is there, that node's subtree is moved to the front of the arrays and becomes the root; otherwise the
+     * tree starts over.
+     */
+    private void keepOrClearTree(Model position, int player) {
+        long hash = position.getHash();
+        int found = NONE;
+        if (root != NONE && rootSize == position.getSize()) {
+            if (hash == rootHash && player == rootPlayer) found = 0;
+            int count = childCount.get(0);
+            for (int child = firstChild[0]; found == NONE && child < firstChild[0] + count; child++) {
+                long childHash = rootHash ^ Zobrist.key(moves[child] / rootSize, moves[child] % rootSize, rootPlayer);
+                if (childHash == hash && player == -rootPlayer) found = child;
+                int grandchildren = childCount.get(child);
+                for (int next = firstChild[child]; found == NONE && next < firstChild[child] + grandchildren; next++) {
+                    if ((childHash ^ Zobrist.key(moves[next] / rootSize, moves[next] % rootSize, -rootPlayer)) == hash
+                            && player == rootPlayer) {
+                        found = next;
+                    }
+                }
+            }
+        }
+        if (found == NONE) {
+            clearTree(position, player);
+            return;
+        }
+        lastReusedNodes = compact(found);
+        rootHash = hash;
+        rootPlayer = player;
+    }
+
+    private void clearTree(Model position, int player) {
+        root = 0;
+        rootHash = position.getHash();
+        rootPlayer = player;
+        rootSize = position.getSize();
+        resetNode(0, NONE, 0f);
+        used.set(1);
+    }
+
+    /**
+     * Input: node (int) - the new root.
+     * Output: int - Nodes kept.
+     * Logic: Children always come after their parent in the arrays, so one pass in index order marks the
+     * subtree, a second numbers the marked nodes, and a third moves each one down to its number. A node
+     * never moves up, so nothing is overwritten before it has been moved.
+     */
+    private int compact(int node) {
+        int end = used.get();
+        for (int i = node; i < end; i++) remap[i] = NONE;
+        remap[node] = 0;
+        for (int i = node; i < end; i++) {
+            if (remap[i] == NONE) continue;
+            int count = childCount.get(i);
+            for (int child = firstChild[i]; child < firstChild[i] + count; child++) remap[child] = 0;
+        }
+        int kept = 0;
+        for (int i = node; i < end; i++) {
+            if (remap[i] != NONE) remap[i] = kept++;
+        }
+        for (int i = node; i < end; i++) {
+            int to = remap[i];
+            if (to == NONE) continue;
+            int count = childCount.get(i);
+            moves[to] = moves[i];
+            firstChild[to] = count > 0 ? remap[firstChild[i]] : NONE;
+            childCount.set(to, count);
+            visits.set(to, visits.get(i));
+            results.set(to, results.get(i));
+            priors[to] = priors[i];
+        }
+        used.set(kept);
+        return kept;
+    }
+
+    private void resetNode(int node, int move, float prior) {
+        moves[node] = move;
+        firstChild[node] = NONE;
+        childCount.set(node, 0);
+        visits.set(node, 0);
+        results.set(node, 0);
+        priors[node] = prior;
+    }
+
+    // Gives the root exactly these children, with equal priors.
+    private void expandRoot(ArrayList<Move> children, int size) {
+        int count = Math.min(children.size(), capacity - 1);
+        for (int i = 0; i < count; i++) {
+            resetNode(1 + i, children.get(i).row * size + children.get(i).col, 1f / count);
+        }
+        firstChild[0] = 1;
+        childCount.set(0, count);
+        used.set(1 + count);
+    }
+
+    /**
+     * One playout thread: its own snapshot of the position, random generator and buffers.
+     */
+    private final class Playouts {
+        private final Model model;
+        private final Random random;
+        private final int maxDepth;
+        private final int size;
+        // The nodes and cells of the current walk from the root, and the stones of the random game.
+        private final int[] path;
+        private final int[] stones;
+        private int[] buffer = new int[0];
+        private int[] scores = new int[0];
+
+        Playouts(Model position, long seed, int maxDepth) {
+            model = position.snapshot();
+            random = new Random(seed);
+            this.maxDepth = maxDepth;
+            size = position.getSize();
+            path = new int[maxDepth + 2];
+            stones = new int[maxDepth + 1 + PLAYOUT_STONES];
+        }
+
+        void run(Model position, AtomicLong playouts, long limit, long deadline) {
+            while (!position.isSearchStopped() && playouts.incrementAndGet() <= limit) {
+                playout();
+                if (deadline != 0 && System.nanoTime() >= deadline) break;
+            }
+        }
+
+        /**
+         * Input: None
+         * Output: None
+         * Logic: 1. Walks down from the root, counting a visit on every node, until a node without children,
+         *    a five, or a node it just expanded (it then steps into one of the new children).
+         * 2. Plays random cells next to the stones until someone makes five or PLAYOUT_STONES are placed.
+         * 3. Adds the result to the nodes of the walk and takes all stones back.
+         */
+        private void playout() {
+            int node = 0;
+            int player = rootPlayer;
+            int length = 0;
+            int placed = 0;
+            int winner = Model.EMPTY;
+            visits.getAndIncrement(node);
+            path[length++] = node;
+
+            boolean expanded = false;
+            while (!expanded && length <= maxDepth) {
+                int count = childCount.get(node);
+                if (count == 0) {
+                    if (!childCount.compareAndSet(node, 0, EXPANDING)) break;
+                    count = expand(node, player);
+                    if (count == 0) break;
+                    expanded = true;
+                } else if (count == EXPANDING) {
+                    break; // Another thread is adding the children: play out from here
+                }
+                node = select(node, count);
+                visits.getAndIncrement(node); // Virtual loss until the result is added
+                path[length++] = node;
+                int cell = moves[node];
+                model.playStone(cell, player);
+                stones[placed++] = cell;
+                if (model.checkWin(cell / size, cell % size) != Model.EMPTY) {
+                    winner = player;
+                    break;
+                }
+                player = -player;
+            }
+
+            for (int k = 0; winner == Model.EMPTY && k < PLAYOUT_STONES; k++) {
+                int frontier = model.getFrontierSize();
+                if (frontier == 0) break; // Full board: a draw
+                int cell = model.getFrontierCell(random.nextInt(frontier));
+                model.playStone(cell, player);
+                stones[placed++] = cell;
+                if (model.checkWin(cell / size, cell % size) != Model.EMPTY) winner = player;
+                player = -player;
+            }
+
+            // Node i of the walk was moved into by the root player when i is odd.
+            for (int i = 1; i < length; i++) {
+                int mover = (i % 2 == 1) ? rootPlayer : -rootPlayer;
+                results.getAndAdd(path[i], winner == Model.EMPTY ? DRAW : (winner == mover ? WIN : 0));
+            }
+            while (placed > 0) model.takeBackStone(stones[--placed]);
+        }
+
+        /**
+         * Input: node (int) - a node this thread holds (childCount EXPANDING); player - the side to move there.
+         * Output: int - Children added (0 if the tree is full or there are no moves).
+         * Logic: Takes a block of the arrays and fills it with the node's moves in move ordering order.
+         * The children are written before childCount, so other threads see them complete.
+         */
+        private int expand(int node, int player) {
+            int needed = model.getFrontierSize() + 1;
+            if (buffer.length < needed) {
+                buffer = new int[needed];
+                scores = new int[needed];
+            }
+            int count = model.generateMoves(player, buffer, scores);
+            int start;
+            do {
+                start = used.get();
+                if (count == 0 || start + count > capacity) {
+                    childCount.set(node, 0);
+                    return 0;
+                }
+            } while (!used.compareAndSet(start, start + count));
+
+            // Priors: (1 + ordering score)^(1/4), so a win (2^20) weighs 32 times a quiet move.
+            double total = 0;
+            for (int i = 0; i < count; i++) total += Math.sqrt(Math.sqrt(1 + scores[i]));
+            for (int i = 0; i < count; i++) {
+                resetNode(start + i, buffer[i], (float) (Math.sqrt(Math.sqrt(1 + scores[i])) / total));
+            }
+            firstChild[node] = start;
+            childCount.set(node, count);
+            return count;
+        }
+
+        /**
+         * Input: node (int) - an expanded node; count (int) - its children.
+         * Output: int - The child to walk into.
+         * Logic: UCT: the first unvisited child, else the best mean result plus exploration bonus.
+         * PUCT: mean result (unvisited: 0.5) plus a bonus proportional to the prior.
+         */
+        private int select(int node, int count) {
+            int first = firstChild[node];
+            double parentVisits = Math.max(1, visits.get(node));
+            double logVisits = Math.log(parentVisits);
+            double sqrtVisits = Math.sqrt(parentVisits);
+            int best = first;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (int child = first; child < first + count; child++) {
+                int n = visits.get(child);
+                double score;
+                if (priorsEnabled) {
+                    double mean = n == 0 ? 0.5 : results.get(child) / (2.0 * n);
+                    score = mean + PUCT_EXPLORATION * priors[child] * sqrtVisits / (1 + n);
+                } else {
+                    if (n == 0) return child;
+                    score = results.get(child) / (2.0 * n) + UCT_EXPLORATION * Math.sqrt(logVisits / n);
+                }
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = child;
+                }
+            }
+            return best;
+        }
+    }
+}
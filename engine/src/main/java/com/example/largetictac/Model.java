@@ -0,0 +1,1667 @@
+package com.example.largetictac;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.logging.Logger;
+
+public class Model {
+    private static final Logger SEARCH_LOG = Logger.getLogger("com.example.largetictac.search");
+
+    public static final int EMPTY = 0;
+    public static final int PLAYER_X = 1;
+    public static final int PLAYER_O = -1;
+    public static final int BOARD_SIZE = 15;
+
+    // Threat solver limits: attacking moves per line and work per solve.
+    private static final int VCF_DEPTH = 10;
+    private static final int VCT_DEPTH = 3;
+    private static final long VCF_NODE_LIMIT = 2000;
+    private static final long VCT_NODE_LIMIT = 300;
+
+    // Vertical, Horizontal, Diagonal ↘, Anti-Diagonal ↙
+    private static final int[][] LINE_DIRECTIONS = {{1, 0}, {0, 1}, {1, 1}, {1, -1}};
+
+    // Move ordering weight per PatternTable threat class (NONE ... FIVE).
+    private static final int[] ORDER_WEIGHTS = {0, 0, 1 << 2, 1 << 4, 1 << 6, 1 << 10, 1 << 12, 1 << 16, 1 << 20};
+
+    // Deepest ply the search keeps a move list for (iterative deepening stops below it).
+    private static final int MAX_PLY = 64;
+
+    // Moves ordered below this score neither make nor block an open three, so killers may go ahead of them.
+    private static final int QUIET_ORDER_SCORE = ORDER_WEIGHTS[5];
+    // History scores are halved once one of them passes this, so they never overflow.
+    private static final int HISTORY_LIMIT = 1 << 24;
+    private static final int NO_CELL = -1;
+    // Late move reductions: from this move of a node on (the first ones are searched at full depth),
+    // and only with at least LMR_MIN_DEPTH plies left.
+    private static final int LMR_FIRST_MOVE = 3;
+    private static final int LMR_MIN_DEPTH = 2;
+    // Half width of the first aspiration window around the previous iteration's score (4 times wider on each failure).
+    private static final double ASPIRATION_WINDOW = 100.0;
+    // Scores at least this far from 0 are wins or losses (1000000 + depth).
+    private static final double MATE_THRESHOLD = 900000.0;
+
+    // Memory for the default transposition table, small enough for any phone (65536 entries).
+    public static final long DEFAULT_TABLE_BYTES = 2L << 20;
+
+    private final Board board;
+    // Rows and columns of the board, and how many stones in a row win.
+    private final int size;
+    private final int winLength;
+    private int currentPlayer;
+
+    // Zobrist hash of the stones currently on the board, kept up to date on every place/remove.
+    private long hash;
+    // Kept for the whole game (cleared by resetGame), so each search starts from what the previous ones learned.
+    private final TranspositionTable transpositionTable;
+    private boolean transpositionTableEnabled = true;
+    private long nodeCount;
+
+    // Board score kept up to date on every place/remove, so leaves don't rescan the board.
+    private final IncrementalEvaluator evaluator;
+    private boolean incrementalEvaluationEnabled = true;
+    // Score stones by their PatternTable shape (open three, closed four...) instead of 2^run length.
+    // The shapes are five-in-a-row shapes, so other win lengths always use 2^run length.
+    private boolean patternEvaluationEnabled;
+
+    // Empty cells next to a stone, kept up to date on every place/remove.
+    private final CandidateSet candidates;
+
+    // Answers known opening positions without searching (null = no book).
+    private OpeningBook openingBook;
+
+    // Monte Carlo tree search used instead of minimax by the anytime getHeuristicMove (null = minimax).
+    private MctsSearch mctsSearch;
+
+    // Looks for forced wins (chains of fours and threes) before the full-width search.
+    // Null when the game isn't five in a row or the board is too big for its per-cell arrays.
+    private final ThreatSolver threatSolver;
+    private boolean threatSolverEnabled = true;
+
+    // Anytime search state. A limit of 0 means "no limit" (the fixed-depth search uses none).
+    private long searchDeadline;
+    private long nodeLimit;
+    private boolean searchAborted;
+    private int lastCompletedDepth;
+    // Set from another thread to cancel a running search.
+    private volatile boolean stopRequested;
+    private SearchListener searchListener;
+    // Counters of the current search (null = not collected).
+    private SearchStats stats;
+    private boolean searchStatsLogging;
+    private long searchStartNanos;
+
+    // Preallocated move lists (packed cells, row * size + col), one per ply, so a search
+    // allocates nothing. Ply 0 is the root. On big boards they start small and grow between
+    // searches (see ensureSearchCapacity).
+    private int[][] moveBuffers = new int[MAX_PLY][];
+    private int[][] orderScoreBuffers = new int[MAX_PLY][];
+
+    // Killer moves: the last two quiet moves that caused a cutoff at each ply (NO_CELL = empty slot).
+    // History: per player and cell, how often (weighted by depth^2) the move caused a cutoff anywhere.
+    // Both survive between iterations and are aged between moves (see ageMoveOrdering).
+    // Boards above CandidateSet.DENSE_CELLS cells share history slots (cell % length).
+    private final int[] killers = new int[MAX_PLY * 2];
+    // Stones on the board when the killers were last aged.
+    private int killerStones;
+    private final int[][] history;
+    private boolean moveOrderingHeuristicsEnabled = true;
+    // Principal variation search, aspiration windows and late move reductions in the anytime search.
+    // reductionsActive is only true while the anytime search runs, so the fixed-depth search stays plain alpha-beta.
+    private boolean principalVariationSearchEnabled = true;
+    private boolean reductionsActive;
+    // True while the anytime search runs: only it may cut off on deeper table entries (see minimax).
+    private boolean anytimeSearchActive;
+    private double[] rootScores;
+    private int rootMoveCount;
+
+    // Scratch space for findForcedCell (empty without a threat solver).
+    private final int[] proofCells;
+    private final boolean[] triedDefences;
+    private final boolean[] defences;
+
+    /**
+     * Receives progress of an anytime search (getHeuristicMove with a SearchBudget).
+     * Called on the searching thread after every completed iteration.
+     */
+    public interface SearchListener {
+        void onIterationComplete(int depth, Move bestMove, double score);
+    }
+
+    /**
+     * Input: None
+     * Output: A new Model instance
+     * Logic: Initializes the game board as a 15x15 grid and sets the starting player to PLAYER_X.
+     */
+    public Model() {
+        this(new ArrayBoard());
+    }
+
+    /**
+     * Input: board - an empty Board backend (ArrayBoard, BitBoard or SparseBoard).
+     * Output: A new Model instance
+     * Logic: Same as Model(), but stores the stones in the given backend. The board size is the backend's.
+     */
+    public Model(Board board) {
+        this(board, 5);
+    }
+
+    /**
+     * Input: board - an empty Board backend of any size; winLength (int) - stones in a row needed to win.
+     * Output: A new Model instance
+     * Logic: For variants like six in a row or Gomoku on a huge SparseBoard. The threat solver and the
+     * pattern evaluation only know five in a row, and the solver also needs a board of at most
+     * CandidateSet.DENSE_CELLS cells, so they are left out when those don't hold. Opening books are 15x15.
+     */
+    public Model(Board board, int winLength) {
+        this(board, TranspositionTable.withMaxBytes(DEFAULT_TABLE_BYTES, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED),
+                winLength);
+    }
+
+    /**
+     * Input: board - an empty Board backend; transpositionTable - the table minimax uses to remember searched positions.
+     * Output: A new Model instance
+     * Logic: Same as Model(), but lets the caller choose the backend, the table size and the replacement policy.
+     */
+    public Model(Board board, TranspositionTable transpositionTable) {
+        this(board, transpositionTable, 5);
+    }
+
+    /**
+     * Input: board, transpositionTable - as above; winLength (int) - stones in a row needed to win, 3 or more.
+     * Output: A new Model instance
+     */
+    public Model(Board board, TranspositionTable transpositionTable, int winLength) {
+        if (winLength < 3 || winLength > board.size()) {
+            throw new IllegalArgumentException("winLength must be between 3 and the board size: " + winLength);
+        }
+        this.board = board;
+        size = board.size();
+        this.winLength = winLength;
+        currentPlayer = PLAYER_X;
+        this.transpositionTable = transpositionTable;
+        evaluator = new IncrementalEvaluator(size, winLength);
+        candidates = new CandidateSet(size);
+
+        long area = (long) size * size;
+        boolean solver = winLength == 5 && area <= CandidateSet.DENSE_CELLS;
+        this.threatSolver = solver ? new ThreatSolver(board) : null;
+        int scratch = solver ? (int) area : 0;
+        proofCells = new int[scratch];
+        triedDefences = new boolean[scratch];
+        defences = new boolean[scratch];
+        history = new int[2][(int) Math.min(area, CandidateSet.DENSE_CELLS)];
+
+        patternEvaluationEnabled = winLength == 5;
+        evaluator.setPatternScoring(patternEvaluationEnabled);
+        ensureSearchCapacity();
+        clearSearchHistory();
+    }
+
+    /**
+     * Input: None
+     * Output: int - The ID of the current player (1 for X, -1 for O).
+     * Logic: Returns the value of the private variable tracking whose turn it is.
+     */
+    public int getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    /**
+     * Output: int - Rows (and columns) of the board.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Output: int - Stones in a row needed to win.
+     */
+    public int getWinLength() {
+        return winLength;
+    }
+
+    /**
+     * Input: row (int), col (int) - The coordinates to check.
+     * Output: boolean - True if the cell is empty, False otherwise.
+     * Logic: Checks if the board array at the specified indices contains the EMPTY constant.
+     */
+    public boolean isLegal(int row, int col) {
+        if (row < 0 || row >= size || col < 0 || col >= size) return false;
+        return board.get(row, col) == EMPTY;
+    }
+
+    /**
+     * Input: row (int), col (int) - The coordinates where the player wants to move.
+     * Output: boolean - True if the move was successful, False if invalid.
+     * Logic: First validates the move using isLegal(). If valid, updates the board array with the current player's ID.
+     */
+    public boolean makeMove(int row, int col) {
+        if (!isLegal(row, col)) return false;
+        placeStone(row, col, currentPlayer);
+        return true;
+    }
+
+    /**
+     * Input: None
+     * Output: long - The Zobrist hash of the stones on the board.
+     * Logic: Two boards with the same stones have the same hash, whatever order the stones were played in.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Input: None
+     * Output: long - Number of minimax nodes visited by the last getHeuristicMove call.
+     * Logic: Lets callers measure how much work a search costs, e.g. with and without the transposition table.
+     */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Input: None
+     * Output: int - Deepest fully completed iteration of the last getHeuristicMove(..., SearchBudget) call,
+     * in plies counting the AI's own move. 0 if not even the first iteration finished.
+     */
+    public int getLastCompletedDepth() {
+        return lastCompletedDepth;
+    }
+
+    public void setSearchListener(SearchListener listener) {
+        searchListener = listener;
+    }
+
+    /**
+     * Input: stats (SearchStats) - filled by every following getHeuristicMove call; null stops collecting.
+     * Output: None
+     * Logic: Read the stats after getHeuristicMove returns. Collecting is off by default.
+     */
+    public void setSearchStats(SearchStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Output: SearchStats - The counters of the last search, or null if collection is off.
+     */
+    public SearchStats getSearchStats() {
+        return stats;
+    }
+
+    /**
+     * Input: enabled (boolean)
+     * Output: None
+     * Logic: When enabled, writes one SearchStats line per move to the "com.example.largetictac.search"
+     * java.util.logging logger (logcat on Android). Turns stats collection on if it was off.
+     */
+    public void setSearchStatsLogging(boolean enabled) {
+        searchStatsLogging = enabled;
+        if (enabled && stats == null) stats = new SearchStats();
+    }
+
+    /**
+     * Input: None
+     * Output: None
+     * Logic: Safe to call from any thread. A running search stops within a few hundred nodes and returns
+     * the best move found so far; later searches on this Model return at once until resetGame().
+     */
+    public void stopSearch() {
+        stopRequested = true;
+    }
+
+    /**
+     * Output: boolean - True once stopSearch() was called (until resetGame()).
+     */
+    public boolean isSearchStopped() {
+        return stopRequested;
+    }
+
+    /**
+     * Input: None
+     * Output: Model - An independent copy of the position (same backend type, same settings, empty tables).
+     * Logic: Replays every stone onto a fresh board, so the hash, evaluator and frontier of the copy
+     * are rebuilt exactly. Searching the copy never touches this Model.
+     */
+    public Model copy() {
+        return copy(new TranspositionTable(
+                Integer.numberOfTrailingZeros(transpositionTable.capacity()), transpositionTable.getPolicy()));
+    }
+
+    /**
+     * Input: table - the (empty) transposition table the copy will use.
+     * Output: Model - Same as copy(), with the given table.
+     */
+    Model copy(TranspositionTable table) {
+        Board copyBoard = board.copy();
+        copyBoard.clear();
+        Model copy = new Model(copyBoard, table, winLength);
+        copy.syncPosition(this);
+        return copy;
+    }
+
+    /**
+     * Input: None
+     * Output: Model - A copy of the position and settings with a minimal table, cheap enough to take on
+     * every move and hand to syncPosition on another thread.
+     */
+    Model snapshot() {
+        return copy(new TranspositionTable(1, transpositionTable.getPolicy()));
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return transpositionTable;
+    }
+
+    public void setTranspositionTableEnabled(boolean enabled) {
+        transpositionTableEnabled = enabled;
+    }
+
+    public void setIncrementalEvaluationEnabled(boolean enabled) {
+        incrementalEvaluationEnabled = enabled;
+    }
+
+    /**
+     * Input: enabled (boolean)
+     * Output: None
+     * Logic: Chooses the evaluation: PatternTable shape scores (the default) or the original 2^count scores.
+     * Scores change meaning, so the evaluator is rebuilt and the transposition table cleared.
+     * Patterns are five-in-a-row shapes: with any other win length this stays off.
+     */
+    public void setPatternEvaluationEnabled(boolean enabled) {
+        patternEvaluationEnabled = enabled && winLength == 5;
+        evaluator.setPatternScoring(patternEvaluationEnabled);
+        evaluator.rebuild(board);
+        transpositionTable.clear();
+    }
+
+    /**
+     * Input: enabled (boolean)
+     * Output: None
+     * Logic: When enabled (the default), minimax tries killer moves right after the forcing moves and
+     * breaks ordering ties by the history table. The search result is the same either way; only the
+     * number of nodes changes.
+     */
+    public void setMoveOrderingHeuristicsEnabled(boolean enabled) {
+        moveOrderingHeuristicsEnabled = enabled;
+        clearSearchHistory();
+    }
+
+    /**
+     * Input: enabled (boolean)
+     * Output: None
+     * Logic: When enabled (the default), the anytime getHeuristicMove searches every move after the first
+     * with a null window and only searches it again when it beats the best so far (principal variation
+     * search), starts each iteration with a narrow window around the previous score (aspiration), and
+     * searches late quiet moves shallower (late move reductions), again at full depth if they turn out good.
+     * Moves that make or stop a threat of an open three or more, the transposition table move and the
+     * killers are never reduced. In 1 s it reaches about two plies deeper than plain alpha-beta, and at
+     * 100 ms per move it scores 54% against it (TournamentRunner, pvs=on vs pvs=off).
+     * Turn it off for the plain alpha-beta search.
+     */
+    public void setPrincipalVariationSearchEnabled(boolean enabled) {
+        principalVariationSearchEnabled = enabled;
+    }
+
+    /**
+     * Input: None
+     * Output: None
+     * Logic: Forgets all killer moves and history scores, e.g. to measure a cold search. resetGame() does this too.
+     */
+    public void clearSearchHistory() {
+        Arrays.fill(killers, NO_CELL);
+        killerStones = board.stoneCount();
+        Arrays.fill(history[0], 0);
+        Arrays.fill(history[1], 0);
+    }
+
+    /**
+     * Input: book (OpeningBook) - may be null to stop using a book.
+     * Output: None
+     * Logic: getHeuristicMove plays the book move whenever the position is in the book.
+     * Books are read-only, so several Models (and their copies) can share one.
+     */
+    public void setOpeningBook(OpeningBook book) {
+        openingBook = book;
+    }
+
+    /**
+     * Input: None
+     * Output: Move - The opening book's move for the current position, or null if there is none.
+     */
+    public Move getBookMove() {
+        if (openingBook == null) return null;
+        int cell = openingBook.probe(board);
+        return cell == OpeningBook.NONE ? null : toMove(cell);
+    }
+
+    /**
+     * Input: search (MctsSearch) - may be null to go back to minimax (the default).
+     * Output: None
+     * Logic: The anytime getHeuristicMove (with a SearchBudget) asks the MctsSearch instead of running
+     * minimax. An MctsSearch keeps the tree of one game between moves, so every game needs its own.
+     * The fixed-depth getHeuristicMove always uses minimax.
+     */
+    public void setMctsSearch(MctsSearch search) {
+        mctsSearch = search;
+    }
+
+    public MctsSearch getMctsSearch() {
+        return mctsSearch;
+    }
+
+    /**
+     * Input: enabled (boolean)
+     * Output: None
+     * Logic: When enabled (the default), getHeuristicMove first asks the ThreatSolver for a forced win for
+     * either side. Turn it off to get the plain minimax choice. Has no effect on games the solver
+     * doesn't support (see Model(Board, int)).
+     */
+    public void setThreatSolverEnabled(boolean enabled) {
+        threatSolverEnabled = enabled;
+    }
+
+    /**
+     * Input: row, col (int) - an empty cell; player (int) - the stone to put there.
+     * Output: None
+     * Logic: Writes the stone to the board and XORs its key into the hash.
+     * Every stone placed on the board (real or during search) goes through here.
+     */
+    private void placeStone(int row, int col, int player) {
+        evaluator.beforeUpdate(board, row, col);
+        board.set(row, col, player);
+        hash ^= Zobrist.key(row, col, player);
+        evaluator.update(board, row, col);
+        candidates.onPlace(row, col);
+    }
+
+    /**
+     * Input: row, col (int) - an occupied cell.
+     * Output: None
+     * Logic: Reverse of placeStone: XORs the stone's key out of the hash and empties the cell.
+     */
+    private void removeStone(int row, int col) {
+        hash ^= Zobrist.key(row, col, board.get(row, col));
+        evaluator.beforeUpdate(board, row, col);
+        board.set(row, col, EMPTY);
+        evaluator.update(board, row, col);
+        candidates.onRemove(row, col);
+    }
+
+    /**
+     * Input: None
+     * Output: None
+     * Logic: Multiplies the currentPlayer variable by -1 to switch between PLAYER_X (1) and PLAYER_O (-1).
+     */
+    public void changePlayer() {
+        currentPlayer *= -1;
+    }
+
+    /**
+     * Input: None
+     * Output: boolean - True if the game is a tie, False otherwise.
+     * Logic: The game is a tie once every cell of the board holds a stone.
+     */
+    public boolean isTie() {
+        return board.stoneCount() == (long) size * size;
+    }
+
+    /**
+     * Input: None
+     * Output: None
+     * Logic: Loops through the entire board and sets every cell to EMPTY. Resets current player to X.
+     * Everything the search learned (transposition table, killers, history) belongs to the old game and is cleared.
+     */
+    public void resetGame() {
+        board.clear();
+        hash = 0;
+        evaluator.reset();
+        candidates.clear();
+        transpositionTable.clear();
+        clearSearchHistory();
+        stopRequested = false;
+        currentPlayer = PLAYER_X;
+    }
+
+    // ==================================================================================
+    //                              WIN CHECKING LOGIC
+    // ==================================================================================
+
+    /**
+     * Input: row (int), col (int) - The position of the last placed stone.
+     * Output: int - The ID of the winning player, or EMPTY if no winner found.
+     * Logic: Checks all 4 directions (Vertical, Horizontal, Diagonal, Anti-Diagonal) from the given point.
+     * If any direction has winLength (5 by default) or more consecutive stones of the same player, that player
+     * is returned as the winner.
+     */
+    public int checkWin(int row, int col) {
+        int player = board.get(row, col);
+        if (player == EMPTY) return EMPTY;
+
+        // Check Vertical (1, 0)
+        if (board.countConsecutive(row, col, 1, 0, player) >= winLength) return player;
+
+        // Check Horizontal (0, 1)
+        if (board.countConsecutive(row, col, 0, 1, player) >= winLength) return player;
+
+        // Check Diagonal ↘ (1, 1)
+        if (board.countConsecutive(row, col, 1, 1, player) >= winLength) return player;
+
+        // Check Anti-Diagonal ↙ (1, -1)
+        if (board.countConsecutive(row, col, 1, -1, player) >= winLength) return player;
+
+        return EMPTY;
+    }
+
+    // ==================================================================================
+    //                              AI & HEURISTIC HELPERS
+    // ==================================================================================
+
+    /**
+     * Input: row, col (int) - start point; targetLength (int) - length to find.
+     * Output: boolean - True if a line of that length exists AND is viable (not blocked).
+     * Logic: Looks up the viable run length of all 4 directions in the PatternTable (the same number
+     * getViableStoneCount walks out, for lengths up to 5). Unlike checkWin, this ensures the line
+     * has enough potential empty space to eventually become a winning line of 5.
+     * For other win lengths, and for lengths above 5 (the table's 9-cell window sees at most 5 of a
+     * longer run), the table doesn't apply, so getViableStoneCount is asked directly.
+     */
+    public boolean isLineOfLength(int row, int col, int targetLength) {
+        int player = board.get(row, col);
+        if (player == EMPTY) return false;
+
+        if (winLength != 5 || targetLength > 5) {
+            for (int[] dir : LINE_DIRECTIONS) {
+                if (board.getViableStoneCount(row, col, dir[0], dir[1], player, winLength) >= targetLength) return true;
+            }
+            return false;
+        }
+        for (int[] dir : LINE_DIRECTIONS) {
+            int code = board.getLinePattern(row, col, dir[0], dir[1], player);
+            if (PatternTable.viableCount(code) >= targetLength) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Input: row, col (location of a stone), player (owner of stone).
+     * Output: int - A heuristic score.
+     * Logic: Looks at a specific stone ALREADY on the board. For every viable line passing through it,
+     * adds 2^(stone_count) to the total score. This rewards having multiple intersecting lines.
+     * With pattern evaluation, adds the PatternTable score of the stone's shape on each line instead.
+     */
+    private int getScoreCurrentState(int row, int col, int player) {
+        int totalValue = 0;
+        if (patternEvaluationEnabled) {
+            for (int[] dir : LINE_DIRECTIONS) {
+                totalValue += PatternTable.score(board.getLinePattern(row, col, dir[0], dir[1], player));
+            }
+            return totalValue;
+        }
+
+        for (int[] dir : LINE_DIRECTIONS) {
+            int count = board.getViableStoneCount(row, col, dir[0], dir[1], player, winLength);
+            if (count > 0) {
+                // 1 << count is bitwise for 2^count
+                totalValue += (1 << count);
+            }
+        }
+        return totalValue;
+    }
+    /**
+     * Scans the whole board to calculate the advantage.
+     * Positive = AI is winning. Negative = Human is winning.
+     * The search reads the same value from the incremental evaluator; this full scan is the reference.
+     */
+    public double evaluateBoardState(int aiPlayer) {
+        double aiScore = 0;
+        double humanScore = 0;
+        int humanPlayer = aiPlayer * -1; // The opposite of AI
+
+        for (int k = 0; k < board.stoneCount(); k++) {
+            int i = board.stoneAt(k) / size;
+            int j = board.stoneAt(k) % size;
+            if (board.get(i, j) == aiPlayer) {
+                aiScore += getScoreCurrentState(i, j, aiPlayer);
+            } else if (board.get(i, j) == humanPlayer) {
+                humanScore += getScoreCurrentState(i, j, humanPlayer);
+            }
+        }
+        // Return the difference. If AI has more threats, this is positive.
+        return aiScore - humanScore;
+    }
+
+    /**
+     * Input: aiPlayer (int)
+     * Output: double - The same value as evaluateBoardState(aiPlayer).
+     * Logic: Reads the incrementally maintained score in O(1), or falls back to the full board scan
+     * when incremental evaluation is turned off.
+     */
+    private double evaluate(int aiPlayer) {
+        if (incrementalEvaluationEnabled) return evaluator.evaluate(aiPlayer);
+        return evaluateBoardState(aiPlayer);
+    }
+
+    /**
+     * The Minimax Algorithm:
+     * Checks future moves assuming the opponent plays perfectly.
+     * * depth: How many moves ahead to look (e.g., 2 or 3)
+     * isMaximizing: true if it's AI's turn, false if it's Opponent's turn
+     * ply: Distance from the root, picks this node's move buffer
+     * alpha, beta: Used for "Pruning" (optimizing speed)
+     */
+    private double minimax(int depth, int ply, boolean isMaximizing, double alpha, double beta, int aiPlayer) {
+        // 1. Check for Terminal States (Game Over)
+        // We need to know who just moved to check if they won.
+        // If isMaximizing is true, it means the Opponent (Human) just moved.
+        int humanPlayer = aiPlayer * -1;
+
+        // Check if the previous move created a win
+        // Note: This is a simplification. Ideally, we pass the last move coordinates to checkWin
+        // effectively, but for now we rely on the board state.
+
+        nodeCount++;
+        if (searchAborted || budgetExceeded()) return 0; // Result is thrown away by the caller
+        if (stats != null && ply > stats.selectiveDepth) stats.selectiveDepth = ply;
+
+        // 2. Transposition table: the same board may already have been searched through another move order.
+        // Within one search a position always has the same depth left, so results stay identical to a search
+        // without the table. Deeper entries can only be left by an earlier turn's search: the anytime search
+        // uses them too, the fixed-depth one doesn't, so its moves never depend on what was searched before.
+        // Mate scores are stored relative to the node (see toTable), so they stay right at any depth.
+        long key = searchKey(isMaximizing, aiPlayer);
+        double alphaOrig = alpha;
+        double betaOrig = beta;
+        int ttMove = TranspositionTable.NO_MOVE;
+        if (transpositionTableEnabled) {
+            int slot = transpositionTable.probe(key);
+            if (stats != null) {
+                stats.ttProbes++;
+                if (slot >= 0) stats.ttHits++;
+            }
+            if (slot >= 0) {
+                ttMove = transpositionTable.getBestMove(slot);
+                int storedDepth = transpositionTable.getDepth(slot);
+                if (storedDepth == depth || (storedDepth > depth && anytimeSearchActive)) {
+                    double stored = fromTable(transpositionTable.getScore(slot), depth);
+                    int bound = transpositionTable.getBound(slot);
+                    if (bound == TranspositionTable.BOUND_EXACT) return stored;
+                    if (bound == TranspositionTable.BOUND_LOWER && stored >= beta) return stored;
+                    if (bound == TranspositionTable.BOUND_UPPER && stored <= alpha) return stored;
+                }
+            }
+        }
+
+        // If depth is 0, we stop and evaluate the board.
+        if (depth == 0) {
+            double eval = evaluate(aiPlayer);
+            if (stats != null) stats.leafEvaluations++;
+            if (transpositionTableEnabled) {
+                transpositionTable.store(key, 0, eval, TranspositionTable.BOUND_EXACT, TranspositionTable.NO_MOVE);
+            }
+            return eval;
+        }
+
+        int[] moves = moveBuffers[ply];
+        int count = generateOrderedMoves(isMaximizing ? aiPlayer : humanPlayer, moves, orderScoreBuffers[ply]);
+
+        // If no moves left, it's a draw
+        if (count == 0) return 0;
+
+        // Try the move that was best last time first, it is the most likely to cause a cutoff.
+        int[] orderScores = orderScoreBuffers[ply];
+        int first = 0; // Index of the first move that isn't the TT move
+        if (ttMove != TranspositionTable.NO_MOVE && moveToFront(moves, orderScores, count, ttMove)) {
+            first = 1;
+        }
+        // Then the forcing moves (by their score), then the killers of this ply, then the quiet moves.
+        if (moveOrderingHeuristicsEnabled) promoteKillers(moves, orderScores, count, first, ply);
+        int bestMove = moves[0];
+
+        if (isMaximizing) {
+            // AI's Turn (Try to get the highest score)
+            double maxEval = -10000000.0; // Start very low
+
+            for (int i = 0; i < count; i++) {
+                int move = moves[i];
+                int row = move / size;
+                int col = move % size;
+                placeStone(row, col, aiPlayer); // Make move
+
+                // If this move wins immediately, take it!
+                if (checkWin(row, col) == aiPlayer) {
+                    removeStone(row, col);
+                    return 1000000.0 + depth; // Prefer winning sooner
+                }
+
+                double eval;
+                if (!reductionsActive || i == 0) {
+                    eval = minimax(depth - 1, ply + 1, false, alpha, beta, aiPlayer);
+                } else {
+                    // Null window: only asks whether the move beats alpha. Searched again if it does.
+                    int reduction = lateMoveReduction(depth, ply, i, move, orderScores[i]);
+                    double nullBeta = Math.nextUp(alpha);
+                    eval = minimax(depth - 1 - reduction, ply + 1, false, alpha, nullBeta, aiPlayer);
+                    if (eval > alpha && reduction > 0) {
+                        eval = minimax(depth - 1, ply + 1, false, alpha, nullBeta, aiPlayer);
+                    }
+                    if (eval > alpha && eval < beta) eval = minimax(depth - 1, ply + 1, false, alpha, beta, aiPlayer);
+                }
+
+                removeStone(row, col); // Undo move
+                if (searchAborted) return 0;
+
+                if (eval > maxEval) {
+                    maxEval = eval;
+                    bestMove = move;
+                }
+                alpha = Math.max(alpha, eval);
+                if (beta <= alpha) { // Pruning (Stop checking bad branches)
+                    recordCutoff(move, aiPlayer, depth, ply, i);
+                    break;
+                }
+            }
+            storeResult(key, depth, maxEval, alphaOrig, betaOrig, bestMove);
+            return maxEval;
+
+        } else {
+            // Human's Turn (Human tries to give AI the lowest score)
+            double minEval = 10000000.0; // Start very high
+
+            for (int i = 0; i < count; i++) {
+                int move = moves[i];
+                int row = move / size;
+                int col = move % size;
+                placeStone(row, col, humanPlayer); // Make move
+
+                // If Human wins here, that's terrible for AI (-1,000,000)
+                if (checkWin(row, col) == humanPlayer) {
+                    removeStone(row, col);
+                    return -1000000.0 - depth;
+                }
+
+                double eval;
+                if (!reductionsActive || i == 0) {
+                    eval = minimax(depth - 1, ply + 1, true, alpha, beta, aiPlayer);
+                } else {
+                    // Null window: only asks whether the move gets below beta. Searched again if it does.
+                    int reduction = lateMoveReduction(depth, ply, i, move, orderScores[i]);
+                    double nullAlpha = Math.nextDown(beta);
+                    eval = minimax(depth - 1 - reduction, ply + 1, true, nullAlpha, beta, aiPlayer);
+                    if (eval < beta && reduction > 0) {
+                        eval = minimax(depth - 1, ply + 1, true, nullAlpha, beta, aiPlayer);
+                    }
+                    if (eval < beta && eval > alpha) eval = minimax(depth - 1, ply + 1, true, alpha, beta, aiPlayer);
+                }
+
+                removeStone(row, col); // Undo move
+                if (searchAborted) return 0;
+
+                if (eval < minEval) {
+                    minEval = eval;
+                    bestMove = move;
+                }
+                beta = Math.min(beta, eval);
+                if (beta <= alpha) { // Pruning
+                    recordCutoff(move, humanPlayer, depth, ply, i);
+                    break;
+                }
+            }
+            storeResult(key, depth, minEval, alphaOrig, betaOrig, bestMove);
+            return minEval;
+        }
+    }
+
+    /**
+     * Input: depth, ply - of the node; i - the move's index in the node's move list; move, orderScore - the
+     * move and its ordering score.
+     * Output: int - Plies to take off the move's search: 0, or 1 + ln(depth) * ln(i), leaving at least a leaf.
+     * Logic: Only late moves (the list is ordered best first) of nodes with some depth left are reduced, the
+     * later and the deeper the more. Forcing moves (making or stopping an open three or more) and killers
+     * keep the full depth, so threats are never searched too shallow. The TT move is always first, so it is
+     * never reduced either.
+     */
+    private int lateMoveReduction(int depth, int ply, int i, int move, int orderScore) {
+        if (depth < LMR_MIN_DEPTH || i < LMR_FIRST_MOVE || orderScore >= QUIET_ORDER_SCORE) return 0;
+        if (moveOrderingHeuristicsEnabled && (killers[ply * 2] == move || killers[ply * 2 + 1] == move)) return 0;
+        return Math.min(1 + (int) (Math.log(depth) * Math.log(i)), depth - 1);
+    }
+
+    /**
+     * Input: move - the cell that caused a beta cutoff; player - who played it; depth, ply - of the node;
+     * i - the move's index in the node's move list.
+     * Output: None
+     * Logic: Counts the cutoff in the stats, rewards the move in the history table (deeper = more) and,
+     * if it is a quiet move, makes it the first killer of this ply.
+     */
+    private void recordCutoff(int move, int player, int depth, int ply, int i) {
+        if (stats != null) {
+            stats.betaCutoffs++;
+            if (i == 0) stats.firstMoveCutoffs++;
+        }
+        if (!moveOrderingHeuristicsEnabled) return;
+
+        int[] table = history[player == PLAYER_X ? 0 : 1];
+        int slot = move % table.length;
+        table[slot] += depth * depth;
+        if (table[slot] > HISTORY_LIMIT) {
+            for (int cell = 0; cell < table.length; cell++) table[cell] >>= 1;
+        }
+
+        if (killers[ply * 2] != move
+                && scoreCandidate(move / size, move % size, player) < QUIET_ORDER_SCORE) {
+            killers[ply * 2 + 1] = killers[ply * 2];
+            killers[ply * 2] = move;
+        }
+    }
+
+    /**
+     * Input: moves, scores, count - a node's ordered move list; first - where the moves after the TT move
+     * start; ply - the node's ply.
+     * Output: None
+     * Logic: Moves the killers of this ply (when they are in the list and quiet) to the front of the quiet
+     * moves, keeping the order of everything else.
+     */
+    private void promoteKillers(int[] moves, int[] scores, int count, int first, int ply) {
+        int insertAt = first;
+        while (insertAt < count && scores[insertAt] >= QUIET_ORDER_SCORE) insertAt++;
+        for (int slot = 0; slot < 2; slot++) {
+            int killer = killers[ply * 2 + slot];
+            if (killer == NO_CELL) continue;
+            for (int i = insertAt; i < count; i++) {
+                if (moves[i] == killer) {
+                    int score = scores[i];
+                    System.arraycopy(moves, insertAt, moves, insertAt + 1, i - insertAt);
+                    System.arraycopy(scores, insertAt, scores, insertAt + 1, i - insertAt);
+                    moves[insertAt] = killer;
+                    scores[insertAt] = score;
+                    insertAt++;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Input: None
+     * Output: None
+     * Logic: Called at the start of every getHeuristicMove. When k stones were played since the last search
+     * (usually 2), the killers of ply p move to ply p - k. All history scores are halved: recent cutoffs
+     * count more than old ones. Also starts a new transposition table generation.
+     */
+    private void ageMoveOrdering() {
+        transpositionTable.newSearch();
+        if (!moveOrderingHeuristicsEnabled) return;
+        int played = board.stoneCount() - killerStones;
+        killerStones = board.stoneCount();
+        if (played < 0 || played >= MAX_PLY) {
+            Arrays.fill(killers, NO_CELL); // Stones were taken back: the killers don't fit any more
+        } else if (played > 0) {
+            System.arraycopy(killers, played * 2, killers, 0, killers.length - played * 2);
+            Arrays.fill(killers, killers.length - played * 2, killers.length, NO_CELL);
+        }
+        for (int[] table : history) {
+            for (int cell = 0; cell < table.length; cell++) table[cell] >>= 1;
+        }
+    }
+
+    /**
+     * Input: None
+     * Output: None
+     * Logic: Starts the clock and zeroes the stats (if collected) of a new getHeuristicMove call.
+     */
+    private void beginStats() {
+        searchStartNanos = System.nanoTime();
+        if (stats != null) stats.reset();
+    }
+
+    /**
+     * Input: move - the chosen move; source - how it was chosen.
+     * Output: Move - the same move, so callers can return finishStats(...).
+     * Logic: Fills in the totals and writes the log line if logging is on.
+     */
+    private Move finishStats(Move move, SearchStats.Source source) {
+        if (stats == null) return move;
+        stats.source = source;
+        stats.nodes = nodeCount;
+        stats.elapsedNanos = System.nanoTime() - searchStartNanos;
+        if (searchStatsLogging) SEARCH_LOG.info(stats.toString());
+        return move;
+    }
+
+    /**
+     * Output: boolean - True once the current search was stopped or its time budget ran out (checks the clock).
+     */
+    private boolean pastDeadline() {
+        return stopRequested || (searchDeadline != 0 && System.nanoTime() - searchDeadline >= 0);
+    }
+
+    /**
+     * Input: None
+     * Output: boolean - True once the node or time budget of the current search is used up.
+     * Logic: The node limit is checked at every node. The clock and the stop flag are only read every
+     * 256 nodes, because System.nanoTime() and volatile reads are much slower than a node counter.
+     */
+    private boolean budgetExceeded() {
+        if (nodeLimit > 0 && nodeCount >= nodeLimit) {
+            searchAborted = true;
+        } else if ((nodeCount & 255) == 0 && pastDeadline()) {
+            searchAborted = true;
+        }
+        return searchAborted;
+    }
+
+    /**
+     * Input: isMaximizing (boolean), aiPlayer (int) - the search context of the current node.
+     * Output: long - Key for the transposition table.
+     * Logic: The board hash alone is not enough, because minimax scores depend on whose turn it is
+     * and on which side the AI plays. Both are mixed into the key.
+     */
+    private long searchKey(boolean isMaximizing, int aiPlayer) {
+        long key = hash;
+        if (isMaximizing) key ^= Zobrist.MAXIMIZING_KEY;
+        if (aiPlayer == PLAYER_X) key ^= Zobrist.AI_IS_X_KEY;
+        return key;
+    }
+
+    /**
+     * Input: key, depth - the node; score - its result; alphaOrig, betaOrig - the window it was searched with.
+     * Output: None
+     * Logic: A score outside the original window is only a bound (the search stopped early or nothing beat alpha),
+     * so it is stored with the matching bound type. Scores strictly inside the window are exact.
+     */
+    private void storeResult(long key, int depth, double score, double alphaOrig, double betaOrig, int bestMove) {
+        if (!transpositionTableEnabled) return;
+        int bound;
+        if (score <= alphaOrig) {
+            bound = TranspositionTable.BOUND_UPPER;
+        } else if (score >= betaOrig) {
+            bound = TranspositionTable.BOUND_LOWER;
+        } else {
+            bound = TranspositionTable.BOUND_EXACT;
+        }
+        transpositionTable.store(key, depth, toTable(score, depth), bound, bestMove);
+    }
+
+    /**
+     * Input: score - a minimax result; depth - the depth left at the node.
+     * Output: double - The score to store. Wins are worth 1000000 + (depth left when the five is made),
+     * which depends on the depth left at this node, so mate scores are stored without it; fromTable adds
+     * the depth left of the node that reads them back.
+     */
+    private static double toTable(double score, int depth) {
+        if (score >= MATE_THRESHOLD) return score - depth;
+        if (score <= -MATE_THRESHOLD) return score + depth;
+        return score;
+    }
+
+    private static double fromTable(double score, int depth) {
+        if (score >= MATE_THRESHOLD) return score + depth;
+        if (score <= -MATE_THRESHOLD) return score - depth;
+        return score;
+    }
+
+    /**
+     * Input: moves, scores, count - a move list and its ordering scores; cell (int) - the move to search first.
+     * Output: boolean - True if the move is in the list (now at index 0).
+     * Logic: If the move is in the list, moves it to index 0 and shifts the ones before it down by one,
+     * in both arrays. Otherwise leaves the list unchanged.
+     */
+    private static boolean moveToFront(int[] moves, int[] scores, int count, int cell) {
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == cell) {
+                int score = scores[i];
+                System.arraycopy(moves, 0, moves, 1, i);
+                System.arraycopy(scores, 0, scores, 1, i);
+                moves[0] = cell;
+                scores[0] = score;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Input: aiPlayer (int), humanPlayer (int) - IDs of the bot and the opponent.
+     * Output: Move - The best calculated coordinates for the AI to play.
+     * Logic: Generates all "adjacent" moves (moves near existing stones). For each candidate, calculates:
+     * 1. Attack Score (How good is this move for AI?)
+     * 2. Defense Score (How good is this move for Human? i.e., blocking)
+     * Sums these scores and picks the move with the highest total.
+     */
+    public Move getHeuristicMove(int aiPlayer, int humanPlayer) {
+        beginStats();
+        ageMoveOrdering();
+        ensureSearchCapacity();
+        nodeCount = 0;
+        // Known opening positions are answered from the book without searching.
+        Move bookMove = getBookMove();
+        if (bookMove != null) return finishStats(bookMove, SearchStats.Source.BOOK);
+
+        int[] moves = moveBuffers[0];
+        rootMoveCount = generateAdjacentMoves(moves);
+
+        // Fallback for empty board
+        if (rootMoveCount == 0) return finishStats(getCenter(), SearchStats.Source.SEARCH);
+
+        int bestMove = NO_CELL;
+        double bestValue = -100000000.0; // Very low number
+        nodeLimit = 0;
+        searchDeadline = 0;
+        searchAborted = false;
+
+        // Forced wins (or the only defences against them) don't need a search.
+        int forced = findForcedCell(aiPlayer);
+        if (forced != NO_CELL) return finishStats(toMove(forced), SearchStats.Source.THREAT_SOLVER);
+
+        // Loop through all immediate moves for the AI
+        for (int i = 0; i < rootMoveCount; i++) {
+            int move = moves[i];
+            int row = move / size;
+            int col = move % size;
+            placeStone(row, col, aiPlayer);
+
+            // Immediate win check (Critical!)
+            if (checkWin(row, col) == aiPlayer) {
+                removeStone(row, col);
+                return finishStats(toMove(move), SearchStats.Source.IMMEDIATE_WIN);
+            }
+
+            // Call Minimax with depth 2 (Look ahead: Human move -> AI move)
+            // isMaximizing is FALSE because the next turn is Human's
+            double moveValue = minimax(2, 1, false, -100000000.0, 100000000.0, aiPlayer);
+
+            removeStone(row, col); // Undo
+
+            if (moveValue > bestValue) {
+                bestValue = moveValue;
+                bestMove = move;
+            }
+        }
+
+        if (stats != null) {
+            stats.completedDepth = 3;
+            stats.endIteration(System.nanoTime() - searchStartNanos, nodeCount);
+        }
+        return finishStats(toMove((bestMove != NO_CELL) ? bestMove : moves[0]), SearchStats.Source.SEARCH);
+    }
+
+    /**
+     * Input: aiPlayer, humanPlayer (int) - IDs of the bot and the opponent; budget - time/node/depth limits.
+     * Output: Move - The best move of the deepest iteration that finished inside the budget.
+     * Logic: Anytime version of getHeuristicMove. Searches 1 ply, then 2, then 3... Each iteration searches
+     * the root moves in the order of the previous iteration's scores (best first), and the transposition
+     * table hands every inner node the best move found last time, so each iteration follows the previous
+     * best line first. When the budget runs out mid-iteration, that iteration is thrown away.
+     */
+    public Move getHeuristicMove(int aiPlayer, int humanPlayer, SearchBudget budget) {
+        if (mctsSearch != null) {
+            Move move = mctsSearch.search(this, aiPlayer, budget);
+            nodeCount = mctsSearch.getLastPlayouts();
+            return move;
+        }
+        beginStats();
+        ageMoveOrdering();
+        ensureSearchCapacity();
+        nodeCount = 0;
+        Move bookMove = getBookMove();
+        if (bookMove != null) return finishStats(bookMove, SearchStats.Source.BOOK);
+
+        int[] moves = moveBuffers[0];
+        rootMoveCount = generateOrderedMoves(aiPlayer, moves, orderScoreBuffers[0]);
+
+        // Fallback for empty board
+        if (rootMoveCount == 0) return finishStats(getCenter(), SearchStats.Source.SEARCH);
+
+        nodeLimit = budget.maxNodes;
+        searchDeadline = budget.timeMillis > 0 ? System.nanoTime() + budget.timeMillis * 1000000L : 0;
+        searchAborted = false;
+        lastCompletedDepth = 0;
+
+        // Immediate win check (Critical!) - no need to search anything else.
+        for (int i = 0; i < rootMoveCount; i++) {
+            if (winsImmediately(moves[i], aiPlayer)) {
+                return finishStats(toMove(moves[i]), SearchStats.Source.IMMEDIATE_WIN);
+            }
+        }
+        int forced = findForcedCell(aiPlayer);
+        if (forced != NO_CELL) return finishStats(toMove(forced), SearchStats.Source.THREAT_SOLVER);
+
+        // An earlier search (usually the previous turn's, two plies deeper in its tree) may know the best move.
+        long rootKey = searchKey(true, aiPlayer);
+        if (transpositionTableEnabled) {
+            int slot = transpositionTable.probe(rootKey);
+            if (slot >= 0) moveToFront(moves, orderScoreBuffers[0], rootMoveCount, transpositionTable.getBestMove(slot));
+        }
+
+        double[] scores = rootScores;
+        int bestMove = moves[0];
+        int maxDepth = Math.min(budget.maxDepth, MAX_PLY - 1);
+
+        // Scores of the last odd and even iterations: the evaluation swings with who moved last, so the
+        // aspiration window is centred on the score from two iterations back.
+        double previousOdd = 0;
+        double previousEven = 0;
+        reductionsActive = principalVariationSearchEnabled;
+        anytimeSearchActive = true;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            int iterationBest = NO_CELL;
+            double iterationBestValue = -100000000.0;
+            double previous = depth % 2 == 1 ? previousOdd : previousEven;
+            double window = ASPIRATION_WINDOW;
+            boolean aspiration = reductionsActive && depth >= 3 && Math.abs(previous) < MATE_THRESHOLD;
+            double low = aspiration ? previous - window : -100000000.0;
+            double high = aspiration ? previous + window : 100000000.0;
+
+            while (true) {
+                iterationBest = NO_CELL;
+                iterationBestValue = -100000000.0;
+                for (int i = 0; i < rootMoveCount; i++) {
+                    int move = moves[i];
+                    placeStone(move / size, move % size, aiPlayer);
+                    // Moves that can't beat the best so far only need to prove it (alpha = best value).
+                    double alpha = Math.max(low, iterationBestValue);
+                    double moveValue;
+                    if (!reductionsActive || i == 0) {
+                        moveValue = minimax(depth - 1, 1, false, alpha, high, aiPlayer);
+                    } else {
+                        // The root list is in last iteration's score order, so late moves are the weak ones.
+                        int reduction = lateMoveReduction(depth, 0, i, move,
+                                scoreCandidate(move / size, move % size, aiPlayer));
+                        moveValue = minimax(depth - 1 - reduction, 1, false, alpha, Math.nextUp(alpha), aiPlayer);
+                        if (moveValue > alpha && reduction > 0) {
+                            moveValue = minimax(depth - 1, 1, false, alpha, Math.nextUp(alpha), aiPlayer);
+                        }
+                        if (moveValue > alpha && moveValue < high) {
+                            moveValue = minimax(depth - 1, 1, false, alpha, high, aiPlayer);
+                        }
+                    }
+                    removeStone(move / size, move % size);
+                    if (searchAborted) break;
+
+                    scores[i] = moveValue;
+                    if (moveValue > iterationBestValue) {
+                        iterationBestValue = moveValue;
+                        iterationBest = move;
+                    }
+                    if (moveValue >= high) break; // Above the window: searched again below
+                }
+                if (searchAborted) break;
+
+                // Outside the aspiration window the score is only a bound: widen that side and search again,
+                // after two failures with the full window.
+                if (iterationBestValue <= low && low > -100000000.0) {
+                    window *= 4;
+                    low = window >= 16 * ASPIRATION_WINDOW ? -100000000.0 : previous - window;
+                } else if (iterationBestValue >= high && high < 100000000.0) {
+                    window *= 4;
+                    high = window >= 16 * ASPIRATION_WINDOW ? 100000000.0 : previous + window;
+                } else {
+                    break;
+                }
+            }
+            if (searchAborted) break;
+            if (depth % 2 == 1) {
+                previousOdd = iterationBestValue;
+            } else {
+                previousEven = iterationBestValue;
+            }
+
+            bestMove = (iterationBest != NO_CELL) ? iterationBest : moves[0];
+            lastCompletedDepth = depth;
+            if (transpositionTableEnabled) {
+                transpositionTable.store(rootKey, depth, toTable(iterationBestValue, depth),
+                        TranspositionTable.BOUND_LOWER, bestMove);
+            }
+            if (stats != null) {
+                stats.completedDepth = depth;
+                stats.endIteration(System.nanoTime() - searchStartNanos, nodeCount);
+            }
+            if (searchListener != null) searchListener.onIterationComplete(depth, toMove(bestMove), iterationBestValue);
+
+            // A forced win or loss is already decided; searching deeper cannot change the answer.
+            if (Math.abs(iterationBestValue) >= 1000000.0) break;
+
+            sortByScore(moves, scores, rootMoveCount);
+        }
+        reductionsActive = false;
+        anytimeSearchActive = false;
+        return finishStats(toMove(bestMove), SearchStats.Source.SEARCH);
+    }
+
+    /**
+     * Input: source - a Model with the same board size and win length.
+     * Output: None
+     * Logic: Takes out the stones the source doesn't have and adds the ones it has, and copies the source's
+     * settings, so this Model shows the same game while its transposition table, killers and history stay.
+     * A Model that keeps following one game this way (AsyncEngine does) searches every turn with what the
+     * earlier turns learned. Also lifts an earlier stopSearch().
+     */
+    void syncPosition(Model source) {
+        if (patternEvaluationEnabled != source.patternEvaluationEnabled) {
+            setPatternEvaluationEnabled(source.patternEvaluationEnabled);
+        }
+        transpositionTableEnabled = source.transpositionTableEnabled;
+        incrementalEvaluationEnabled = source.incrementalEvaluationEnabled;
+        threatSolverEnabled = source.threatSolverEnabled;
+        openingBook = source.openingBook;
+        mctsSearch = source.mctsSearch;
+        setSearchStatsLogging(source.searchStatsLogging);
+        moveOrderingHeuristicsEnabled = source.moveOrderingHeuristicsEnabled;
+        principalVariationSearchEnabled = source.principalVariationSearchEnabled;
+
+        for (int i = board.stoneCount() - 1; i >= 0; i--) {
+            int cell = board.stoneAt(i);
+            int row = cell / size;
+            int col = cell % size;
+            if (source.board.get(row, col) != board.get(row, col)) removeStone(row, col);
+        }
+        for (int i = 0; i < source.board.stoneCount(); i++) {
+            int cell = source.board.stoneAt(i);
+            int row = cell / size;
+            int col = cell % size;
+            if (board.get(row, col) == EMPTY) placeStone(row, col, source.board.get(row, col));
+        }
+        currentPlayer = source.currentPlayer;
+        stopRequested = false;
+    }
+
+    /**
+     * Input: None
+     * Output: None
+     * Logic: Clears the node counter and all limits before a search driven from outside (ParallelSearch).
+     */
+    void resetSearchState() {
+        ensureSearchCapacity();
+        nodeCount = 0;
+        nodeLimit = 0;
+        searchDeadline = 0;
+        searchAborted = false;
+    }
+
+    /**
+     * Input: None
+     * Output: None
+     * Logic: Every node's move list holds at most the current frontier plus the 8 neighbours of each stone
+     * placed on the way down, so buffers of that size can't overflow during the next search. On boards up to
+     * CandidateSet.DENSE_CELLS cells they simply cover the whole board once.
+     */
+    private void ensureSearchCapacity() {
+        long area = (long) size * size;
+        int needed = area <= CandidateSet.DENSE_CELLS
+                ? (int) area
+                : (int) Math.min(area, Math.max(candidates.size(), 1) + 8L * MAX_PLY);
+        if (moveBuffers[0] != null && moveBuffers[0].length >= needed) return;
+        int capacity = area <= CandidateSet.DENSE_CELLS ? needed : (int) Math.min(area, 2L * needed);
+        int[] root = moveBuffers[0];
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            moveBuffers[ply] = new int[capacity];
+            orderScoreBuffers[ply] = new int[capacity];
+        }
+        // findForcedMove may already have written the root list.
+        if (root != null) System.arraycopy(root, 0, moveBuffers[0], 0, root.length);
+        rootScores = new double[capacity];
+    }
+
+    // Packed cell (row * size + col) to Move.
+    private Move toMove(int cell) {
+        return Move.of(cell / size, cell % size);
+    }
+
+    /**
+     * Output: Move - The centre cell, the first move on an empty board.
+     */
+    private Move getCenter() {
+        return Move.of(size / 2, size / 2);
+    }
+
+    /**
+     * Input: move - an empty cell; player (int)
+     * Output: boolean - True if the player wins by playing there. The board is left unchanged.
+     */
+    boolean winsImmediately(Move move, int player) {
+        return winsImmediately(move.row * size + move.col, player);
+    }
+
+    private boolean winsImmediately(int cell, int player) {
+        int row = cell / size;
+        int col = cell % size;
+        placeStone(row, col, player);
+        boolean wins = checkWin(row, col) == player;
+        removeStone(row, col);
+        return wins;
+    }
+
+    /**
+     * Input: move - a root candidate; aiPlayer (int); depth (int) - plies searched after the move;
+     * alpha (double) - the score the move has to beat.
+     * Output: double - Same as the value getHeuristicMove computes for this move (exact when above alpha).
+     * Logic: Plays the move for the AI, runs minimax for the human's reply and takes the move back.
+     * Used by ParallelSearch to score root moves on its per-thread Models.
+     */
+    double scoreRootMove(Move move, int aiPlayer, int depth, double alpha) {
+        placeStone(move.row, move.col, aiPlayer);
+        double value = minimax(depth, 1, false, alpha, 100000000.0, aiPlayer);
+        removeStone(move.row, move.col);
+        return value;
+    }
+
+    // For MctsSearch, which walks its tree and plays random games on a snapshot of the position.
+
+    /**
+     * Input: player (int) - the side about to move; moves, scores - buffers of at least getFrontierSize() + 1.
+     * Output: int - Number of cells written to moves, most forcing first, with their ordering scores.
+     */
+    int generateMoves(int player, int[] moves, int[] scores) {
+        return generateOrderedMoves(player, moves, scores);
+    }
+
+    void playStone(int cell, int player) {
+        placeStone(cell / size, cell % size, player);
+    }
+
+    void takeBackStone(int cell) {
+        removeStone(cell / size, cell % size);
+    }
+
+    /**
+     * Output: int - Empty cells next to a stone. Cell i of them is getFrontierCell(i), in no particular order.
+     */
+    int getFrontierSize() {
+        return candidates.size();
+    }
+
+    int getFrontierCell(int index) {
+        return candidates.get(index);
+    }
+
+    /**
+     * Input: aiPlayer (int); moves - the root candidates, may be narrowed down.
+     * Output: Move - The move to play without searching, or null to let minimax decide.
+     * Logic: List version of findForcedCell, for ParallelSearch.
+     */
+    Move findForcedMove(int aiPlayer, ArrayList<Move> moves) {
+        int[] rootMoves = moveBuffers[0];
+        rootMoveCount = 0;
+        for (Move move : moves) rootMoves[rootMoveCount++] = move.row * size + move.col;
+
+        int forced = findForcedCell(aiPlayer);
+        if (forced != NO_CELL) return toMove(forced);
+        if (rootMoveCount != moves.size()) {
+            moves.clear();
+            for (int i = 0; i < rootMoveCount; i++) moves.add(toMove(rootMoves[i]));
+        }
+        return null;
+    }
+
+    /**
+     * Input: aiPlayer (int). The root candidates are moveBuffers[0][0..rootMoveCount).
+     * Output: int - The cell to play without searching, or NO_CELL to let minimax decide (always NO_CELL
+     * when the threat solver is disabled).
+     * Logic: 1. If the AI has a forced win (VCF, then VCT), return its first move.
+     * 2. If the human would have one, try the cells of the human's winning line, the cells around its first
+     *    threat and the AI's own fours: the moves after which the human no longer has a forced win are the
+     *    only defences. One defence is returned at once; several replace the root candidates (in row order)
+     *    so minimax picks among them.
+     */
+    private int findForcedCell(int aiPlayer) {
+        if (!threatSolverEnabled || threatSolver == null) return NO_CELL;
+        int humanPlayer = -aiPlayer;
+        int win = findThreatWin(aiPlayer);
+        if (win != ThreatSolver.NONE) return win;
+
+        if (findThreatWin(humanPlayer) == ThreatSolver.NONE) return NO_CELL;
+
+        // tryDefence runs the solver again, so keep the winning line before it is overwritten.
+        int lineLength = threatSolver.getProofLength();
+        for (int i = 0; i < lineLength; i++) proofCells[i] = threatSolver.getProofCell(i);
+
+        Arrays.fill(triedDefences, false);
+        Arrays.fill(defences, false);
+        for (int i = 0; i < lineLength; i++) {
+            tryDefence(proofCells[i], aiPlayer);
+        }
+        int firstRow = proofCells[0] / size;
+        int firstCol = proofCells[0] % size;
+        for (int[] dir : LINE_DIRECTIONS) {
+            for (int k = -4; k <= 4; k++) {
+                int r = firstRow + k * dir[0];
+                int c = firstCol + k * dir[1];
+                if (r >= 0 && r < size && c >= 0 && c < size) {
+                    tryDefence(r * size + c, aiPlayer);
+                }
+            }
+        }
+        for (int cell = 0; cell < defences.length; cell++) {
+            if (!triedDefences[cell] && board.get(cell / size, cell % size) == EMPTY
+                    && threatSolver.makesFour(cell, aiPlayer)) {
+                tryDefence(cell, aiPlayer);
+            }
+        }
+
+        // Out of time before every candidate was tried: the defences found so far may not be all of them.
+        if (pastDeadline()) return NO_CELL;
+
+        int count = 0;
+        int only = NO_CELL;
+        for (int cell = 0; cell < defences.length; cell++) {
+            if (defences[cell]) {
+                count++;
+                only = cell;
+            }
+        }
+        if (count == 0) return NO_CELL; // Lost against best play; let minimax pick the toughest move
+        if (count == 1) return only;
+
+        // Several defences: search only those, in the usual row order.
+        int[] moves = moveBuffers[0];
+        rootMoveCount = 0;
+        for (int cell = 0; cell < defences.length; cell++) {
+            if (defences[cell]) moves[rootMoveCount++] = cell;
+        }
+        return NO_CELL;
+    }
+
+    /**
+     * Input: cell - a candidate defence; aiPlayer.
+     * Output: None
+     * Logic: Plays the AI stone there and marks the cell in defences[] if the human's forced win is gone.
+     * Does nothing once the search is past its deadline: dozens of defences can take longer than a short budget.
+     */
+    private void tryDefence(int cell, int aiPlayer) {
+        if (triedDefences[cell] || pastDeadline()) return;
+        triedDefences[cell] = true;
+        int row = cell / size;
+        int col = cell % size;
+        if (board.get(row, col) != EMPTY) return;
+        board.set(row, col, aiPlayer);
+        boolean refutes = findThreatWin(-aiPlayer) == ThreatSolver.NONE;
+        board.set(row, col, EMPTY);
+        if (refutes) defences[cell] = true;
+    }
+
+    /**
+     * Input: player (int) - the side to move.
+     * Output: int - First move of a forced win for the player (VCF first, then VCT), or ThreatSolver.NONE.
+     */
+    private int findThreatWin(int player) {
+        int win = threatSolver.findWin(player, VCF_DEPTH, false, VCF_NODE_LIMIT);
+        if (stats != null) stats.threatSolverNodes += threatSolver.getNodeCount();
+        if (win == ThreatSolver.NONE) {
+            win = threatSolver.findWin(player, VCT_DEPTH, true, VCT_NODE_LIMIT);
+            if (stats != null) stats.threatSolverNodes += threatSolver.getNodeCount();
+        }
+        return win;
+    }
+
+    /**
+     * Input: moves, scores - parallel arrays, scores[i] belongs to moves[i]; count - how many are used.
+     * Output: None
+     * Logic: Stable insertion sort of both arrays, highest score first, so equal moves keep their order.
+     */
+    private static void sortByScore(int[] moves, double[] scores, int count) {
+        for (int i = 1; i < count; i++) {
+            int move = moves[i];
+            double score = scores[i];
+            int j = i - 1;
+            while (j >= 0 && scores[j] < score) {
+                moves[j + 1] = moves[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+            moves[j + 1] = move;
+            scores[j + 1] = score;
+        }
+    }
+
+    /**
+     * Input: None
+     * Output: ArrayList<Move> - List of all empty slots on the board.
+     * Logic: Scans the full board and adds every EMPTY cell to a list. Used mostly for random fallback.
+     */
+    public ArrayList<Move> getPossibleMoves() {
+        ArrayList<Move> moves = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (board.get(i, j) == EMPTY) {
+                    moves.add(Move.of(i, j));
+                }
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Input: row, col (int)
+     * Output: int - count of non-empty neighbors.
+     * Logic: Checks the 8 surrounding cells of a coordinate (ignoring bounds issues) and counts how many contain stones.
+     */
+    public int getNumOfAdjacentSlots(int row, int col) {
+        int sum = 0;
+        for (int R = row - 1; R <= row + 1; R++) {
+            for (int C = col - 1; C <= col + 1; C++) {
+                if (R < 0 || R >= size || C < 0 || C >= size) continue;
+                if (R == row && C == col) continue;
+                if (board.get(R, C) != EMPTY) sum++;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Input: None
+     * Output: ArrayList<Move> - List of empty slots that are touching at least one existing stone.
+     * Logic: Optimizes search space by only returning empty cells that are adjacent to existing stones.
+     * This prevents the AI from checking useless moves in the corners of the board.
+     */
+    public ArrayList<Move> getPossibleAdjacentMoves() {
+        ensureSearchCapacity();
+        int[] cells = new int[moveBuffers[0].length];
+        int count = generateAdjacentMoves(cells);
+        ArrayList<Move> moves = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            moves.add(toMove(cells[i]));
+        }
+        return moves;
+    }
+
+    /**
+     * Input: moves (int[]) - output buffer the size of moveBuffers[0].
+     * Output: int - Number of packed cells written: the same cells as getPossibleAdjacentMoves, in row order.
+     * Logic: Sorts the frontier (empty cells next to a stone) instead of scanning the board.
+     */
+    private int generateAdjacentMoves(int[] moves) {
+        int count = candidates.size();
+        for (int i = 0; i < count; i++) moves[i] = candidates.get(i);
+        Arrays.sort(moves, 0, count);
+
+        // If the board is completely empty (start of game), this list is empty.
+        // We must return the center move or all moves to prevent a crash.
+        if (count == 0) {
+            if ((long) size * size > moves.length) {
+                moves[count++] = (size / 2) * size + size / 2;
+                return count;
+            }
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < size; j++) {
+                    if (board.get(i, j) == EMPTY) moves[count++] = i * size + j;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Input: player (int) - the side about to move.
+     * Output: ArrayList<Move> - The same cells as getPossibleAdjacentMoves, most forcing first.
+     * Logic: List version of generateOrderedMoves.
+     */
+    public ArrayList<Move> getOrderedMoves(int player) {
+        ensureSearchCapacity();
+        int[] cells = new int[moveBuffers[0].length];
+        int count = generateOrderedMoves(player, cells, new int[cells.length]);
+        ArrayList<Move> moves = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            moves.add(toMove(cells[i]));
+        }
+        return moves;
+    }
+
+    /**
+     * Input: player (int) - the side about to move; moves, scores - output buffers the size of moveBuffers[0].
+     * Output: int - Number of packed cells written to moves, most forcing first.
+     * Logic: Reads the incrementally kept frontier instead of scanning the board, gives each cell a cheap
+     * score with scoreCandidate and sorts by it. Wins and blocks of wins come first, then fours, then threes,
+     * so alpha-beta finds its cutoffs early.
+     */
+    private int generateOrderedMoves(int player, int[] moves, int[] scores) {
+        int count = candidates.size();
+        if (count == 0) return generateAdjacentMoves(moves); // Empty board
+
+        int[] historyScores = history[player == PLAYER_X ? 0 : 1];
+        for (int i = 0; i < count; i++) {
+            int cell = candidates.get(i);
+            int score = scoreCandidate(cell / size, cell % size, player);
+
+            // Insertion sort, highest score first. Ties: higher history score first, then lower cell
+            // index, so the order is stable.
+            int j = i - 1;
+            while (j >= 0 && (scores[j] < score || (scores[j] == score && comesBefore(cell, moves[j], historyScores)))) {
+                moves[j + 1] = moves[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+            moves[j + 1] = cell;
+            scores[j + 1] = score;
+        }
+        return count;
+    }
+
+    // Tie-break of generateOrderedMoves: true if cell a is searched before cell b.
+    private boolean comesBefore(int a, int b, int[] historyScores) {
+        if (moveOrderingHeuristicsEnabled) {
+            int historyA = historyScores[a % historyScores.length];
+            int historyB = historyScores[b % historyScores.length];
+            if (historyA != historyB) return historyA > historyB;
+        }
+        return a < b;
+    }
+
+    /**
+     * Input: row, col (int) - an empty cell; player (int) - the side about to move.
+     * Output: int - Ordering score, higher = try earlier.
+     * Logic: For each direction, looks up the shape each side would get by playing here (one window code,
+     * read from both players' side). Our own shape is worth twice blocking the same shape of the opponent,
+     * so a win is tried before a block, and an open four before a closed one.
+     */
+    private int scoreCandidate(int row, int col, int player) {
+        int score = 0;
+        for (int[] dir : LINE_DIRECTIONS) {
+            int code = board.getLinePattern(row, col, dir[0], dir[1], player);
+            score += ORDER_WEIGHTS[PatternTable.threatClass(code)] * 2;
+            score += ORDER_WEIGHTS[PatternTable.threatClass(PatternTable.swapPlayers(code))];
+        }
+        return score;
+    }
+}
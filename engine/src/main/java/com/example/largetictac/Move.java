@@ -0,0 +1,46 @@
+package com.example.largetictac;
+
+
+public class Move {
+    public final int row;
+    public final int col;
+
+    // One shared instance per cell, so the search can hand out moves without allocating.
+    private static final Move[] CELLS = new Move[Model.BOARD_SIZE * Model.BOARD_SIZE];
+
+    static {
+        for (int i = 0; i < CELLS.length; i++) {
+            CELLS[i] = new Move(i / Model.BOARD_SIZE, i % Model.BOARD_SIZE);
+        }
+    }
+
+    public Move(int row, int col) {
+        this.row = row;
+        this.col = col;
+    }
+
+    /**
+     * Output: Move - The shared Move for cells of a 15x15 board, a new one for cells beyond it.
+     */
+    public static Move of(int row, int col) {
+        if (row < Model.BOARD_SIZE && col < Model.BOARD_SIZE) return CELLS[row * Model.BOARD_SIZE + col];
+        return new Move(row, col);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof Move)) return false;
+        Move move = (Move) other;
+        return row == move.row && col == move.col;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * row + col;
+    }
+
+    @Override
+    public String toString() {
+        return "(" + row + ", " + col + ")";
+    }
+}
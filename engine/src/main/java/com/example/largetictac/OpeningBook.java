@@ -0,0 +1,230 @@
+package com.example.largetictac;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only opening book: a binary file of (position, move) entries sorted by position key.
+ *
+ * File layout (big-endian):
+ *   header  int magic "GMKB", int version, int entry count, int max stones
+ *   entries long key, int move, int weight     (16 bytes each, sorted by key)
+ *
+ * Positions are stored in canonical form: the key is the smallest Zobrist hash over the 8 board
+ * symmetries (rotations and mirrors), and the move is stored in that same orientation. A game that
+ * reaches a rotated or mirrored copy of a book position finds it too.
+ *
+ * The file is memory-mapped, so opening a book costs nothing up front and a lookup is a binary
+ * search straight over the mapped bytes. The buffer is only read with absolute gets, so one book
+ * can be shared by Models on different threads.
+ */
+public class OpeningBook {
+    public static final int NONE = -1;
+    public static final int SYMMETRIES = 8;
+
+    private static final int MAGIC = 0x474D4B42; // "GMKB"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int ENTRY_BYTES = 16;
+    private static final int N = Model.BOARD_SIZE;
+
+    /**
+     * One book position. key and move are in canonical orientation; weight is how much the builder
+     * trusts the move (e.g. how many games it was seen in).
+     */
+    public static final class Entry {
+        public final long key;
+        public final int move;
+        public final int weight;
+
+        public Entry(long key, int move, int weight) {
+            this.key = key;
+            this.move = move;
+            this.weight = weight;
+        }
+    }
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int maxStones;
+
+    private OpeningBook(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not an opening book file");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported opening book version: " + buffer.getInt(4));
+        }
+        this.buffer = buffer;
+        this.size = buffer.getInt(8);
+        this.maxStones = buffer.getInt(12);
+        if (size < 0 || (long) HEADER_BYTES + (long) size * ENTRY_BYTES > buffer.capacity()) {
+            throw new IOException("Opening book file is truncated");
+        }
+    }
+
+    /**
+     * Input: file (Path) - a book written by write().
+     * Output: OpeningBook - The book, backed by a read-only mapping of the file.
+     * Logic: Maps the file and checks the header. The mapping stays valid after the channel is closed.
+     */
+    public static OpeningBook open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new OpeningBook(mapped);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Output: int - Most stones of any book position. Positions with more stones are not looked up.
+     */
+    public int getMaxStones() {
+        return maxStones;
+    }
+
+    /**
+     * Input: board (Board) - the position, side to move follows from the stone count.
+     * Output: int - The book move (packed as row * BOARD_SIZE + col, in the board's own orientation),
+     * or NONE if the position is not in the book.
+     * Logic: 1. Gives up at once when the board is not 15x15 or has more stones than any book position.
+     * 2. Finds the canonical symmetry and key, binary-searches the key, and maps the stored move back
+     *    through the same symmetry. A move that lands on a stone (a hash collision) is ignored.
+     */
+    public int probe(Board board) {
+        if (board.size() != N) return NONE;
+        if (board.stoneCount() > maxStones) return NONE;
+
+        int symmetry = canonicalSymmetry(board);
+        int index = find(symmetryKey(board, symmetry));
+        if (index < 0) return NONE;
+
+        int move = inverse(symmetry, buffer.getInt(HEADER_BYTES + index * ENTRY_BYTES + 8));
+        if (move < 0 || move >= N * N || board.get(move / N, move % N) != Model.EMPTY) return NONE;
+        return move;
+    }
+
+    /**
+     * Input: key (long) - a canonical key.
+     * Output: int - Index of the entry with that key, or -1.
+     */
+    private int find(long key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midKey = buffer.getLong(HEADER_BYTES + mid * ENTRY_BYTES);
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Input: file (Path); entries - book positions in any order; maxStones - the most stones in any entry.
+     * Output: None
+     * Logic: Sorts by key, keeps the highest-weight entry when a key appears more than once, and writes
+     * the header and entries.
+     */
+    public static void write(Path file, List<Entry> entries, int maxStones) throws IOException {
+        List<Entry> sorted = new ArrayList<>(entries);
+        sorted.sort((a, b) -> a.key != b.key ? Long.compare(a.key, b.key) : Integer.compare(b.weight, a.weight));
+        List<Entry> unique = new ArrayList<>(sorted.size());
+        for (Entry entry : sorted) {
+            if (unique.isEmpty() || unique.get(unique.size() - 1).key != entry.key) unique.add(entry);
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(HEADER_BYTES + unique.size() * ENTRY_BYTES);
+        out.putInt(MAGIC).putInt(VERSION).putInt(unique.size()).putInt(maxStones);
+        for (Entry entry : unique) {
+            out.putLong(entry.key).putInt(entry.move).putInt(entry.weight);
+        }
+        out.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) channel.write(out);
+        }
+    }
+
+    // ==================================================================================
+    //                              SYMMETRIES
+    // ==================================================================================
+
+    /**
+     * Input: symmetry (0-7) - bit 2 = transpose, bit 0 = flip rows, bit 1 = flip columns (in that order);
+     * cell (int) - a packed cell.
+     * Output: int - Where the cell ends up.
+     */
+    public static int transform(int symmetry, int cell) {
+        int row = cell / N;
+        int col = cell % N;
+        if ((symmetry & 4) != 0) {
+            int t = row;
+            row = col;
+            col = t;
+        }
+        if ((symmetry & 1) != 0) row = N - 1 - row;
+        if ((symmetry & 2) != 0) col = N - 1 - col;
+        return row * N + col;
+    }
+
+    /**
+     * Output: int - The cell that transform(symmetry, ...) maps onto the given cell.
+     */
+    public static int inverse(int symmetry, int cell) {
+        int row = cell / N;
+        int col = cell % N;
+        if ((symmetry & 1) != 0) row = N - 1 - row;
+        if ((symmetry & 2) != 0) col = N - 1 - col;
+        if ((symmetry & 4) != 0) {
+            int t = row;
+            row = col;
+            col = t;
+        }
+        return row * N + col;
+    }
+
+    /**
+     * Output: long - Zobrist hash of the board after applying the symmetry to every stone.
+     */
+    public static long symmetryKey(Board board, int symmetry) {
+        long key = 0;
+        for (int cell = 0; cell < N * N; cell++) {
+            int stone = board.get(cell / N, cell % N);
+            if (stone == Model.EMPTY) continue;
+            int target = transform(symmetry, cell);
+            key ^= Zobrist.key(target / N, target % N, stone);
+        }
+        return key;
+    }
+
+    /**
+     * Output: int - The symmetry with the smallest key. Book keys and moves are stored in that orientation.
+     */
+    public static int canonicalSymmetry(Board board) {
+        int best = 0;
+        long bestKey = symmetryKey(board, 0);
+        for (int symmetry = 1; symmetry < SYMMETRIES; symmetry++) {
+            long key = symmetryKey(board, symmetry);
+            if (key < bestKey) {
+                bestKey = key;
+                best = symmetry;
+            }
+        }
+        return best;
+    }
+}
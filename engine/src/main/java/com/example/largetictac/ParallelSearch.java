@@ -0,0 +1,216 @@
+package com.example.largetictac;
+
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Multi-core version of the fixed-depth getHeuristicMove (root splitting).
+ *
+ * Every worker thread searches its own Model and pulls the next root move from a shared counter.
+ * The worker Models are created by the first search and brought to each new position stone by stone
+ * (like AsyncEngine does), so a search allocates no boards or tables and every worker's transposition
+ * table still holds what it learned on the previous move. One search runs at a time.
+ * The best score found so far is shared between the workers and used as alpha, so a move that
+ * cannot beat it is refuted quickly instead of being searched exactly.
+ * Alpha is set just below the shared best (Math.nextDown), which keeps the score of every move
+ * that ties or beats it exact. The winner is then picked in the same order as the single-threaded
+ * search (first move with the highest score), so results are identical for any thread count.
+ */
+public class ParallelSearch {
+    private static final double FULL_WINDOW_ALPHA = -100000000.0;
+
+    private final int threads;
+    private final ExecutorService pool;
+    // One Model per worker, created for the first position (and again if the board size or win length changes).
+    private final Model[] workerModels;
+    private long lastNodeCount;
+    private long lastElapsedNanos;
+
+    /**
+     * Input: threads (int) - number of worker threads, at least 1.
+     * Output: A new ParallelSearch with its own thread pool.
+     */
+    public ParallelSearch(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("threads must be >= 1: " + threads);
+        this.threads = threads;
+        this.workerModels = new Model[threads];
+        this.pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "ai-search-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Output: long - Minimax nodes visited by all workers in the last search.
+     */
+    public long getLastNodeCount() {
+        return lastNodeCount;
+    }
+
+    public long getLastElapsedNanos() {
+        return lastElapsedNanos;
+    }
+
+    /**
+     * Input: position - the game (not modified); aiPlayer, humanPlayer - side IDs.
+     * Output: Move - The same move position.getHeuristicMove(aiPlayer, humanPlayer) returns.
+     */
+    public Move getHeuristicMove(Model position, int aiPlayer, int humanPlayer) {
+        return search(position, aiPlayer, 2);
+    }
+
+    /**
+     * Input: position - the game (not modified); aiPlayer (int); depth (int) - plies searched after each root move.
+     * Output: Move - The best root move, with the same tie-breaking as Model.getHeuristicMove.
+     * Logic: 1. Book moves, immediate wins and threat-solver results are checked first, like the single-threaded search.
+     *    These checks place stones and use scratch buffers, so they run on the first worker's Model: the
+     *    position is only read, and other threads may read it too while the search runs.
+     * 2. Workers score the root moves in parallel with a shared alpha.
+     * 3. The first move (in root order) with the highest score wins.
+     */
+    public Move search(Model position, int aiPlayer, int depth) {
+        long start = System.nanoTime();
+        Model root = workerModel(0, position);
+        root.syncPosition(position);
+        root.resetSearchState();
+        Move bookMove = root.getBookMove();
+        if (bookMove != null) {
+            lastNodeCount = 0;
+            lastElapsedNanos = System.nanoTime() - start;
+            return bookMove;
+        }
+        ArrayList<Move> moves = root.getPossibleAdjacentMoves();
+
+        // Fallback for empty board
+        if (moves.isEmpty()) return Move.of(position.getSize() / 2, position.getSize() / 2);
+
+        for (Move move : moves) {
+            if (root.winsImmediately(move, aiPlayer)) {
+                lastNodeCount = 0;
+                lastElapsedNanos = System.nanoTime() - start;
+                return move;
+            }
+        }
+        Move forced = root.findForcedMove(aiPlayer, moves);
+        if (forced != null) {
+            lastNodeCount = 0;
+            lastElapsedNanos = System.nanoTime() - start;
+            return forced;
+        }
+
+        double[] scores = new double[moves.size()];
+        AtomicInteger nextMove = new AtomicInteger();
+        AtomicLong sharedBest = new AtomicLong(Double.doubleToLongBits(FULL_WINDOW_ALPHA));
+        AtomicLong nodes = new AtomicLong();
+
+        ArrayList<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < Math.min(threads, moves.size()); t++) {
+            Model worker = workerModel(t, position);
+            workers.add(pool.submit(() -> {
+                worker.syncPosition(position);
+                worker.resetSearchState();
+                int i;
+                while ((i = nextMove.getAndIncrement()) < moves.size()) {
+                    double best = Double.longBitsToDouble(sharedBest.get());
+                    double alpha = best > FULL_WINDOW_ALPHA ? Math.nextDown(best) : FULL_WINDOW_ALPHA;
+                    scores[i] = worker.scoreRootMove(moves.get(i), aiPlayer, depth, alpha);
+                    raise(sharedBest, scores[i]);
+                }
+                nodes.addAndGet(worker.getNodeCount());
+            }));
+        }
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Search interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search worker failed", e.getCause());
+            }
+        }
+
+        // Future.get() makes every worker's writes to scores[] visible here.
+        Move bestMove = null;
+        double bestValue = FULL_WINDOW_ALPHA;
+        for (int i = 0; i < moves.size(); i++) {
+            if (scores[i] > bestValue) {
+                bestValue = scores[i];
+                bestMove = moves.get(i);
+            }
+        }
+        lastNodeCount = nodes.get();
+        lastElapsedNanos = System.nanoTime() - start;
+        return (bestMove != null) ? bestMove : moves.get(0);
+    }
+
+    /**
+     * Input: index (int) - the worker; position - the game about to be searched.
+     * Output: Model - The worker's Model, created now if it has none for this board size and win length yet.
+     * Logic: Runs on the calling thread before the workers start, so each worker only touches its own Model.
+     */
+    private Model workerModel(int index, Model position) {
+        Model model = workerModels[index];
+        if (model == null || model.getSize() != position.getSize() || model.getWinLength() != position.getWinLength()) {
+            model = position.copy();
+            workerModels[index] = model;
+        }
+        return model;
+    }
+
+    /**
+     * Input: None
+     * Output: None
+     * Logic: Stops the worker threads. The ParallelSearch can't be used afterwards.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Input: best - shared best score (as double bits); value - a new score.
+     * Output: None
+     * Logic: Compare-and-set loop that only ever raises the shared best.
+     */
+    private static void raise(AtomicLong best, double value) {
+        long current = best.get();
+        while (value > Double.longBitsToDouble(current)) {
+            if (best.compareAndSet(current, Double.doubleToLongBits(value))) return;
+            current = best.get();
+        }
+    }
+
+    /**
+     * Input: position, aiPlayer, depth - the search to time; maxThreads - highest thread count to try.
+     * Output: String - One line per thread count (1, 2, 4, ... up to maxThreads) with nodes, time,
+     * nodes per second and speedup over 1 thread.
+     * Logic: Runs the same search with every thread count and reports how throughput scales.
+     */
+    public static String scalingReport(Model position, int aiPlayer, int depth, int maxThreads) {
+        StringBuilder report = new StringBuilder();
+        double baseNanos = 0;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            ParallelSearch search = new ParallelSearch(threads);
+            search.search(position, aiPlayer, depth); // Warm-up
+            search.search(position, aiPlayer, depth);
+            search.shutdown();
+            long nanos = Math.max(1, search.getLastElapsedNanos());
+            if (threads == 1) baseNanos = nanos;
+            report.append(String.format(Locale.US, "threads=%d nodes=%d time=%.1fms nps=%.0f speedup=%.2fx%n",
+                    threads, search.getLastNodeCount(), nanos / 1e6,
+                    search.getLastNodeCount() * 1e9 / nanos, baseNanos / nanos));
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.largetictac;
+
+/**
+ * Lookup tables for the 9-cell window around a point on one line.
+ *
+ * A window is the point itself plus 4 cells on each side along one direction, stored with 2 bits
+ * per cell (cell k of the window, k = 0..8, in bits 2k and 2k + 1, the point is k = 4):
+ *   0 = empty, 1 = own stone, 2 = opponent stone, 3 = off the board.
+ * The point itself is always read as an own stone, so the same code describes a stone already on
+ * the board and an empty cell "if I played here".
+ *
+ * One int per window holds everything the AI wants to know about it:
+ *   bits 0-3  threat class (NONE ... FIVE)
+ *   bits 4-7  viable run length, same as Board.getViableStoneCount up to 5 (a longer run may be cut
+ *             off by the window edge, but still reads as 5 or more)
+ *   bits 8+   evaluation score of the point in that direction
+ * The 4^9 entries are built once when the class is loaded.
+ */
+public final class PatternTable {
+    // Threat classes, weakest first, so a bigger number is always a stronger shape.
+    public static final int NONE = 0;        // No room left to ever make five on this line
+    public static final int ONE = 1;         // Room for five, but nothing else
+    public static final int TWO = 2;         // One move away from a three
+    public static final int OPEN_TWO = 3;    // One move away from an open three
+    public static final int THREE = 4;       // One move away from a four
+    public static final int OPEN_THREE = 5;  // One move away from an open four
+    public static final int FOUR = 6;        // One cell completes five
+    public static final int OPEN_FOUR = 7;   // Two or more cells complete five: can't be stopped
+    public static final int FIVE = 8;
+
+    public static final int WINDOW = 9;
+    public static final int CODE_COUNT = 1 << (2 * WINDOW);
+
+    public static final int EMPTY_CELL = 0;
+    public static final int OWN_CELL = 1;
+    public static final int OPPONENT_CELL = 2;
+    public static final int WALL_CELL = 3;
+
+    // Score of a point per class. Same idea as 2^count in evaluateBoardState, but an open three is worth
+    // much more than a closed one, and a four with one end blocked much less than an open four.
+    private static final int[] CLASS_SCORES = {0, 1, 4, 12, 30, 150, 200, 5000, 100000};
+
+    private static final int[] ENTRIES = new int[CODE_COUNT];
+
+    // SPREAD[m] puts bit i of a 9-bit mask at bit 2i, to build codes from bitmasks.
+    private static final int[] SPREAD = new int[1 << WINDOW];
+
+    static {
+        for (int mask = 0; mask < SPREAD.length; mask++) {
+            int spread = 0;
+            for (int i = 0; i < WINDOW; i++) {
+                if ((mask & (1 << i)) != 0) spread |= 1 << (2 * i);
+            }
+            SPREAD[mask] = spread;
+        }
+
+        int[] classes = new int[CODE_COUNT];
+        java.util.Arrays.fill(classes, -1);
+        int[] cells = new int[WINDOW];
+        for (int code = 0; code < CODE_COUNT; code++) {
+            decode(code, cells);
+            int threat = classify(code, classes);
+            int viable = viableCount(cells);
+            ENTRIES[code] = threat | (viable << 4) | (CLASS_SCORES[threat] << 8);
+        }
+    }
+
+    private PatternTable() {
+    }
+
+    /**
+     * Input: code (int) - a window code.
+     * Output: int - The packed entry (threat class, viable count and score) for that window.
+     */
+    public static int lookup(int code) {
+        return ENTRIES[code];
+    }
+
+    public static int threatClass(int code) {
+        return ENTRIES[code] & 15;
+    }
+
+    public static int viableCount(int code) {
+        return (ENTRIES[code] >>> 4) & 15;
+    }
+
+    public static int score(int code) {
+        return ENTRIES[code] >>> 8;
+    }
+
+    /**
+     * Input: own, opponent, wall (int) - 9-bit masks of the window cells, bit k = window cell k.
+     * Output: int - The window code.
+     * Logic: A wall cell is both bits set, so it is or-ed into both halves.
+     */
+    public static int fromMasks(int own, int opponent, int wall) {
+        return SPREAD[own | wall] | (SPREAD[opponent | wall] << 1);
+    }
+
+    /**
+     * Input: code (int) - a window seen from one player.
+     * Output: int - The same window seen from the other player (own and opponent stones swapped).
+     */
+    public static int swapPlayers(int code) {
+        return ((code & 0x15555) << 1) | ((code >>> 1) & 0x15555);
+    }
+
+    // ==================================================================================
+    //                              TABLE BUILDING
+    // ==================================================================================
+
+    private static void decode(int code, int[] cells) {
+        for (int k = 0; k < WINDOW; k++) {
+            cells[k] = (code >>> (2 * k)) & 3;
+        }
+        cells[WINDOW / 2] = OWN_CELL;
+    }
+
+    /**
+     * Input: code - a window; classes - memo of already classified codes (-1 = not yet).
+     * Output: int - The threat class of the centre point.
+     * Logic: FIVE / OPEN_FOUR / FOUR are read off directly (how many empty cells would complete five
+     * through the centre). Smaller shapes are defined by what one more own stone can turn them into,
+     * e.g. a three is OPEN_THREE if some empty cell makes it an OPEN_FOUR.
+     */
+    private static int classify(int code, int[] classes) {
+        code |= OWN_CELL << (2 * (WINDOW / 2));
+        code &= ~(OPPONENT_CELL << (2 * (WINDOW / 2)));
+        if (classes[code] >= 0) return classes[code];
+
+        int[] cells = new int[WINDOW];
+        decode(code, cells);
+        int result;
+        if (hasFive(cells)) {
+            result = FIVE;
+        } else {
+            int fiveCells = 0;
+            for (int k = 0; k < WINDOW; k++) {
+                if (cells[k] != EMPTY_CELL) continue;
+                cells[k] = OWN_CELL;
+                if (hasFive(cells)) fiveCells++;
+                cells[k] = EMPTY_CELL;
+            }
+            if (fiveCells >= 2) {
+                result = OPEN_FOUR;
+            } else if (fiveCells == 1) {
+                result = FOUR;
+            } else {
+                result = NONE;
+                for (int k = 0; k < WINDOW; k++) {
+                    if (cells[k] != EMPTY_CELL) continue;
+                    int next = classify(code | (OWN_CELL << (2 * k)), classes);
+                    int grown;
+                    if (next == OPEN_FOUR) grown = OPEN_THREE;
+                    else if (next == FOUR) grown = THREE;
+                    else if (next == OPEN_THREE) grown = OPEN_TWO;
+                    else if (next == THREE) grown = TWO;
+                    else grown = NONE;
+                    if (grown > result) result = grown;
+                }
+                if (result == NONE && hasRoom(cells)) result = ONE;
+            }
+        }
+        classes[code] = result;
+        return result;
+    }
+
+    // True if 5 own stones in a row pass through the centre.
+    private static boolean hasFive(int[] cells) {
+        for (int start = 0; start <= WINDOW - 5; start++) {
+            boolean five = true;
+            for (int k = start; k < start + 5 && five; k++) {
+                if (cells[k] != OWN_CELL) five = false;
+            }
+            if (five) return true;
+        }
+        return false;
+    }
+
+    // True if some 5 cells through the centre hold no opponent stone and no wall.
+    private static boolean hasRoom(int[] cells) {
+        for (int start = 0; start <= WINDOW - 5; start++) {
+            boolean free = true;
+            for (int k = start; k < start + 5 && free; k++) {
+                if (cells[k] == OPPONENT_CELL || cells[k] == WALL_CELL) free = false;
+            }
+            if (free) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Output: int - The run of own stones through the centre, or 0 if the run plus the empty cells
+     * directly around it is shorter than 5 (same rule as getViableStoneCount). Any run reaching the
+     * window edge already spans 5 cells, so the window is enough to decide.
+     */
+    private static int viableCount(int[] cells) {
+        int centre = WINDOW / 2;
+        int low = centre;
+        while (low > 0 && cells[low - 1] == OWN_CELL) low--;
+        int high = centre;
+        while (high < WINDOW - 1 && cells[high + 1] == OWN_CELL) high++;
+        int stones = high - low + 1;
+
+        int potential = stones;
+        for (int k = low - 1; k >= 0 && cells[k] == EMPTY_CELL; k--) potential++;
+        for (int k = high + 1; k < WINDOW && cells[k] == EMPTY_CELL; k++) potential++;
+        return potential >= 5 ? stones : 0;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.largetictac;
+
+/**
+ * Limits for an anytime (iterative deepening) search.
+ * The search deepens 1, 2, 3... plies and stops as soon as any limit is reached.
+ * A limit of 0 means "no limit", but at least one of timeMillis or maxNodes should be set.
+ */
+public class SearchBudget {
+    public final long timeMillis;
+    public final long maxNodes;
+    public final int maxDepth;
+
+    /**
+     * Input: timeMillis - wall-clock budget per move; maxNodes - node budget per move;
+     * maxDepth - deepest iteration to start (in plies, counting the AI's own move).
+     * Output: A new SearchBudget
+     */
+    public SearchBudget(long timeMillis, long maxNodes, int maxDepth) {
+        if (timeMillis < 0 || maxNodes < 0 || maxDepth < 1) {
+            throw new IllegalArgumentException("Invalid search budget");
+        }
+        this.timeMillis = timeMillis;
+        this.maxNodes = maxNodes;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Input: timeMillis (long)
+     * Output: SearchBudget - Only limited by time (depth is capped at 64 plies).
+     */
+    public static SearchBudget ofTime(long timeMillis) {
+        return new SearchBudget(timeMillis, 0, 64);
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.largetictac;
+
+import java.util.Locale;
+
+/**
+ * What one getHeuristicMove call did: nodes, leaf evaluations, alpha-beta cutoffs, transposition
+ * table hits and the time of every iteration.
+ *
+ * Collection is off by default. Hand a SearchStats to Model.setSearchStats and every search
+ * resets and fills it; the same object is reused, so collecting allocates nothing. With no
+ * SearchStats set, each counter in the search costs one null check.
+ */
+public class SearchStats {
+    private static final int MAX_ITERATIONS = 64;
+
+    long nodes;
+    long leafEvaluations;
+    long betaCutoffs;
+    long firstMoveCutoffs;
+    long ttProbes;
+    long ttHits;
+    long threatSolverNodes;
+    int completedDepth;
+    int selectiveDepth;
+    long elapsedNanos;
+    final long[] iterationNanos = new long[MAX_ITERATIONS];
+    final long[] iterationNodes = new long[MAX_ITERATIONS];
+    int iterations;
+    // How the move was chosen
+    Source source = Source.SEARCH;
+
+    public enum Source {
+        BOOK, THREAT_SOLVER, IMMEDIATE_WIN, SEARCH
+    }
+
+    /**
+     * Input: None
+     * Output: None
+     * Logic: Zeroes every counter. Called by the Model at the start of each search.
+     */
+    public void reset() {
+        nodes = 0;
+        leafEvaluations = 0;
+        betaCutoffs = 0;
+        firstMoveCutoffs = 0;
+        ttProbes = 0;
+        ttHits = 0;
+        threatSolverNodes = 0;
+        completedDepth = 0;
+        selectiveDepth = 0;
+        elapsedNanos = 0;
+        iterations = 0;
+        source = Source.SEARCH;
+    }
+
+    // Called by the Model after each completed iteration.
+    void endIteration(long nanos, long nodesSoFar) {
+        if (iterations == MAX_ITERATIONS) return;
+        iterationNanos[iterations] = nanos;
+        iterationNodes[iterations] = nodesSoFar;
+        iterations++;
+    }
+
+    /**
+     * Output: long - Minimax nodes visited (not counting the threat solver).
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Output: long - Positions scored by the evaluator at depth 0 (transposition table hits excluded).
+     */
+    public long getLeafEvaluations() {
+        return leafEvaluations;
+    }
+
+    /**
+     * Output: long - Nodes where a move was good enough to stop searching the rest (beta <= alpha).
+     */
+    public long getBetaCutoffs() {
+        return betaCutoffs;
+    }
+
+    /**
+     * Output: long - Cutoffs caused by the first move tried, i.e. where move ordering was right.
+     */
+    public long getFirstMoveCutoffs() {
+        return firstMoveCutoffs;
+    }
+
+    /**
+     * Output: double - firstMoveCutoffs / betaCutoffs, 0 without cutoffs. Good ordering is above 0.9.
+     */
+    public double getFirstMoveCutoffRate() {
+        return betaCutoffs == 0 ? 0 : (double) firstMoveCutoffs / betaCutoffs;
+    }
+
+    public long getTtProbes() {
+        return ttProbes;
+    }
+
+    /**
+     * Output: long - Probes that found the position in the transposition table (0 when the table is off).
+     */
+    public long getTtHits() {
+        return ttHits;
+    }
+
+    public long getThreatSolverNodes() {
+        return threatSolverNodes;
+    }
+
+    /**
+     * Output: int - Deepest fully searched iteration, in plies counting the AI's own move.
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Output: int - Deepest ply any node was visited at, including iterations that were cut short.
+     */
+    public int getSelectiveDepth() {
+        return selectiveDepth;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Output: double - Minimax nodes per second over the whole call.
+     */
+    public double getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Output: int - Completed iterations. The fixed-depth search counts as one.
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Input: iteration (int) - 0 for the first completed iteration.
+     * Output: long - Time from the start of the search to the end of that iteration.
+     */
+    public long getIterationNanos(int iteration) {
+        return iterationNanos[iteration];
+    }
+
+    /**
+     * Input: iteration (int) - 0 for the first completed iteration.
+     * Output: long - Nodes visited from the start of the search to the end of that iteration.
+     */
+    public long getIterationNodes(int iteration) {
+        return iterationNodes[iteration];
+    }
+
+    public Source getSource() {
+        return source;
+    }
+
+    /**
+     * Output: String - One log line with every counter, e.g. for per-move telemetry.
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(String.format(Locale.US,
+                "%s depth=%d seldepth=%d nodes=%d nps=%.0f leaves=%d cutoffs=%d first=%.1f%% tt=%d/%d vcf=%d time=%.1fms",
+                source, completedDepth, selectiveDepth, nodes, getNodesPerSecond(), leafEvaluations, betaCutoffs,
+                100 * getFirstMoveCutoffRate(), ttHits, ttProbes, threatSolverNodes, elapsedNanos / 1e6));
+        if (iterations > 0) {
+            text.append(" iterations=[");
+            for (int i = 0; i < iterations; i++) {
+                if (i > 0) text.append(' ');
+                text.append(String.format(Locale.US, "%.1fms", iterationNanos[i] / 1e6));
+            }
+            text.append(']');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.largetictac;
+
+import java.util.Arrays;
+
+/**
+ * Board for large and "infinite" variants: only the stones are stored, in a CellMap, so memory
+ * and the cost of every query depend on the number of stones and never on the board area.
+ *
+ * The board is still square with edges, but can be up to MAX_SIZE x MAX_SIZE cells; start the
+ * game in the middle and the edges are never reached in practice. Walks along a line stop at the
+ * first cell that can't change the answer, so an empty line 30000 cells long is not scanned.
+ */
+public class SparseBoard implements Board {
+    // Largest size whose packed cells (row * size + col) still fit in an int.
+    public static final int MAX_SIZE = 1 << 15;
+
+    private final int size;
+
+    // cell -> index into stones/players
+    private final CellMap index;
+    private int[] stones;
+    private int[] players;
+    private int stoneCount;
+
+    /**
+     * Input: size (int) - rows and columns, 1 to MAX_SIZE.
+     * Output: A new, empty SparseBoard.
+     */
+    public SparseBoard(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_SIZE + ": " + size);
+        }
+        this.size = size;
+        index = new CellMap(256);
+        stones = new int[256];
+        players = new int[256];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int stoneCount() {
+        return stoneCount;
+    }
+
+    @Override
+    public int stoneAt(int i) {
+        return stones[i];
+    }
+
+    @Override
+    public int get(int row, int col) {
+        int i = index.get(row * size + col, -1);
+        return i < 0 ? Model.EMPTY : players[i];
+    }
+
+    /**
+     * Logic: Adding a stone appends it to the list (growing the arrays when full); removing one swaps
+     * the last stone into its place, so both are O(1).
+     */
+    @Override
+    public void set(int row, int col, int value) {
+        int cell = row * size + col;
+        int i = index.get(cell, -1);
+        if (value == Model.EMPTY) {
+            if (i < 0) return;
+            int last = --stoneCount;
+            if (i != last) {
+                stones[i] = stones[last];
+                players[i] = players[last];
+                index.put(stones[i], i);
+            }
+            index.remove(cell);
+        } else if (i >= 0) {
+            players[i] = value;
+        } else {
+            if (stoneCount == stones.length) {
+                stones = Arrays.copyOf(stones, stoneCount * 2);
+                players = Arrays.copyOf(players, stoneCount * 2);
+            }
+            stones[stoneCount] = cell;
+            players[stoneCount] = value;
+            index.put(cell, stoneCount++);
+        }
+    }
+
+    @Override
+    public void clear() {
+        index.clear();
+        stoneCount = 0;
+    }
+
+    @Override
+    public Board copy() {
+        SparseBoard copy = new SparseBoard(size);
+        for (int i = 0; i < stoneCount; i++) {
+            copy.set(stones[i] / size, stones[i] % size, players[i]);
+        }
+        return copy;
+    }
+
+    private boolean inside(int r, int c) {
+        return r >= 0 && r < size && c >= 0 && c < size;
+    }
+
+    @Override
+    public int countConsecutive(int row, int col, int dr, int dc, int player) {
+        int count = 1;
+        for (int r = row + dr, c = col + dc; inside(r, c) && get(r, c) == player; r += dr, c += dc) count++;
+        for (int r = row - dr, c = col - dc; inside(r, c) && get(r, c) == player; r -= dr, c -= dc) count++;
+        return count;
+    }
+
+    /**
+     * Logic: Same answer as ArrayBoard.getViableStoneCount, but the empty cells past the run are only
+     * counted until there is room for winLength, since more room doesn't change the result.
+     */
+    @Override
+    public int getViableStoneCount(int row, int col, int dr, int dc, int player, int winLength) {
+        int r = row + dr;
+        int c = col + dc;
+        int run = 1;
+        while (inside(r, c) && get(r, c) == player) {
+            run++;
+            r += dr;
+            c += dc;
+        }
+        int fR = r, fC = c;
+        r = row - dr;
+        c = col - dc;
+        while (inside(r, c) && get(r, c) == player) {
+            run++;
+            r -= dr;
+            c -= dc;
+        }
+        int potential = run;
+        for (; potential < winLength && inside(fR, fC) && get(fR, fC) == Model.EMPTY; fR += dr, fC += dc) potential++;
+        for (; potential < winLength && inside(r, c) && get(r, c) == Model.EMPTY; r -= dr, c -= dc) potential++;
+        return potential < winLength ? 0 : run;
+    }
+
+    @Override
+    public int getLinePattern(int row, int col, int dr, int dc, int player) {
+        int code = 0;
+        for (int k = 0; k < PatternTable.WINDOW; k++) {
+            int r = row + (k - 4) * dr;
+            int c = col + (k - 4) * dc;
+            int cell;
+            if (!inside(r, c)) {
+                cell = PatternTable.WALL_CELL;
+            } else {
+                int stone = get(r, c);
+                if (stone == Model.EMPTY) {
+                    cell = PatternTable.EMPTY_CELL;
+                } else if (stone == player) {
+                    cell = PatternTable.OWN_CELL;
+                } else {
+                    cell = PatternTable.OPPONENT_CELL;
+                }
+            }
+            code |= cell << (2 * k);
+        }
+        return code;
+    }
+}
@@ -0,0 +1,471 @@
+package com.example.largetictac;
+
+/**
+ * Threat-space search: looks for a forced win made only of threats the opponent has to answer.
+ *
+ * - VCF (victory by continuous fours): every attacking move makes a four, so the defender has
+ *   exactly one reply (block the five). Lines of 10-20 plies are cheap because nothing branches
+ *   on the defender's side.
+ * - VCT (victory by continuous threats), optional: attacking moves may also be open threes
+ *   (a move after which the attacker threatens an open four). The defender may then answer
+ *   anywhere on the threatened line, or with a four of their own.
+ *
+ * Only forcing moves are expanded, which is why this finds wins many plies deeper than the
+ * full-width minimax. Every stone it places is taken back before it returns.
+ *
+ * Threats are five-in-a-row threats, so the solver is only used for games won by five.
+ */
+public class ThreatSolver {
+    public static final int NONE = -1;
+
+    private static final int[][] DIRECTIONS = {{1, 0}, {0, 1}, {1, 1}, {1, -1}};
+    private static final int MAX_PLY = 64;
+
+    private final Board board;
+    private final int n;
+
+    // Preallocated per-ply move lists, so the solver does not allocate while searching.
+    private final int[][] moveBuffers;
+    private final int[][] scoreBuffers;
+    private final int[] fives = new int[16];
+    private final int[] marks;
+    private int markStamp;
+
+    // Stones currently placed by the solver (attacker and defender), and a copy of them
+    // at the moment the last winning line was found.
+    private final int[] path = new int[MAX_PLY + 1];
+    private int pathLength;
+    private final int[] proof = new int[MAX_PLY + 1];
+    private int proofLength;
+
+    // Only cells inside this rectangle can be threats (stones' bounding box plus a margin).
+    private int minRow, maxRow, minCol, maxCol;
+
+    private boolean allowThrees;
+    private int rootMove;
+    private long nodes;
+    private long nodeLimit;
+
+    public ThreatSolver(Board board) {
+        this.board = board;
+        n = board.size();
+        moveBuffers = new int[MAX_PLY][n * n];
+        scoreBuffers = new int[MAX_PLY][n * n];
+        marks = new int[n * n];
+    }
+
+    /**
+     * Input: attacker (int) - the side to move; maxDepth (int) - most attacking moves in the line;
+     * allowThrees (boolean) - VCT if true, VCF only if false; nodeLimit (long) - work limit.
+     * Output: int - The first move of a forced win (packed as row * BOARD_SIZE + col), or NONE.
+     * Logic: If the attacker already has a five available, that cell is returned (first in row order).
+     * Otherwise searches threat sequences depth-first. NONE also means "gave up" when the node limit is hit.
+     */
+    public int findWin(int attacker, int maxDepth, boolean allowThrees, long nodeLimit) {
+        this.allowThrees = allowThrees;
+        this.nodeLimit = nodeLimit;
+        nodes = 0;
+        pathLength = 0;
+        proofLength = 0;
+        if (!computeSearchArea()) return NONE; // Empty board
+
+        // An immediate five, and the opponent's fives, have to be looked for on the whole board once.
+        int win = firstFiveCell(attacker);
+        if (win != NONE) {
+            proof[0] = win;
+            proofLength = 1;
+            return win;
+        }
+        return attackRoot(attacker, maxDepth) ? rootMove : NONE;
+    }
+
+    /**
+     * Output: int - Number of cells in the last winning line found (attacker moves, forced replies
+     * and the final five), for getProofCell.
+     */
+    public int getProofLength() {
+        return proofLength;
+    }
+
+    public int getProofCell(int index) {
+        return proof[index];
+    }
+
+    public long getNodeCount() {
+        return nodes;
+    }
+
+    /**
+     * Input: cell (int) - an empty cell; player (int)
+     * Output: boolean - True if playing there gives the player a four (a five next move).
+     */
+    public boolean makesFour(int cell, int player) {
+        board.set(cell / n, cell % n, player);
+        int count = fiveCellsThrough(cell, player);
+        board.set(cell / n, cell % n, Model.EMPTY);
+        return count > 0;
+    }
+
+    // ==================================================================================
+    //                              SEARCH
+    // ==================================================================================
+
+    /**
+     * Root of the attack: like attack(), but the opponent's existing fives are found with a
+     * full scan (there is no "last move" yet) and the winning first move is reported.
+     */
+    private boolean attackRoot(int attacker, int depth) {
+        int defender = -attacker;
+        int threat = firstFiveCell(defender);
+        if (threat != NONE) {
+            // The defender threatens five: the attacker must block, and may only go on if the block is a threat too.
+            if (countFiveCells(defender) >= 2 || !isThreat(threat, attacker)) return false;
+            rootMove = threat;
+            return tryThreat(attacker, threat, depth, 0);
+        }
+        int count = generateThreats(attacker, 0);
+        for (int i = 0; i < count; i++) {
+            int move = moveBuffers[0][i];
+            if (tryThreat(attacker, move, depth, 0)) {
+                rootMove = move;
+                return true;
+            }
+            if (nodes >= nodeLimit) return false;
+        }
+        return false;
+    }
+
+    /**
+     * Input: attacker; lastDefence - the defender's last stone; depth - attacking moves left; ply.
+     * Output: boolean - True if the attacker has a forced win from here.
+     */
+    private boolean attack(int attacker, int lastDefence, int depth, int ply) {
+        if (++nodes >= nodeLimit || ply >= MAX_PLY - 2) return false;
+        int defender = -attacker;
+
+        // Did the defender's reply create a five threat? Only lines through that stone can have one.
+        int threats = fiveCellsThrough(lastDefence, defender);
+        if (threats >= 2) return false;
+        if (threats == 1) {
+            int block = fives[0];
+            if (depth == 0 || !isThreat(block, attacker)) return false;
+            return tryThreat(attacker, block, depth, ply);
+        }
+        if (depth == 0) return false;
+
+        int count = generateThreats(attacker, ply);
+        for (int i = 0; i < count; i++) {
+            if (tryThreat(attacker, moveBuffers[ply][i], depth, ply)) return true;
+            if (nodes >= nodeLimit) return false;
+        }
+        return false;
+    }
+
+    /**
+     * Input: attacker; move - a four or three to play; depth - attacking moves left including this one; ply.
+     * Output: boolean - True if every defence against the threat still loses.
+     */
+    private boolean tryThreat(int attacker, int move, int depth, int ply) {
+        int defender = -attacker;
+        push(move, attacker);
+        boolean wins;
+
+        int gains = fiveCellsThrough(move, attacker);
+        if (gains >= 2) {
+            // Open four or double four: two fives threatened, only one can be blocked.
+            recordProof(fives[0]);
+            wins = true;
+        } else if (gains == 1) {
+            // Four: the only defence is the five cell.
+            int block = fives[0];
+            push(block, defender);
+            wins = attack(attacker, block, depth - 1, ply + 1);
+            pop();
+        } else {
+            // Three: the defender may block anywhere on the threatened lines or counter with a four.
+            int replies = generateThreeDefences(attacker, move, ply + 1);
+            wins = replies > 0;
+            for (int i = 0; i < replies && wins; i++) {
+                int reply = moveBuffers[ply + 1][i];
+                push(reply, defender);
+                wins = attack(attacker, reply, depth - 1, ply + 2);
+                pop();
+            }
+        }
+        pop();
+        return wins;
+    }
+
+    // ==================================================================================
+    //                              MOVE GENERATION
+    // ==================================================================================
+
+    /**
+     * Input: attacker, ply
+     * Output: int - Number of threat moves written to moveBuffers[ply]: fours first, then (VCT only)
+     * threes, each group ordered by how many attacker stones support the move.
+     */
+    private int generateThreats(int attacker, int ply) {
+        int[] moves = moveBuffers[ply];
+        int[] scores = scoreBuffers[ply];
+        int count = 0;
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minCol; c <= maxCol; c++) {
+                if (board.get(r, c) != Model.EMPTY) continue;
+                int support = windowSupport(r, c, attacker);
+                if (support < 2) continue; // Needs at least 2 more own stones in a window to be a three
+
+                int cell = r * n + c;
+                int score;
+                if (support >= 3) {
+                    score = 1000 + support;
+                } else if (allowThrees && makesThreeThreat(cell, attacker)) {
+                    score = support;
+                } else {
+                    continue;
+                }
+
+                // Insertion sort, best first
+                int j = count - 1;
+                while (j >= 0 && scores[j] < score) {
+                    moves[j + 1] = moves[j];
+                    scores[j + 1] = scores[j];
+                    j--;
+                }
+                moves[j + 1] = cell;
+                scores[j + 1] = score;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Input: attacker; threeMove - the three just played; ply - buffer to fill.
+     * Output: int - Number of defender replies written to moveBuffers[ply].
+     * Logic: Every empty cell of a 5-cell window through the three that holds 3 attacker stones and
+     * no defender stone (blocking anywhere else can't stop the open four), plus every defender four.
+     */
+    private int generateThreeDefences(int attacker, int threeMove, int ply) {
+        int[] moves = moveBuffers[ply];
+        int count = 0;
+        nextMark();
+        int row = threeMove / n;
+        int col = threeMove % n;
+        for (int[] dir : DIRECTIONS) {
+            for (int start = -4; start <= 0; start++) {
+                if (!windowInside(row, col, dir, start)) continue;
+                int own = 0;
+                int theirs = 0;
+                for (int k = start; k < start + 5; k++) {
+                    int v = board.get(row + k * dir[0], col + k * dir[1]);
+                    if (v == attacker) own++;
+                    else if (v != Model.EMPTY) theirs++;
+                }
+                if (own < 3 || theirs > 0) continue;
+                for (int k = start; k < start + 5; k++) {
+                    int r = row + k * dir[0];
+                    int c = col + k * dir[1];
+                    if (board.get(r, c) == Model.EMPTY && mark(r * n + c)) moves[count++] = r * n + c;
+                }
+            }
+        }
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minCol; c <= maxCol; c++) {
+                int cell = r * n + c;
+                if (board.get(r, c) == Model.EMPTY && windowSupport(r, c, -attacker) >= 3 && mark(cell)) {
+                    moves[count++] = cell;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Input: cell - an empty cell; player
+     * Output: boolean - True if playing there is a four, or (VCT only) a three.
+     */
+    private boolean isThreat(int cell, int player) {
+        return makesFour(cell, player) || (allowThrees && makesThreeThreat(cell, player));
+    }
+
+    /**
+     * Input: cell - an empty cell; player
+     * Output: boolean - True if, after playing there, the player threatens to make an open four
+     * (a move giving two five cells) on one of the lines through the cell.
+     */
+    private boolean makesThreeThreat(int cell, int player) {
+        int row = cell / n;
+        int col = cell % n;
+        board.set(row, col, player);
+        boolean threat = false;
+        for (int d = 0; d < 4 && !threat; d++) {
+            int[] dir = DIRECTIONS[d];
+            for (int k = -4; k <= 4 && !threat; k++) {
+                int r = row + k * dir[0];
+                int c = col + k * dir[1];
+                if (k == 0 || r < 0 || r >= n || c < 0 || c >= n || board.get(r, c) != Model.EMPTY) continue;
+                board.set(r, c, player);
+                threat = fiveCellsOnLine(r * n + c, dir, player, 0) >= 2;
+                board.set(r, c, Model.EMPTY);
+            }
+        }
+        board.set(row, col, Model.EMPTY);
+        return threat;
+    }
+
+    // ==================================================================================
+    //                              LINE HELPERS
+    // ==================================================================================
+
+    /**
+     * Input: row, col - an empty cell; player
+     * Output: int - The most stones of the player in any 5-cell window through the cell that has no
+     * opponent stone. 4 means the cell makes five, 3 a four (the window's last empty cell becomes
+     * a five cell), 2 possibly a three.
+     */
+    private int windowSupport(int row, int col, int player) {
+        int best = 0;
+        for (int[] dir : DIRECTIONS) {
+            for (int start = -4; start <= 0; start++) {
+                if (!windowInside(row, col, dir, start)) continue;
+                int own = 0;
+                boolean blocked = false;
+                for (int k = start; k < start + 5 && !blocked; k++) {
+                    if (k == 0) continue;
+                    int v = board.get(row + k * dir[0], col + k * dir[1]);
+                    if (v == player) own++;
+                    else if (v != Model.EMPTY) blocked = true;
+                }
+                if (!blocked && own > best) best = own;
+            }
+        }
+        return best;
+    }
+
+    private boolean windowInside(int row, int col, int[] dir, int start) {
+        int r0 = row + start * dir[0];
+        int c0 = col + start * dir[1];
+        int r1 = row + (start + 4) * dir[0];
+        int c1 = col + (start + 4) * dir[1];
+        return r0 >= 0 && r0 < n && r1 >= 0 && r1 < n && c0 >= 0 && c0 < n && c1 >= 0 && c1 < n;
+    }
+
+    /**
+     * Input: cell - an occupied cell; player
+     * Output: int - Number of distinct empty cells on the 4 lines through the cell where the player
+     * would complete five. The cells are stored in fives[].
+     */
+    private int fiveCellsThrough(int cell, int player) {
+        int count = 0;
+        for (int[] dir : DIRECTIONS) {
+            count = fiveCellsOnLine(cell, dir, player, count);
+        }
+        return count;
+    }
+
+    /**
+     * Input: cell, dir, player; count - how many entries of fives[] are already used.
+     * Output: int - The new count after adding the five cells within 4 steps of the cell on this line.
+     */
+    private int fiveCellsOnLine(int cell, int[] dir, int player, int count) {
+        int row = cell / n;
+        int col = cell % n;
+        for (int k = -4; k <= 4; k++) {
+            int r = row + k * dir[0];
+            int c = col + k * dir[1];
+            if (k == 0 || r < 0 || r >= n || c < 0 || c >= n || board.get(r, c) != Model.EMPTY) continue;
+            if (board.countConsecutive(r, c, dir[0], dir[1], player) < 5) continue;
+            int five = r * n + c;
+            boolean seen = false;
+            for (int i = 0; i < count; i++) {
+                if (fives[i] == five) seen = true;
+            }
+            if (!seen && count < fives.length) fives[count++] = five;
+        }
+        return count;
+    }
+
+    /**
+     * Output: int - The first empty cell in row order where the player completes five, or NONE.
+     */
+    private int firstFiveCell(int player) {
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minCol; c <= maxCol; c++) {
+                if (board.get(r, c) == Model.EMPTY && completesFive(r, c, player)) return r * n + c;
+            }
+        }
+        return NONE;
+    }
+
+    private int countFiveCells(int player) {
+        int count = 0;
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minCol; c <= maxCol; c++) {
+                if (board.get(r, c) == Model.EMPTY && completesFive(r, c, player)) count++;
+            }
+        }
+        return count;
+    }
+
+    private boolean completesFive(int row, int col, int player) {
+        for (int[] dir : DIRECTIONS) {
+            if (board.countConsecutive(row, col, dir[0], dir[1], player) >= 5) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Output: boolean - False if the board is empty.
+     * Logic: Bounding box of all stones, grown by 4 cells (the reach of a 5-cell window).
+     */
+    private boolean computeSearchArea() {
+        minRow = n;
+        minCol = n;
+        maxRow = -1;
+        maxCol = -1;
+        for (int i = 0; i < board.stoneCount(); i++) {
+            int r = board.stoneAt(i) / n;
+            int c = board.stoneAt(i) % n;
+            minRow = Math.min(minRow, r);
+            maxRow = Math.max(maxRow, r);
+            minCol = Math.min(minCol, c);
+            maxCol = Math.max(maxCol, c);
+        }
+        if (maxRow < 0) return false;
+        minRow = Math.max(0, minRow - 4);
+        minCol = Math.max(0, minCol - 4);
+        maxRow = Math.min(n - 1, maxRow + 4);
+        maxCol = Math.min(n - 1, maxCol + 4);
+        return true;
+    }
+
+    private void push(int cell, int player) {
+        board.set(cell / n, cell % n, player);
+        path[pathLength++] = cell;
+    }
+
+    private void pop() {
+        int cell = path[--pathLength];
+        board.set(cell / n, cell % n, Model.EMPTY);
+    }
+
+    private void recordProof(int fiveCell) {
+        System.arraycopy(path, 0, proof, 0, pathLength);
+        proof[pathLength] = fiveCell;
+        proofLength = pathLength + 1;
+    }
+
+    private void nextMark() {
+        markStamp++;
+    }
+
+    /**
+     * Output: boolean - True the first time a cell is marked since the last nextMark().
+     */
+    private boolean mark(int cell) {
+        if (marks[cell] == markStamp) return false;
+        marks[cell] = markStamp;
+        return true;
+    }
+}
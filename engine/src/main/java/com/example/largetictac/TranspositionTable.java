@@ -0,0 +1,170 @@
+package com.example.largetictac;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size hash table of already searched positions.
+ * All entries live in parallel primitive arrays that are allocated once, so the memory
+ * used by the table never grows, no matter how long the game goes.
+ *
+ * The table is kept for a whole game. Every search starts a new generation (newSearch), and
+ * entries written by older searches are the first to be replaced, since they mostly belong to
+ * positions the game has already moved past.
+ */
+public class TranspositionTable {
+    public static final int BOUND_EXACT = 0;
+    public static final int BOUND_LOWER = 1; // The real score is >= the stored score (beta cutoff)
+    public static final int BOUND_UPPER = 2; // The real score is <= the stored score (no move beat alpha)
+
+    public static final int NO_MOVE = -1;
+
+    // Memory of one entry: key, score, depth, bound, best move, generation.
+    public static final int BYTES_PER_ENTRY = 8 + 8 + 4 + 1 + 4 + 1;
+    // Generation 0 marks an empty slot.
+    private static final int EMPTY_GENERATION = 0;
+
+    public enum ReplacementPolicy {
+        // The newest result always wins the slot.
+        ALWAYS_REPLACE,
+        // A slot is only overwritten by an equal or deeper search, or, for a different position,
+        // when it was written by an earlier search.
+        DEPTH_PREFERRED
+    }
+
+    private final long[] keys;
+    private final double[] scores;
+    private final int[] depths;
+    private final byte[] bounds;
+    private final int[] bestMoves;
+    // Generation of the search that wrote the slot (EMPTY_GENERATION = empty), cycling through 1..127.
+    private final byte[] generations;
+    private byte generation = 1;
+    private final int mask;
+    private ReplacementPolicy policy;
+
+    /**
+     * Input: sizeBits (int) - the table holds 2^sizeBits entries; policy - how to handle collisions.
+     * Output: A new, empty TranspositionTable.
+     * Logic: Allocates every array up front. Index of a key is its low bits, so the size must be a power of 2.
+     */
+    public TranspositionTable(int sizeBits, ReplacementPolicy policy) {
+        if (sizeBits < 1 || sizeBits > 26) {
+            throw new IllegalArgumentException("sizeBits must be between 1 and 26: " + sizeBits);
+        }
+        int size = 1 << sizeBits;
+        keys = new long[size];
+        scores = new double[size];
+        depths = new int[size];
+        bounds = new byte[size];
+        bestMoves = new int[size];
+        generations = new byte[size];
+        mask = size - 1;
+        this.policy = policy;
+    }
+
+    /**
+     * Input: maxBytes (long) - memory the table may use; policy - how to handle collisions.
+     * Output: TranspositionTable - The largest table (a power of 2 entries, at least 2) that fits in maxBytes.
+     */
+    public static TranspositionTable withMaxBytes(long maxBytes, ReplacementPolicy policy) {
+        int sizeBits = 1;
+        while (sizeBits < 26 && (BYTES_PER_ENTRY << (sizeBits + 1)) <= maxBytes) sizeBits++;
+        return new TranspositionTable(sizeBits, policy);
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Output: long - Bytes held by the entry arrays.
+     */
+    public long memoryBytes() {
+        return (long) capacity() * BYTES_PER_ENTRY;
+    }
+
+    public ReplacementPolicy getPolicy() {
+        return policy;
+    }
+
+    public void setPolicy(ReplacementPolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * Input: key (long) - Zobrist key of the position.
+     * Output: int - The slot holding this position, or -1 if it is not stored.
+     * Logic: Looks at the single slot the key maps to and compares the full 64-bit key.
+     */
+    public int probe(long key) {
+        int slot = (int) key & mask;
+        if (generations[slot] != EMPTY_GENERATION && keys[slot] == key) return slot;
+        return -1;
+    }
+
+    public double getScore(int slot) {
+        return scores[slot];
+    }
+
+    public int getDepth(int slot) {
+        return depths[slot];
+    }
+
+    public int getBound(int slot) {
+        return bounds[slot];
+    }
+
+    /**
+     * Output: int - The best move packed as row * BOARD_SIZE + col, or NO_MOVE.
+     */
+    public int getBestMove(int slot) {
+        return bestMoves[slot];
+    }
+
+    /**
+     * Input: key, depth, score, bound, bestMove - the result of searching one position.
+     * Output: None
+     * Logic: Writes the result into the slot of the key, unless the replacement policy says the entry
+     * already there is more valuable: a deeper result for the same position (left by an earlier search;
+     * within one search depths only grow), or a deeper one for another position from this search.
+     */
+    public void store(long key, int depth, double score, int bound, int bestMove) {
+        int slot = (int) key & mask;
+        if (policy == ReplacementPolicy.DEPTH_PREFERRED && generations[slot] != EMPTY_GENERATION
+                && depths[slot] > depth && (keys[slot] == key || generations[slot] == generation)) {
+            return;
+        }
+        keys[slot] = key;
+        depths[slot] = depth;
+        scores[slot] = score;
+        bounds[slot] = (byte) bound;
+        bestMoves[slot] = bestMove;
+        generations[slot] = generation;
+    }
+
+    /**
+     * Input: None
+     * Output: None
+     * Logic: Called at the start of every search. Entries stay readable, but from now on any entry of an
+     * earlier search gives way to a new one. After 127 searches the numbering wraps around, and entries
+     * that old are re-marked as belonging to the previous generation, so none of them looks current.
+     */
+    public void newSearch() {
+        generation = (byte) (generation == 127 ? 1 : generation + 1);
+        if (generation == 1) {
+            for (int slot = 0; slot < generations.length; slot++) {
+                if (generations[slot] != EMPTY_GENERATION) generations[slot] = 127;
+            }
+        }
+    }
+
+    /**
+     * Input: None
+     * Output: None
+     * Logic: Marks every slot as empty. The arrays themselves are kept.
+     */
+    public void clear() {
+        Arrays.fill(generations, (byte) EMPTY_GENERATION);
+        generation = 1;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.largetictac;
+
+import java.util.Random;
+
+public final class Zobrist {
+    private static final long SEED = 0x5EED_C0DE_2024L;
+
+    // One random key per (cell, player). Index 0 is PLAYER_X, index 1 is PLAYER_O.
+    private static final long[][] PIECE_KEYS = new long[Model.BOARD_SIZE * Model.BOARD_SIZE][2];
+
+    // Mixed into search keys so the same stones with a different side to move hash differently.
+    public static final long MAXIMIZING_KEY;
+
+    // Mixed into search keys so scores stored for an AI playing X never answer a search for O.
+    public static final long AI_IS_X_KEY;
+
+    static {
+        Random random = new Random(SEED);
+        for (long[] cell : PIECE_KEYS) {
+            cell[0] = random.nextLong();
+            cell[1] = random.nextLong();
+        }
+        MAXIMIZING_KEY = random.nextLong();
+        AI_IS_X_KEY = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Input: row, col (int) - cell coordinates; player (int) - PLAYER_X or PLAYER_O.
+     * Output: long - The random key for that stone.
+     * Logic: XOR-ing this key into a hash adds the stone; XOR-ing it again removes it.
+     * The keys come from a fixed seed so the same position always has the same hash.
+     * Cells outside the 15x15 table (larger boards) get a key mixed from their coordinates instead,
+     * so the keys of big boards need no memory.
+     */
+    public static long key(int row, int col, int player) {
+        if (row < Model.BOARD_SIZE && col < Model.BOARD_SIZE) {
+            return PIECE_KEYS[row * Model.BOARD_SIZE + col][player == Model.PLAYER_X ? 0 : 1];
+        }
+        return mix(SEED + ((long) row << 32) + ((long) col << 1) + (player == Model.PLAYER_X ? 0 : 1));
+    }
+
+    // SplitMix64 finalizer: spreads every input bit over the whole 64-bit result.
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
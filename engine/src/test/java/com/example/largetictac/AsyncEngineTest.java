@@ -0,0 +1,131 @@
+package com.example.largetictac;
+
+import org.junit.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Cancelled and replaced requests must never deliver their move, and callbacks run on the callback executor.
+ */
+public class AsyncEngineTest {
+    private static final SearchBudget QUICK = new SearchBudget(0, 0, 2);
+    // Never runs out on its own in these tests, only cancel() or a new request end it.
+    private static final SearchBudget ENDLESS = SearchBudget.ofTime(60000);
+
+    @Test
+    public void cancel_dropsTheMoveOfTheRunningSearch() throws Exception {
+        AsyncEngine engine = new AsyncEngine(Runnable::run);
+        Recorder stale = new Recorder();
+        engine.requestMove(position(), Model.PLAYER_X, Model.PLAYER_O, ENDLESS, stale);
+        assertTrue(stale.progressed.await(20, TimeUnit.SECONDS));
+        engine.cancel();
+
+        // The search thread is free again and the cancelled search never reports its move.
+        Recorder fresh = new Recorder();
+        engine.requestMove(position(), Model.PLAYER_X, Model.PLAYER_O, QUICK, fresh);
+        assertNotNull(fresh.moves.poll(20, TimeUnit.SECONDS));
+        assertTrue(stale.moves.isEmpty());
+        engine.shutdown();
+    }
+
+    @Test
+    public void cancel_afterTheLastIteration_stillDropsTheMove() throws Exception {
+        AsyncEngine engine = new AsyncEngine(Runnable::run);
+        // Cancelled from the last progress report: the search finishes normally, its result is stale.
+        Recorder stale = new Recorder() {
+            @Override
+            public void onProgress(int depth, Move bestMoveSoFar) {
+                super.onProgress(depth, bestMoveSoFar);
+                if (depth == QUICK.maxDepth) engine.cancel();
+            }
+        };
+        engine.requestMove(position(), Model.PLAYER_X, Model.PLAYER_O, QUICK, stale);
+        assertTrue(stale.progressed.await(20, TimeUnit.SECONDS));
+
+        Recorder fresh = new Recorder();
+        engine.requestMove(position(), Model.PLAYER_X, Model.PLAYER_O, QUICK, fresh);
+        assertNotNull(fresh.moves.poll(20, TimeUnit.SECONDS));
+        assertTrue(stale.moves.isEmpty());
+        engine.shutdown();
+    }
+
+    @Test
+    public void replacingRequest_dropsTheOldCallbacks() throws Exception {
+        // Callbacks wait in a queue until the test runs them, so stale ones are run after their request was replaced.
+        BlockingQueue<Runnable> callbacks = new LinkedBlockingQueue<>();
+        AsyncEngine engine = new AsyncEngine(callbacks::add);
+        Recorder replaced = new Recorder();
+        engine.requestMove(position(), Model.PLAYER_X, Model.PLAYER_O, ENDLESS, replaced);
+        Runnable staleProgress = callbacks.poll(20, TimeUnit.SECONDS);
+        assertNotNull(staleProgress);
+
+        Recorder current = new Recorder();
+        engine.requestMove(position(), Model.PLAYER_X, Model.PLAYER_O, QUICK, current);
+        staleProgress.run();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while (current.moves.isEmpty() && System.nanoTime() < deadline) {
+            Runnable callback = callbacks.poll(100, TimeUnit.MILLISECONDS);
+            if (callback != null) callback.run();
+        }
+        assertEquals(1, current.moves.size());
+        assertTrue(current.progressCount > 0);
+        assertEquals(0, replaced.progressCount);
+        assertTrue(replaced.moves.isEmpty());
+        engine.shutdown();
+    }
+
+    @Test
+    public void callbacks_runOnTheCallbackExecutor() throws Exception {
+        ExecutorService main = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "callbacks"));
+        AsyncEngine engine = new AsyncEngine(main);
+        StringBuilder threads = new StringBuilder();
+        Recorder recorder = new Recorder() {
+            @Override
+            public void onProgress(int depth, Move bestMoveSoFar) {
+                super.onProgress(depth, bestMoveSoFar);
+                threads.append(Thread.currentThread().getName()).append(' ');
+            }
+
+            @Override
+            public void onMoveChosen(Move move) {
+                threads.append(Thread.currentThread().getName());
+                super.onMoveChosen(move);
+            }
+        };
+        engine.requestMove(position(), Model.PLAYER_X, Model.PLAYER_O, QUICK, recorder);
+        assertNotNull(recorder.moves.poll(20, TimeUnit.SECONDS));
+        assertEquals(QUICK.maxDepth, recorder.progressCount);
+        assertEquals("callbacks callbacks callbacks", threads.toString());
+        engine.shutdown();
+        main.shutdown();
+    }
+
+    private static class Recorder implements AsyncEngine.Callback {
+        final BlockingQueue<Move> moves = new LinkedBlockingQueue<>();
+        final CountDownLatch progressed = new CountDownLatch(1);
+        volatile int progressCount;
+
+        @Override
+        public void onProgress(int depth, Move bestMoveSoFar) {
+            progressCount++;
+            progressed.countDown();
+        }
+
+        @Override
+        public void onMoveChosen(Move move) {
+            moves.add(move);
+        }
+    }
+
+    // Two stones each near the centre, X to move: no forced line, so the engine has to search.
+    private static Model position() {
+        return TestPositions.play(new int[][]{{7, 7}, {8, 8}, {7, 8}, {6, 6}});
+    }
+}
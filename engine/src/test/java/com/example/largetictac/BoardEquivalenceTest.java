@@ -0,0 +1,88 @@
+package com.example.largetictac;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * ArrayBoard, BitBoard and SparseBoard must be interchangeable: fills them with the same random
+ * stones and compares every query on every cell, direction and player.
+ */
+public class BoardEquivalenceTest {
+    private static final int[][] DIRECTIONS = {{1, 0}, {0, 1}, {1, 1}, {1, -1}, {-1, 0}, {0, -1}, {-1, -1}, {-1, 1}};
+
+    @Test
+    public void randomBoards_giveIdenticalAnswers() {
+        Random random = new Random(1234);
+        for (int game = 0; game < 200; game++) {
+            Board array = new ArrayBoard();
+            Board bits = new BitBoard();
+            Board sparse = new SparseBoard(15);
+            int stones = random.nextInt(150);
+            for (int k = 0; k < stones; k++) {
+                int row = random.nextInt(15);
+                int col = random.nextInt(15);
+                int value = random.nextInt(3) - 1; // EMPTY also happens, which removes stones
+                array.set(row, col, value);
+                bits.set(row, col, value);
+                sparse.set(row, col, value);
+            }
+            assertSameBoards(array, bits);
+            assertSameBoards(array, sparse);
+        }
+    }
+
+    @Test
+    public void modelsWithEitherBackend_pickTheSameMove() {
+        Random random = new Random(99);
+        for (int game = 0; game < 5; game++) {
+            Model arrayModel = new Model(new ArrayBoard());
+            Model bitModel = new Model(new BitBoard());
+            for (int k = 0; k < 10; k++) {
+                int row = 5 + random.nextInt(5);
+                int col = 5 + random.nextInt(5);
+                if (!arrayModel.makeMove(row, col)) continue;
+                bitModel.makeMove(row, col);
+                arrayModel.changePlayer();
+                bitModel.changePlayer();
+            }
+            int ai = arrayModel.getCurrentPlayer();
+            Move expected = arrayModel.getHeuristicMove(ai, -ai);
+            Move actual = bitModel.getHeuristicMove(ai, -ai);
+            assertEquals(expected.row, actual.row);
+            assertEquals(expected.col, actual.col);
+        }
+    }
+
+    private void assertSameBoards(Board array, Board bits) {
+        assertEquals(array.stoneCount(), bits.stoneCount());
+        for (int i = 0; i < bits.stoneCount(); i++) {
+            int cell = bits.stoneAt(i);
+            assertNotEquals(Model.EMPTY, array.get(cell / 15, cell % 15));
+        }
+        for (int row = 0; row < 15; row++) {
+            for (int col = 0; col < 15; col++) {
+                assertEquals(array.get(row, col), bits.get(row, col));
+                for (int[] dir : DIRECTIONS) {
+                    for (int player = -1; player <= 1; player += 2) {
+                        String where = row + "," + col + " dir " + dir[0] + "," + dir[1] + " player " + player;
+                        assertEquals(where, array.countConsecutive(row, col, dir[0], dir[1], player),
+                                bits.countConsecutive(row, col, dir[0], dir[1], player));
+                        assertEquals(where, array.getViableStoneCount(row, col, dir[0], dir[1], player),
+                                bits.getViableStoneCount(row, col, dir[0], dir[1], player));
+                    }
+                }
+                // Pattern windows are only defined for the 4 forward directions.
+                for (int d = 0; d < 4; d++) {
+                    int[] dir = DIRECTIONS[d];
+                    for (int player = -1; player <= 1; player += 2) {
+                        assertEquals(row + "," + col + " pattern " + d, array.getLinePattern(row, col, dir[0], dir[1], player),
+                                bits.getLinePattern(row, col, dir[0], dir[1], player));
+                    }
+                }
+            }
+        }
+    }
+}
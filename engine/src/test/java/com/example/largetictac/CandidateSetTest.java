@@ -0,0 +1,75 @@
+package com.example.largetictac;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * The frontier kept by CandidateSet must be exactly the cells next to a stone after any make/undo
+ * sequence, and ordered move generation must try wins and blocks of wins first.
+ */
+public class CandidateSetTest {
+
+    @Test
+    public void makeAndUndo_restoreTheExactSet() {
+        for (int size : new int[]{Model.BOARD_SIZE, 80}) {
+            Random random = new Random(size);
+            Model model = new Model(size <= Model.BOARD_SIZE ? new ArrayBoard() : new SparseBoard(size));
+            ArrayList<Integer> played = new ArrayList<>();
+            ArrayList<HashSet<Integer>> before = new ArrayList<>();
+            int player = Model.PLAYER_X;
+            for (int step = 0; step < 400; step++) {
+                if (!played.isEmpty() && random.nextInt(10) < 4) {
+                    model.takeBackStone(played.remove(played.size() - 1));
+                    assertEquals("size " + size + " step " + step, before.remove(before.size() - 1), frontier(model));
+                    player = -player;
+                } else {
+                    int row = size / 2 - 5 + random.nextInt(11);
+                    int col = size / 2 - 5 + random.nextInt(11);
+                    if (!model.isLegal(row, col)) continue;
+                    before.add(frontier(model));
+                    model.playStone(row * size + col, player);
+                    played.add(row * size + col);
+                    player = -player;
+                }
+                // An empty board has no frontier (getPossibleAdjacentMoves then offers every cell).
+                if (!played.isEmpty()) {
+                    assertEquals("size " + size + " step " + step, adjacentCells(model), frontier(model));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void orderedMoves_putTheWinFirst() {
+        // X: four on row 7 (cols 3-6), closed on the left by O. O: two on row 9.
+        Model model = TestPositions.play(new int[][]{{7, 3}, {7, 2}, {7, 4}, {9, 4}, {7, 5}, {9, 5}, {7, 6}});
+        assertEquals(new Move(7, 7), model.getOrderedMoves(Model.PLAYER_X).get(0));
+    }
+
+    @Test
+    public void orderedMoves_putTheBlockFirst() {
+        // O has four on column 4 (rows 3-6), closed at the top by X; X has nothing to win with.
+        Model model = TestPositions.play(new int[][]{{2, 4}, {3, 4}, {10, 10}, {4, 4}, {10, 12}, {5, 4}, {12, 8}, {6, 4}});
+        assertEquals(new Move(7, 4), model.getOrderedMoves(Model.PLAYER_X).get(0));
+    }
+
+    private static HashSet<Integer> frontier(Model model) {
+        HashSet<Integer> cells = new HashSet<>();
+        for (int i = 0; i < model.getFrontierSize(); i++) {
+            assertTrue("frontier cell listed twice", cells.add(model.getFrontierCell(i)));
+        }
+        return cells;
+    }
+
+    // The cells getPossibleAdjacentMoves would scan for: empty, with a stone among the 8 neighbours.
+    private static HashSet<Integer> adjacentCells(Model model) {
+        HashSet<Integer> cells = new HashSet<>();
+        for (Move move : model.getPossibleAdjacentMoves()) cells.add(move.row * model.getSize() + move.col);
+        return cells;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.largetictac;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Differential fuzzing against ReferenceModel, the frozen original Model: plays random and self-play
+ * games on every Board backend and engine variant, and after every move compares win detection,
+ * isLineOfLength and evaluateBoardState, and every few hundred moves the fixed-depth getHeuristicMove.
+ *
+ * The variants use the classic 2^count scores, no threat solver and no book, which is the original
+ * engine's behaviour; everything else (tables, incremental evaluation, move ordering) may only make
+ * it faster. A normal build checks a few thousand positions. For a long run:
+ *   ./gradlew :engine:test --tests '*DifferentialFuzzTest' -PfuzzPositions=1000000 [-PfuzzSeed=N]
+ * A failure names the seed, the game and its moves, so it can be replayed.
+ */
+public class DifferentialFuzzTest {
+    private static final int N = Model.BOARD_SIZE;
+    private static final int POSITIONS = Integer.getInteger("fuzz.positions", 4000);
+    private static final long SEED = Long.getLong("fuzz.seed", 20240601L);
+    // The fixed-depth search costs up to a second on scattered random stones (every cell next to a stone
+    // is a candidate), the other checks microseconds.
+    private static final int RANDOM_SEARCH_EVERY = 1000;
+    private static final int SELF_PLAY_SEARCH_EVERY = 200;
+    private static final long TABLE_BYTES = 256 << 10;
+
+    @Test
+    public void randomPositions_matchTheReference() {
+        run(new Random(SEED), false);
+    }
+
+    @Test
+    public void selfPlayPositions_matchTheReference() {
+        run(new Random(SEED + 1), true);
+    }
+
+    private void run(Random random, boolean selfPlay) {
+        ReferenceModel reference = new ReferenceModel();
+        Model[] variants = variants();
+        String[] names = {"ArrayBoard", "BitBoard", "SparseBoard", "plain (no table, full scans, no ordering heuristics)"};
+        int positions = 0;
+        for (int game = 0; positions < POSITIONS; game++) {
+            reference.resetGame();
+            for (Model variant : variants) variant.resetGame();
+            ArrayList<Move> moves = new ArrayList<>();
+            int stoneLimit = 5 + random.nextInt(selfPlay ? 120 : 60);
+
+            while (moves.size() < stoneLimit && positions < POSITIONS) {
+                Move move;
+                if (!selfPlay) {
+                    move = randomMove(reference, random);
+                } else if (moves.isEmpty()) {
+                    move = new Move(N / 2, N / 2);
+                } else {
+                    move = selfPlayMove(variants[0], random);
+                }
+                if (move == null) break;
+                reference.makeMove(move.row, move.col);
+                for (Model variant : variants) variant.makeMove(move.row, move.col);
+                moves.add(move);
+                positions++;
+
+                String where = "seed " + SEED + (selfPlay ? " self-play" : " random") + " game " + game
+                        + " moves " + moves;
+                int winner = reference.checkWin(move.row, move.col);
+                // Any cell, empty ones included
+                Move probe = new Move(random.nextInt(N), random.nextInt(N));
+                boolean search = positions % (selfPlay ? SELF_PLAY_SEARCH_EVERY : RANDOM_SEARCH_EVERY) == 0
+                        && winner == Model.EMPTY;
+                for (int v = 0; v < variants.length; v++) {
+                    compare(reference, variants[v], move, probe, search, where + " [" + names[v] + "]");
+                }
+                if (winner != Model.EMPTY || reference.isTie()) break;
+                reference.changePlayer();
+                for (Model variant : variants) variant.changePlayer();
+            }
+        }
+    }
+
+    private static void compare(ReferenceModel reference, Model variant, Move move, Move probe, boolean search,
+                                String where) {
+        assertEquals(where, reference.checkWin(move.row, move.col), variant.checkWin(move.row, move.col));
+        int row = probe.row;
+        int col = probe.col;
+        assertEquals(where, reference.checkWin(row, col), variant.checkWin(row, col));
+        for (int length = 1; length <= 6; length++) {
+            assertEquals(where + " length " + length, reference.isLineOfLength(move.row, move.col, length),
+                    variant.isLineOfLength(move.row, move.col, length));
+            assertEquals(where + " length " + length, reference.isLineOfLength(row, col, length),
+                    variant.isLineOfLength(row, col, length));
+        }
+        assertEquals(where, reference.isLegal(row, col), variant.isLegal(row, col));
+        assertEquals(where, reference.evaluateBoardState(Model.PLAYER_X), variant.evaluateBoardState(Model.PLAYER_X), 0.0);
+        assertEquals(where, reference.evaluateBoardState(Model.PLAYER_O), variant.evaluateBoardState(Model.PLAYER_O), 0.0);
+
+        if (search) {
+            // The side to move after this one
+            int ai = -reference.getCurrentPlayer();
+            Move expected = reference.getHeuristicMove(ai, -ai);
+            Move actual = variant.getHeuristicMove(ai, -ai);
+            assertEquals(where + " search", expected.row, actual.row);
+            assertEquals(where + " search", expected.col, actual.col);
+        }
+    }
+
+    private static Model[] variants() {
+        Model plain = newModel(new ArrayBoard());
+        plain.setTranspositionTableEnabled(false);
+        plain.setIncrementalEvaluationEnabled(false);
+        plain.setMoveOrderingHeuristicsEnabled(false);
+        return new Model[]{newModel(new ArrayBoard()), newModel(new BitBoard()), newModel(new SparseBoard(N)), plain};
+    }
+
+    private static Model newModel(Board board) {
+        Model model = new Model(board, TranspositionTable.withMaxBytes(TABLE_BYTES,
+                TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED));
+        model.setPatternEvaluationEnabled(false);
+        model.setThreatSolverEnabled(false);
+        return model;
+    }
+
+    // A random empty cell: mostly near the centre, where games are played, sometimes anywhere.
+    private static Move randomMove(ReferenceModel reference, Random random) {
+        for (int tries = 0; tries < 1000; tries++) {
+            boolean anywhere = random.nextInt(8) == 0;
+            int row = anywhere ? random.nextInt(N) : N / 2 - 4 + random.nextInt(9);
+            int col = anywhere ? random.nextInt(N) : N / 2 - 4 + random.nextInt(9);
+            if (reference.isLegal(row, col)) return new Move(row, col);
+        }
+        return null;
+    }
+
+    // One of the few best moves by the engine's own move ordering, so games look like real ones.
+    private static Move selfPlayMove(Model model, Random random) {
+        ArrayList<Move> ordered = model.getOrderedMoves(model.getCurrentPlayer());
+        if (ordered.isEmpty()) return null;
+        return ordered.get(random.nextInt(Math.min(3, ordered.size())));
+    }
+}
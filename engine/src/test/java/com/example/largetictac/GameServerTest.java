@@ -0,0 +1,123 @@
+package com.example.largetictac;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * GameServer: many games on a few workers, rule checks, deadlines and the compact game state.
+ */
+public class GameServerTest {
+    private static final SearchBudget BUDGET = new SearchBudget(0, 2000, 64);
+
+    private GameServer server;
+
+    @After
+    public void tearDown() {
+        if (server != null) server.shutdown();
+    }
+
+    @Test
+    public void humanMove_isAnsweredAndKept() throws Exception {
+        server = new GameServer(1, Model::new, BUDGET, 10000);
+        int game = server.newGame(Model.PLAYER_O);
+        Move reply = server.play(game, 7, 7).get(10, TimeUnit.SECONDS);
+        int[] moves = server.getMoves(game);
+        assertEquals(2, moves.length);
+        assertEquals(7 * 15 + 7, moves[0]);
+        assertEquals(reply.row * 15 + reply.col, moves[1]);
+        assertEquals(Model.EMPTY, server.getWinner(game));
+    }
+
+    @Test
+    public void manyGames_areAllAnswered() throws Exception {
+        server = new GameServer(2, Model::new, BUDGET, 10000);
+        List<CompletableFuture<Move>> replies = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            int game = server.newGame(Model.PLAYER_O);
+            replies.add(server.play(game, i % 15, (i / 15) % 15));
+        }
+        for (CompletableFuture<Move> reply : replies) assertNotNull(reply.get(30, TimeUnit.SECONDS));
+        assertEquals(300, server.getGameCount());
+        assertEquals(300, server.getAiMoves());
+    }
+
+    @Test
+    public void aiFirst_playsTheCentre() throws Exception {
+        server = new GameServer(1, Model::new, BUDGET, 10000);
+        int game = server.newGame(Model.PLAYER_X);
+        assertEquals(new Move(7, 7), server.requestAiMove(game).get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void movesOutOfTurn_areRejected() throws Exception {
+        server = new GameServer(1, Model::new, BUDGET, 10000);
+        int game = server.newGame(Model.PLAYER_O);
+        CompletableFuture<Move> reply = server.play(game, 7, 7);
+        try {
+            server.play(game, 7, 8);
+            fail("The AI is to move");
+        } catch (IllegalStateException expected) {
+        }
+        reply.get(10, TimeUnit.SECONDS);
+        try {
+            server.play(game, 7, 7);
+            fail("Taken cell");
+        } catch (IllegalArgumentException expected) {
+        }
+        server.endGame(game);
+        try {
+            server.getMoves(game);
+            fail("Ended game");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void passedDeadline_stillGetsAMove() throws Exception {
+        server = new GameServer(1, Model::new, SearchBudget.ofTime(1000), 0);
+        int game = server.newGame(Model.PLAYER_O);
+        Move reply = server.play(game, 7, 7).get(10, TimeUnit.SECONDS);
+        assertNotEquals(new Move(7, 7), reply);
+        assertEquals(1, server.getLateMoves());
+    }
+
+    @Test
+    public void shutdown_cancelsTheRunningSearch() throws Exception {
+        server = new GameServer(1, Model::new, SearchBudget.ofTime(60000), 120000);
+        CompletableFuture<Move> reply = server.play(server.newGame(Model.PLAYER_O), 7, 7);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (server.getQueueLength() > 0 && System.nanoTime() < deadline) Thread.sleep(1);
+        server.shutdown();
+        try {
+            reply.get(10, TimeUnit.SECONDS);
+            fail("The search went on after shutdown");
+        } catch (CancellationException expected) {
+            // The worker stopped the search and dropped its move
+        }
+        assertEquals(0, server.getAiMoves());
+    }
+
+    @Test
+    public void fiveInARow_endsTheGame() {
+        GameSession game = new GameSession(1, Model.PLAYER_O);
+        for (int i = 0; i < 4; i++) {
+            game.play(3 * 15 + 4 + i); // X on row 3
+            game.play(10 * 15 + i);    // O on row 10
+        }
+        assertFalse(game.isOver());
+        game.play(3 * 15 + 8);
+        assertEquals(Model.PLAYER_X, game.getWinner());
+        assertEquals(Model.PLAYER_X, game.get(3 * 15 + 8));
+        assertEquals(Model.PLAYER_O, game.get(10 * 15 + 3));
+        assertEquals(Model.EMPTY, game.get(224));
+        assertEquals(9, game.getMoveCount());
+    }
+}
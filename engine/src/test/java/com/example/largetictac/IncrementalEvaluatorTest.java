@@ -0,0 +1,77 @@
+package com.example.largetictac;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * The incrementally kept score must be exactly evaluateBoardState's full rescan after any sequence
+ * of placed and removed stones, with both scoring schemes.
+ */
+public class IncrementalEvaluatorTest {
+
+    @Test
+    public void countScoring_matchesFullRescan() {
+        for (long seed = 0; seed < 20; seed++) {
+            checkRandomSequence(new Random(seed), Model.BOARD_SIZE, false);
+        }
+    }
+
+    @Test
+    public void patternScoring_matchesFullRescan() {
+        for (long seed = 0; seed < 20; seed++) {
+            checkRandomSequence(new Random(seed), Model.BOARD_SIZE, true);
+        }
+    }
+
+    @Test
+    public void largeBoardLocalUpdates_matchFullRescan() {
+        // Above MAX_LINE_SIZE pattern scores are updated around the changed cell only.
+        int size = IncrementalEvaluator.MAX_LINE_SIZE + 8;
+        for (long seed = 0; seed < 5; seed++) {
+            checkRandomSequence(new Random(seed), size, true);
+        }
+    }
+
+    // Places and takes back random stones (clustered, so lines form) on a Model and on a board followed
+    // by an IncrementalEvaluator, and compares both sides' scores after every change.
+    private static void checkRandomSequence(Random random, int size, boolean patterns) {
+        Model model = new Model(new ArrayBoard(size));
+        model.setPatternEvaluationEnabled(patterns);
+        Board board = new ArrayBoard(size);
+        IncrementalEvaluator evaluator = new IncrementalEvaluator(size, 5);
+        evaluator.setPatternScoring(patterns);
+        evaluator.rebuild(board);
+
+        ArrayList<Integer> played = new ArrayList<>();
+        int player = Model.PLAYER_X;
+        for (int step = 0; step < 300; step++) {
+            if (!played.isEmpty() && random.nextInt(10) < 3) {
+                int cell = played.remove(played.size() - 1);
+                int row = cell / size;
+                int col = cell % size;
+                model.takeBackStone(cell);
+                evaluator.beforeUpdate(board, row, col);
+                board.set(row, col, Model.EMPTY);
+                evaluator.update(board, row, col);
+                player = -player;
+            } else {
+                int row = size / 2 - 4 + random.nextInt(9);
+                int col = size / 2 - 4 + random.nextInt(9);
+                if (!model.isLegal(row, col)) continue;
+                model.playStone(row * size + col, player);
+                evaluator.beforeUpdate(board, row, col);
+                board.set(row, col, player);
+                evaluator.update(board, row, col);
+                played.add(row * size + col);
+                player = -player;
+            }
+            String where = "step " + step + " patterns " + patterns;
+            assertEquals(where, model.evaluateBoardState(Model.PLAYER_X), evaluator.evaluate(Model.PLAYER_X), 0.0);
+            assertEquals(where, model.evaluateBoardState(Model.PLAYER_O), evaluator.evaluate(Model.PLAYER_O), 0.0);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.largetictac;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Boards other than 15x15 and win lengths other than five.
+ */
+public class LargeBoardTest {
+
+    @Test
+    public void hugeSparseBoard_incrementalScoreMatchesFullScan() {
+        Model incremental = clusteredPosition(new SparseBoard(1000), new Random(7));
+        Model fullScan = clusteredPosition(new SparseBoard(1000), new Random(7));
+        fullScan.setIncrementalEvaluationEnabled(false);
+
+        int ai = incremental.getCurrentPlayer();
+        SearchBudget budget = new SearchBudget(0, 0, 3);
+        assertEquals(incremental.getHeuristicMove(ai, -ai, budget), fullScan.getHeuristicMove(ai, -ai, budget));
+        assertEquals(incremental.getNodeCount(), fullScan.getNodeCount());
+    }
+
+    @Test
+    public void sparseAndArrayBoards_pickTheSameMove() {
+        for (long seed = 0; seed < 3; seed++) {
+            Model sparse = clusteredPosition(new SparseBoard(40), new Random(seed));
+            Model array = clusteredPosition(new ArrayBoard(40), new Random(seed));
+            int ai = sparse.getCurrentPlayer();
+            assertEquals("seed " + seed, array.getHeuristicMove(ai, -ai), sparse.getHeuristicMove(ai, -ai));
+        }
+    }
+
+    @Test
+    public void emptyHugeBoard_startsInTheCentre() {
+        Model model = new Model(new SparseBoard(SparseBoard.MAX_SIZE));
+        assertEquals(new Move(SparseBoard.MAX_SIZE / 2, SparseBoard.MAX_SIZE / 2),
+                model.getHeuristicMove(Model.PLAYER_X, Model.PLAYER_O, new SearchBudget(0, 0, 2)));
+    }
+
+    @Test
+    public void sixInARow_needsSixStones() {
+        Model model = new Model(new ArrayBoard(19), 6);
+        for (int col = 3; col < 8; col++) model.makeMove(3, col);
+        assertEquals(Model.EMPTY, model.checkWin(3, 7));
+        model.makeMove(3, 8);
+        assertEquals(Model.PLAYER_X, model.checkWin(3, 8));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void winLongerThanTheBoard_isRejected() {
+        new Model(new ArrayBoard(5), 6);
+    }
+
+    // 30 random stones near the centre, stopping before anyone wins.
+    private static Model clusteredPosition(Board board, Random random) {
+        Model model = new Model(board);
+        int centre = board.size() / 2;
+        for (int k = 0; k < 30; k++) {
+            int row = centre + random.nextInt(11) - 5;
+            int col = centre + random.nextInt(11) - 5;
+            if (!model.makeMove(row, col)) continue;
+            if (model.checkWin(row, col) != Model.EMPTY) {
+                model.resetGame();
+                return clusteredPosition(board, random);
+            }
+            model.changePlayer();
+        }
+        return model;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.largetictac;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Monte Carlo tree search: plays sound moves, stays in its arrays and keeps its tree between moves.
+ */
+public class MctsSearchTest {
+    private static final SearchBudget PLAYOUTS = new SearchBudget(0, 3000, 64);
+
+    @Test
+    public void openFour_isBlocked() {
+        // O has four in a row on row 7 (cols 3-6), closed on the left; X has to take col 7.
+        Model model = TestPositions.play(new int[][]{{7, 2}, {7, 3}, {6, 6}, {7, 4}, {8, 8}, {7, 5}, {9, 10}, {7, 6}});
+        model.setThreatSolverEnabled(false);
+        for (boolean priors : new boolean[]{false, true}) {
+            MctsSearch search = new MctsSearch(2);
+            search.setPriorsEnabled(priors);
+            model.setMctsSearch(search);
+            assertEquals("priors " + priors, new Move(7, 7),
+                    model.getHeuristicMove(Model.PLAYER_X, Model.PLAYER_O, PLAYOUTS));
+            assertEquals(PLAYOUTS.maxNodes, model.getNodeCount());
+        }
+    }
+
+    @Test
+    public void oneThreadAndSeed_isRepeatable() {
+        Model model = TestPositions.play(new int[][]{{7, 7}, {8, 8}, {6, 8}});
+        Move first = null;
+        for (int run = 0; run < 2; run++) {
+            MctsSearch search = new MctsSearch(1);
+            search.setSeed(42);
+            model.setMctsSearch(search);
+            Move move = model.getHeuristicMove(Model.PLAYER_O, Model.PLAYER_X, PLAYOUTS);
+            if (first == null) first = move;
+            assertEquals(first, move);
+        }
+    }
+
+    @Test
+    public void fullTree_keepsPlayingWithinItsCapacity() {
+        Model model = TestPositions.play(new int[][]{{7, 7}, {8, 8}, {6, 8}});
+        MctsSearch search = new MctsSearch(2, 100);
+        model.setMctsSearch(search);
+        Move move = model.getHeuristicMove(Model.PLAYER_O, Model.PLAYER_X, PLAYOUTS);
+        assertTrue(model.isLegal(move.row, move.col));
+        assertTrue(search.getTreeSize() <= 100);
+        assertEquals(PLAYOUTS.maxNodes, search.getLastPlayouts());
+    }
+
+    @Test
+    public void treeIsKept_afterTwoMoves() {
+        Model model = TestPositions.play(new int[][]{{7, 7}, {8, 8}, {6, 8}});
+        MctsSearch search = new MctsSearch(1);
+        model.setMctsSearch(search);
+        Move move = model.getHeuristicMove(Model.PLAYER_O, Model.PLAYER_X, PLAYOUTS);
+        assertEquals(0, search.getLastReusedNodes());
+
+        model.makeMove(move.row, move.col);
+        model.changePlayer();
+        Move reply = model.getOrderedMoves(Model.PLAYER_X).get(0);
+        model.makeMove(reply.row, reply.col);
+        model.changePlayer();
+        model.getHeuristicMove(Model.PLAYER_O, Model.PLAYER_X, PLAYOUTS);
+        assertTrue(search.getLastReusedNodes() > 0);
+
+        // An unrelated position starts over.
+        Model other = TestPositions.play(new int[][]{{3, 3}, {4, 4}, {3, 4}});
+        other.setMctsSearch(search);
+        other.getHeuristicMove(Model.PLAYER_O, Model.PLAYER_X, PLAYOUTS);
+        assertEquals(0, search.getLastReusedNodes());
+    }
+
+    @Test
+    public void onlyDefences_startOverWithoutReuse() {
+        // X has an open three on row 7 (cols 5-7): the threat solver leaves O a few defences to choose from.
+        Model model = TestPositions.play(new int[][]{{7, 5}, {9, 9}, {7, 6}, {10, 2}, {7, 7}});
+        MctsSearch search = new MctsSearch(1);
+        model.setMctsSearch(search);
+        for (int run = 0; run < 2; run++) {
+            Move move = model.getHeuristicMove(Model.PLAYER_O, Model.PLAYER_X, PLAYOUTS);
+            assertEquals(7, move.row);
+            assertEquals(0, search.getLastReusedNodes());
+        }
+    }
+
+    @Test
+    public void helperThreads_areKeptBetweenSearches() {
+        Model model = TestPositions.play(new int[][]{{7, 7}, {8, 8}, {6, 8}});
+        MctsSearch search = new MctsSearch(3);
+        model.setMctsSearch(search);
+        Set<Thread> before = workerThreads();
+        model.getHeuristicMove(Model.PLAYER_O, Model.PLAYER_X, PLAYOUTS);
+        Set<Thread> started = workerThreads();
+        started.removeAll(before);
+        assertEquals(2, started.size());
+
+        model.getHeuristicMove(Model.PLAYER_O, Model.PLAYER_X, PLAYOUTS);
+        Set<Thread> after = workerThreads();
+        after.removeAll(before);
+        assertEquals(started, after);
+        search.shutdown();
+    }
+
+    private static Set<Thread> workerThreads() {
+        Set<Thread> threads = new HashSet<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("mcts-worker")) threads.add(thread);
+        }
+        return threads;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.largetictac;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Killer moves and the history table only change the order moves are searched in,
+ * so a game played with them must pick exactly the same moves as one without.
+ */
+public class MoveOrderingTest {
+
+    @Test
+    public void killersAndHistory_doNotChangeTheChosenMoves() {
+        for (long seed = 0; seed < 4; seed++) {
+            Model plain = openingPosition(new Random(seed));
+            Model ordered = openingPosition(new Random(seed));
+            plain.setMoveOrderingHeuristicsEnabled(false);
+            plain.setThreatSolverEnabled(false);
+            ordered.setThreatSolverEnabled(false);
+            // Late move reductions spare the killers, so only the exact search is independent of the order.
+            plain.setPrincipalVariationSearchEnabled(false);
+            ordered.setPrincipalVariationSearchEnabled(false);
+            SearchBudget budget = new SearchBudget(0, 0, 4);
+
+            // Several moves in a row, so tables carried over (and aged) from earlier searches are used too.
+            for (int turn = 0; turn < 6; turn++) {
+                int ai = plain.getCurrentPlayer();
+                Move expected = plain.getHeuristicMove(ai, -ai, budget);
+                assertSame("seed " + seed + " turn " + turn, expected, ordered.getHeuristicMove(ai, -ai, budget));
+                plain.makeMove(expected.row, expected.col);
+                ordered.makeMove(expected.row, expected.col);
+                if (plain.checkWin(expected.row, expected.col) != Model.EMPTY) break;
+                plain.changePlayer();
+                ordered.changePlayer();
+            }
+        }
+    }
+
+    // Four random stones around the centre, nobody close to winning.
+    private static Model openingPosition(Random random) {
+        Model model = new Model();
+        int placed = 0;
+        while (placed < 4) {
+            int row = 5 + random.nextInt(5);
+            int col = 5 + random.nextInt(5);
+            if (!model.makeMove(row, col)) continue;
+            model.changePlayer();
+            placed++;
+        }
+        return model;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.largetictac;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * A book entry must be found again from every rotation and mirror of its position, with the
+ * move rotated and mirrored the same way.
+ */
+public class OpeningBookTest {
+    private static final int N = Model.BOARD_SIZE;
+
+    @Test
+    public void inverse_undoesTransform() {
+        for (int symmetry = 0; symmetry < OpeningBook.SYMMETRIES; symmetry++) {
+            for (int cell = 0; cell < N * N; cell++) {
+                assertEquals(cell, OpeningBook.inverse(symmetry, OpeningBook.transform(symmetry, cell)));
+            }
+        }
+    }
+
+    @Test
+    public void bookMove_isFoundFromEverySymmetry() throws IOException {
+        // X in the centre, O a knight's move away (no symmetry maps this onto itself), X to move.
+        int[][] stones = {{7, 7, Model.PLAYER_X}, {8, 9, Model.PLAYER_O}};
+        int bookMove = 6 * N + 8;
+
+        Board board = new ArrayBoard();
+        for (int[] stone : stones) board.set(stone[0], stone[1], stone[2]);
+        int symmetry = OpeningBook.canonicalSymmetry(board);
+        List<OpeningBook.Entry> entries = new ArrayList<>();
+        entries.add(new OpeningBook.Entry(OpeningBook.symmetryKey(board, symmetry),
+                OpeningBook.transform(symmetry, bookMove), 1));
+        entries.add(new OpeningBook.Entry(12345L, 0, 1)); // Some other position
+
+        Path file = Files.createTempFile("opening", ".book");
+        try {
+            OpeningBook.write(file, entries, 2);
+            OpeningBook book = OpeningBook.open(file);
+            assertEquals(2, book.size());
+
+            for (int s = 0; s < OpeningBook.SYMMETRIES; s++) {
+                Board rotated = new ArrayBoard();
+                for (int[] stone : stones) {
+                    int cell = OpeningBook.transform(s, stone[0] * N + stone[1]);
+                    rotated.set(cell / N, cell % N, stone[2]);
+                }
+                assertEquals("symmetry " + s, OpeningBook.transform(s, bookMove), book.probe(rotated));
+            }
+
+            // Positions that aren't in the book, or have more stones than any book position
+            Board other = new ArrayBoard();
+            other.set(0, 0, Model.PLAYER_X);
+            assertEquals(OpeningBook.NONE, book.probe(other));
+            board.set(3, 3, Model.PLAYER_X);
+            assertEquals(OpeningBook.NONE, book.probe(board));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void model_playsTheBookMove() throws IOException {
+        Model model = new Model();
+        model.makeMove(7, 7);
+        model.changePlayer();
+
+        Board board = new ArrayBoard();
+        board.set(7, 7, Model.PLAYER_X);
+        int symmetry = OpeningBook.canonicalSymmetry(board);
+        Path file = Files.createTempFile("opening", ".book");
+        try {
+            OpeningBook.write(file, Collections.singletonList(new OpeningBook.Entry(
+                    OpeningBook.symmetryKey(board, symmetry), OpeningBook.transform(symmetry, 3 * N + 3), 1)), 1);
+            model.setOpeningBook(OpeningBook.open(file));
+            Move move = model.getHeuristicMove(Model.PLAYER_O, Model.PLAYER_X);
+            // (3, 3) or one of its symmetric copies around the centre stone
+            assertEquals(4, Math.abs(move.row - 7));
+            assertEquals(4, Math.abs(move.col - 7));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
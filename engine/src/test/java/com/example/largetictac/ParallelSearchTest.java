@@ -0,0 +1,108 @@
+package com.example.largetictac;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Root splitting must pick exactly the move of the single-threaded fixed-depth search, for any
+ * thread count, also when its worker Models are reused from one position to the next.
+ */
+public class ParallelSearchTest {
+
+    @Test
+    public void anyThreadCount_matchesSingleThreadedSearch() {
+        for (int threads : new int[]{1, 2, 4}) {
+            ParallelSearch search = new ParallelSearch(threads);
+            for (long seed = 0; seed < 12; seed++) {
+                Model position = randomPosition(new Random(seed));
+                int ai = position.getCurrentPlayer();
+                Move expected = position.copy().getHeuristicMove(ai, -ai);
+                assertEquals("threads " + threads + " seed " + seed, expected, search.getHeuristicMove(position, ai, -ai));
+            }
+            search.shutdown();
+        }
+    }
+
+    @Test
+    public void wholeGame_matchesSingleThreadedSearch() {
+        // One Model plays the whole game, two turns with the 6-ply anytime search (whose deeper table entries
+        // stay behind), then two with the fixed-depth one. ParallelSearch's workers keep their own tables too.
+        for (int threads : new int[]{2, 4}) {
+            ParallelSearch search = new ParallelSearch(threads);
+            Model game = TestPositions.play(new int[][]{{7, 7}, {8, 8}});
+            for (int turn = 0; turn < 28; turn++) {
+                int ai = game.getCurrentPlayer();
+                Move move;
+                if (turn % 4 < 2) {
+                    move = game.getHeuristicMove(ai, -ai, new SearchBudget(0, 0, 6));
+                } else {
+                    Move fresh = game.copy().getHeuristicMove(ai, -ai);
+                    Move parallel = search.getHeuristicMove(game, ai, -ai);
+                    move = game.getHeuristicMove(ai, -ai);
+                    assertEquals("threads " + threads + " turn " + turn, fresh, move);
+                    assertEquals("threads " + threads + " turn " + turn, fresh, parallel);
+                }
+                game.makeMove(move.row, move.col);
+                if (game.checkWin(move.row, move.col) != Model.EMPTY) break;
+                game.changePlayer();
+            }
+            search.shutdown();
+        }
+    }
+
+    @Test
+    public void search_neverWritesToThePosition() {
+        // Counts writes to the caller's board once the game is set up; the threat solver's checks included.
+        int[] writes = new int[1];
+        Model position = new Model(new ArrayBoard() {
+            @Override
+            public void set(int row, int col, int value) {
+                writes[0]++;
+                super.set(row, col, value);
+            }
+        });
+        int[][] stones = {{7, 7}, {8, 8}, {7, 8}, {6, 6}, {7, 6}, {9, 9}};
+        for (int[] stone : stones) {
+            position.makeMove(stone[0], stone[1]);
+            position.changePlayer();
+        }
+        writes[0] = 0;
+        ParallelSearch search = new ParallelSearch(2);
+        int player = position.getCurrentPlayer();
+        assertEquals(position.copy().getHeuristicMove(player, -player), search.getHeuristicMove(position, player, -player));
+        search.shutdown();
+        assertEquals(0, writes[0]);
+    }
+
+    @Test
+    public void scalingReport_hasOneLinePerThreadCount() {
+        String[] lines = ParallelSearch.scalingReport(randomPosition(new Random(1)), Model.PLAYER_X, 1, 4).split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0], lines[0].matches("threads=1 nodes=[1-9]\\d* time=[\\d.]+ms nps=\\d+ speedup=1\\.00x\\s*"));
+        assertTrue(lines[1], lines[1].matches("threads=2 nodes=[1-9]\\d* time=[\\d.]+ms nps=\\d+ speedup=[\\d.]+x\\s*"));
+        assertTrue(lines[2], lines[2].matches("threads=4 nodes=[1-9]\\d* time=[\\d.]+ms nps=\\d+ speedup=[\\d.]+x\\s*"));
+    }
+
+    // Six to ten random stones in the middle of the board; stops early if someone wins.
+    private static Model randomPosition(Random random) {
+        Model model = new Model();
+        int stones = 6 + random.nextInt(5);
+        int placed = 0;
+        while (placed < stones) {
+            int row = 4 + random.nextInt(7);
+            int col = 4 + random.nextInt(7);
+            if (!model.makeMove(row, col)) continue;
+            placed++;
+            if (model.checkWin(row, col) != Model.EMPTY) {
+                model.resetGame();
+                placed = 0;
+                continue;
+            }
+            model.changePlayer();
+        }
+        return model;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.largetictac;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Known shapes must get the right threat class, and the table's viable count must agree with
+ * the cell-by-cell getViableStoneCount it replaces.
+ */
+public class PatternTableTest {
+
+    // Builds a window code from a 9-character picture: '.' empty, 'x' own, 'o' opponent, '|' off the board.
+    // The centre character (index 4) is the point being classified.
+    private static int window(String cells) {
+        int code = 0;
+        for (int k = 0; k < PatternTable.WINDOW; k++) {
+            int cell;
+            switch (cells.charAt(k)) {
+                case 'x': cell = PatternTable.OWN_CELL; break;
+                case 'o': cell = PatternTable.OPPONENT_CELL; break;
+                case '|': cell = PatternTable.WALL_CELL; break;
+                default: cell = PatternTable.EMPTY_CELL; break;
+            }
+            code |= cell << (2 * k);
+        }
+        return code;
+    }
+
+    @Test
+    public void knownShapes_getTheirThreatClass() {
+        assertEquals(PatternTable.FIVE, PatternTable.threatClass(window("..xxxxx..")));
+        assertEquals(PatternTable.OPEN_FOUR, PatternTable.threatClass(window("..xxxx...")));
+        assertEquals(PatternTable.FOUR, PatternTable.threatClass(window(".oxxxx...")));
+        assertEquals(PatternTable.FOUR, PatternTable.threatClass(window("x.xxx....")));
+        assertEquals(PatternTable.OPEN_THREE, PatternTable.threatClass(window("...xxx...")));
+        assertEquals(PatternTable.OPEN_THREE, PatternTable.threatClass(window("..x.xx...")));
+        assertEquals(PatternTable.THREE, PatternTable.threatClass(window("..oxxx...")));
+        assertEquals(PatternTable.OPEN_TWO, PatternTable.threatClass(window("...xx....")));
+        assertEquals(PatternTable.TWO, PatternTable.threatClass(window("..oxx....")));
+        assertEquals(PatternTable.ONE, PatternTable.threatClass(window("....x....")));
+        assertEquals(PatternTable.NONE, PatternTable.threatClass(window("||o.x.o..")));
+    }
+
+    @Test
+    public void strongerShapes_scoreHigher() {
+        assertTrue(PatternTable.score(window("..xxxx...")) > PatternTable.score(window(".oxxxx...")));
+        assertTrue(PatternTable.score(window("...xxx...")) > PatternTable.score(window("..oxxx...")));
+        assertEquals(0, PatternTable.score(window("||o.x.o..")));
+    }
+
+    @Test
+    public void swapPlayers_swapsOwnAndOpponent() {
+        assertEquals(window("oo.x|xx.o"), PatternTable.swapPlayers(window("xx.o|oo.x")));
+    }
+
+    @Test
+    public void viableCount_matchesGetViableStoneCount() {
+        int[][] directions = {{1, 0}, {0, 1}, {1, 1}, {1, -1}};
+        Random random = new Random(5);
+        for (int game = 0; game < 100; game++) {
+            Board board = new ArrayBoard();
+            int stones = random.nextInt(120);
+            for (int k = 0; k < stones; k++) {
+                board.set(random.nextInt(15), random.nextInt(15), random.nextBoolean() ? Model.PLAYER_X : Model.PLAYER_O);
+            }
+            for (int row = 0; row < 15; row++) {
+                for (int col = 0; col < 15; col++) {
+                    for (int[] dir : directions) {
+                        for (int player = -1; player <= 1; player += 2) {
+                            // Runs longer than 5 can run past the window; only "5 or more" is promised.
+                            int expected = Math.min(board.getViableStoneCount(row, col, dir[0], dir[1], player), 5);
+                            int code = board.getLinePattern(row, col, dir[0], dir[1], player);
+                            assertEquals(row + "," + col, expected, Math.min(PatternTable.viableCount(code), 5));
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
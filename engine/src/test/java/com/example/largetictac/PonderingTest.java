@@ -0,0 +1,71 @@
+package com.example.largetictac;
+
+import org.junit.Test;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Answers found while pondering must be the moves a normal search would have played.
+ */
+public class PonderingTest {
+    private static final SearchBudget BUDGET = new SearchBudget(0, 0, 3);
+
+    @Test
+    public void predictedReply_isAnsweredFromPondering() throws Exception {
+        Model game = openingPosition();
+        int human = game.getCurrentPlayer();
+        AsyncEngine engine = new AsyncEngine(Runnable::run);
+        engine.startPondering(game, -human, human, BUDGET);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while (engine.getFinishedPonders() == 0 && System.nanoTime() < deadline) Thread.sleep(5);
+
+        // The human plays the reply the engine expected most (its own best move for the human).
+        Move reply = game.copy().getHeuristicMove(human, -human, new SearchBudget(0, 0, 2));
+        game.makeMove(reply.row, reply.col);
+        game.changePlayer();
+
+        assertEquals(game.copy().getHeuristicMove(-human, human, BUDGET), requestMove(engine, game, -human));
+        assertEquals(1, engine.getPonderHits());
+        engine.shutdown();
+    }
+
+    @Test
+    public void unexpectedReply_isSearchedNormally() throws Exception {
+        Model game = openingPosition();
+        int human = game.getCurrentPlayer();
+        AsyncEngine engine = new AsyncEngine(Runnable::run);
+        engine.startPondering(game, -human, human, BUDGET);
+
+        // A corner move no prediction contains.
+        game.makeMove(0, 0);
+        game.changePlayer();
+
+        assertEquals(game.copy().getHeuristicMove(-human, human, BUDGET), requestMove(engine, game, -human));
+        assertEquals(0, engine.getPonderHits());
+        engine.shutdown();
+    }
+
+    private static Move requestMove(AsyncEngine engine, Model game, int ai) throws InterruptedException {
+        BlockingQueue<Move> chosen = new ArrayBlockingQueue<>(1);
+        engine.requestMove(game, ai, -ai, BUDGET, new AsyncEngine.Callback() {
+            @Override
+            public void onProgress(int depth, Move bestMoveSoFar) {
+            }
+
+            @Override
+            public void onMoveChosen(Move move) {
+                chosen.add(move);
+            }
+        });
+        return chosen.poll(20, TimeUnit.SECONDS);
+    }
+
+    // X and O have played two stones each near the centre; X (the human) is to move.
+    private static Model openingPosition() {
+        return TestPositions.play(new int[][]{{7, 7}, {8, 8}, {7, 8}, {6, 6}});
+    }
+}
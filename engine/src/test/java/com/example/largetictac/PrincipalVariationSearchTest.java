@@ -0,0 +1,38 @@
+package com.example.largetictac;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Principal variation search, aspiration windows and late move reductions: deeper, without missing wins.
+ */
+public class PrincipalVariationSearchTest {
+
+    @Test
+    public void sameNodeBudget_reachesDeeper() {
+        int[][] stones = {{7, 7}, {7, 8}, {8, 7}, {6, 6}};
+        Model plain = TestPositions.play(stones);
+        Model pvs = TestPositions.play(stones);
+        plain.setThreatSolverEnabled(false);
+        pvs.setThreatSolverEnabled(false);
+        plain.setPrincipalVariationSearchEnabled(false);
+        SearchBudget budget = new SearchBudget(0, 300000, 64);
+        int ai = plain.getCurrentPlayer();
+        plain.getHeuristicMove(ai, -ai, budget);
+        pvs.getHeuristicMove(ai, -ai, budget);
+        assertTrue(pvs.getLastCompletedDepth() > plain.getLastCompletedDepth());
+    }
+
+    @Test
+    public void openThree_isStillSeenAsAWin() {
+        // X: an open three on row 7; O's stones make no threat. Turning it into an open four wins.
+        Model model = TestPositions.play(new int[][]{{7, 5}, {3, 3}, {7, 6}, {11, 12}, {7, 7}, {2, 12}});
+        model.setThreatSolverEnabled(false);
+        double[] score = new double[1];
+        model.setSearchListener((depth, bestMove, value) -> score[0] = value);
+        Move move = model.getHeuristicMove(Model.PLAYER_X, Model.PLAYER_O, new SearchBudget(0, 0, 5));
+        assertTrue("score " + score[0], score[0] >= 1000000.0);
+        assertEquals(7, move.row);
+    }
+}
@@ -3,7 +3,14 @@ package com.example.largetictac;
 import java.util.ArrayList;
 import java.util.Random;
 
-public class Model {
+/**
+ * The original Model (the first version of the game, before any search speed-up), frozen as the
+ * reference for DifferentialFuzzTest. Do not change it: it defines what checkWin, isLineOfLength,
+ * evaluateBoardState and the fixed-depth getHeuristicMove must keep returning.
+ * Only the class name changed, and evaluateBoardState is package-private instead of private so the
+ * test can compare it.
+ */
+class ReferenceModel {
     public static final int EMPTY = 0;
     public static final int PLAYER_X = 1;
     public static final int PLAYER_O = -1;
@@ -16,7 +23,7 @@ public class Model {
      * Output: A new Model instance
      * Logic: Initializes the game board as a 15x15 grid and sets the starting player to PLAYER_X.
      */
-    public Model() {
+    public ReferenceModel() {
         board = new int[15][15];
         currentPlayer = PLAYER_X;
     }
@@ -246,7 +253,7 @@ public class Model {
      * Scans the whole board to calculate the advantage.
      * Positive = AI is winning. Negative = Human is winning.
      */
-    private double evaluateBoardState(int aiPlayer) {
+    double evaluateBoardState(int aiPlayer) {
         double aiScore = 0;
         double humanScore = 0;
         int humanPlayer = aiPlayer * -1; // The opposite of AI
@@ -0,0 +1,81 @@
+package com.example.largetictac;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * The search hot path must not allocate: after a warm-up call, a whole getHeuristicMove
+ * (threat solver, minimax, transposition table) may not create a single object.
+ * Uses the HotSpot per-thread allocation counter; skipped on JVMs without it.
+ */
+public class SearchAllocationTest {
+
+    @Test
+    public void fixedDepthSearch_allocatesNothingAfterWarmUp() {
+        com.sun.management.ThreadMXBean threads = allocationCounter();
+        Random random = new Random(2024);
+        for (int game = 0; game < 3; game++) {
+            Model model = randomPosition(random, 12);
+            int ai = model.getCurrentPlayer();
+            model.getHeuristicMove(ai, -ai); // Warm-up: class loading, JIT
+
+            long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            model.getHeuristicMove(ai, -ai);
+            long after = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            assertEquals("bytes allocated by getHeuristicMove", 0, after - before - measurementOverhead(threads));
+        }
+    }
+
+    @Test
+    public void budgetedSearch_allocatesNothingAfterWarmUp() {
+        com.sun.management.ThreadMXBean threads = allocationCounter();
+        Model model = randomPosition(new Random(7), 10);
+        int ai = model.getCurrentPlayer();
+        SearchBudget budget = new SearchBudget(0, 20000, 64);
+        model.getHeuristicMove(ai, -ai, budget);
+
+        long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        model.getHeuristicMove(ai, -ai, budget);
+        long after = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        assertEquals("bytes allocated by getHeuristicMove(budget)", 0, after - before - measurementOverhead(threads));
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+
+    // Reading the counter can allocate a little by itself; measure that with nothing in between.
+    private static long measurementOverhead(com.sun.management.ThreadMXBean threads) {
+        long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        long after = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        return after - before;
+    }
+
+    private static Model randomPosition(Random random, int stones) {
+        Model model = new Model();
+        int placed = 0;
+        while (placed < stones) {
+            int row = 7 + random.nextInt(7) - 3;
+            int col = 7 + random.nextInt(7) - 3;
+            if (!model.isLegal(row, col)) continue;
+            model.makeMove(row, col);
+            if (model.checkWin(row, col) != Model.EMPTY) {
+                model.resetGame();
+                placed = 0;
+                continue;
+            }
+            model.changePlayer();
+            placed++;
+        }
+        return model;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.largetictac;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * The anytime getHeuristicMove stays inside its node and depth budgets and plays the move of the
+ * deepest iteration it finished, never one from an iteration the budget cut short.
+ */
+public class SearchBudgetTest {
+
+    @Test
+    public void depthBudget_stopsAfterThatIteration() {
+        Model model = position();
+        ArrayList<Integer> depths = new ArrayList<>();
+        model.setSearchListener((depth, bestMove, score) -> depths.add(depth));
+        model.getHeuristicMove(Model.PLAYER_O, Model.PLAYER_X, new SearchBudget(0, 0, 3));
+        assertEquals(3, model.getLastCompletedDepth());
+        assertEquals(Arrays.asList(1, 2, 3), depths);
+    }
+
+    @Test
+    public void nodeBudget_isRespected() {
+        for (long nodes : new long[]{500, 2000, 10000}) {
+            Model model = position();
+            model.getHeuristicMove(Model.PLAYER_O, Model.PLAYER_X, new SearchBudget(0, nodes, 64));
+            // The node that finds the budget used up is counted too.
+            assertTrue("budget " + nodes + ": " + model.getNodeCount(), model.getNodeCount() <= nodes + 1);
+            assertTrue(model.getLastCompletedDepth() >= 1);
+            assertTrue(model.getLastCompletedDepth() < 64);
+        }
+    }
+
+    @Test
+    public void cutShortIteration_isThrownAway() {
+        for (long nodes : new long[]{500, 2000, 10000}) {
+            Model model = position();
+            Move[] lastReported = new Move[1];
+            model.setSearchListener((depth, bestMove, score) -> lastReported[0] = bestMove);
+            Move move = model.getHeuristicMove(Model.PLAYER_O, Model.PLAYER_X, new SearchBudget(0, nodes, 64));
+            int completed = model.getLastCompletedDepth();
+            assertEquals("budget " + nodes, lastReported[0], move);
+
+            // A search told to stop at that depth ends with the same move.
+            Model fixedDepth = position();
+            assertEquals("budget " + nodes, move,
+                    fixedDepth.getHeuristicMove(Model.PLAYER_O, Model.PLAYER_X, new SearchBudget(0, 0, completed)));
+        }
+    }
+
+    // Three X and two O stones near the centre, O to move; the threat solver is off so the search decides.
+    private static Model position() {
+        Model model = TestPositions.play(new int[][]{{7, 7}, {7, 8}, {8, 8}, {6, 6}, {8, 7}});
+        model.setThreatSolverEnabled(false);
+        return model;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.largetictac;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * SearchStats must describe the search that just ran, and collecting them must not change its result.
+ */
+public class SearchStatsTest {
+
+    @Test
+    public void stats_areOffByDefault() {
+        assertNull(new Model().getSearchStats());
+    }
+
+    @Test
+    public void budgetedSearch_fillsEveryCounter() {
+        Model model = position();
+        model.setThreatSolverEnabled(false);
+        SearchStats stats = new SearchStats();
+        model.setSearchStats(stats);
+        model.getHeuristicMove(Model.PLAYER_O, Model.PLAYER_X, new SearchBudget(0, 0, 4));
+
+        assertEquals(SearchStats.Source.SEARCH, stats.getSource());
+        assertEquals(model.getNodeCount(), stats.getNodes());
+        assertEquals(4, stats.getCompletedDepth());
+        assertEquals(4, stats.getIterations());
+        assertTrue(stats.getSelectiveDepth() >= 3);
+        assertTrue(stats.getLeafEvaluations() > 0);
+        assertTrue(stats.getBetaCutoffs() > 0);
+        assertTrue(stats.getFirstMoveCutoffs() <= stats.getBetaCutoffs());
+        assertTrue(stats.getTtHits() > 0);
+        assertTrue(stats.getTtHits() <= stats.getTtProbes());
+        for (int i = 1; i < stats.getIterations(); i++) {
+            assertTrue(stats.getIterationNanos(i) >= stats.getIterationNanos(i - 1));
+            assertTrue(stats.getIterationNodes(i) >= stats.getIterationNodes(i - 1));
+        }
+        assertTrue(stats.getElapsedNanos() >= stats.getIterationNanos(stats.getIterations() - 1));
+
+        // The next search starts from zero again
+        model.getHeuristicMove(Model.PLAYER_O, Model.PLAYER_X, new SearchBudget(0, 0, 1));
+        assertEquals(1, stats.getIterations());
+        assertEquals(model.getNodeCount(), stats.getNodes());
+    }
+
+    @Test
+    public void collectingStats_doesNotChangeTheMove() {
+        Model plain = position();
+        Model counted = position();
+        counted.setSearchStats(new SearchStats());
+        assertEquals(plain.getHeuristicMove(Model.PLAYER_O, Model.PLAYER_X),
+                counted.getHeuristicMove(Model.PLAYER_O, Model.PLAYER_X));
+        assertEquals(plain.getNodeCount(), counted.getSearchStats().getNodes());
+        assertEquals(3, counted.getSearchStats().getCompletedDepth());
+    }
+
+    private static Model position() {
+        return TestPositions.play(new int[][]{{7, 7}, {7, 8}, {8, 8}, {6, 6}, {8, 7}});
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.largetictac;
+
+/**
+ * Positions shared by the engine tests.
+ */
+final class TestPositions {
+    private TestPositions() {
+    }
+
+    /**
+     * Input: stones - {row, col} pairs, X first, then alternating.
+     * Output: Model - A 15x15 game with those stones, the next player to move.
+     */
+    static Model play(int[][] stones) {
+        Model model = new Model();
+        for (int[] stone : stones) {
+            model.makeMove(stone[0], stone[1]);
+            model.changePlayer();
+        }
+        return model;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.largetictac;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Hand-made positions with a known answer for the threat solver and for getHeuristicMove.
+ */
+public class ThreatSolverTest {
+    private static final int X = Model.PLAYER_X;
+    private static final int O = Model.PLAYER_O;
+
+    // X has two blocked threes that cross at (7,8): playing there makes a double four.
+    private static void placeDoubleFour(Board board) {
+        board.set(7, 3, O);
+        board.set(7, 4, X);
+        board.set(7, 5, X);
+        board.set(7, 6, X);
+        board.set(11, 8, O);
+        board.set(8, 8, X);
+        board.set(9, 8, X);
+        board.set(10, 8, X);
+    }
+
+    @Test
+    public void doubleFour_isFoundByVcf() {
+        Board board = new ArrayBoard();
+        placeDoubleFour(board);
+        ThreatSolver solver = new ThreatSolver(board);
+
+        int win = solver.findWin(X, 10, false, 2000);
+        assertNotEquals(ThreatSolver.NONE, win);
+
+        // Playing the move must leave X with at least two ways to make five.
+        board.set(win / Model.BOARD_SIZE, win % Model.BOARD_SIZE, X);
+        int fives = 0;
+        for (int cell = 0; cell < Model.BOARD_SIZE * Model.BOARD_SIZE; cell++) {
+            int row = cell / Model.BOARD_SIZE;
+            int col = cell % Model.BOARD_SIZE;
+            if (board.get(row, col) != Model.EMPTY) continue;
+            board.set(row, col, X);
+            for (int[] dir : new int[][]{{1, 0}, {0, 1}, {1, 1}, {1, -1}}) {
+                if (board.countConsecutive(row, col, dir[0], dir[1], X) >= 5) {
+                    fives++;
+                    break;
+                }
+            }
+            board.set(row, col, Model.EMPTY);
+        }
+        assertTrue(fives >= 2);
+    }
+
+    @Test
+    public void solverLeavesTheBoardUnchanged() {
+        Board board = new ArrayBoard();
+        placeDoubleFour(board);
+        Board before = board.copy();
+        new ThreatSolver(board).findWin(X, 10, true, 2000);
+        new ThreatSolver(board).findWin(O, 10, true, 2000);
+        for (int row = 0; row < Model.BOARD_SIZE; row++) {
+            for (int col = 0; col < Model.BOARD_SIZE; col++) {
+                assertEquals(before.get(row, col), board.get(row, col));
+            }
+        }
+    }
+
+    @Test
+    public void singleBlockedThree_isNotAWin() {
+        Board board = new ArrayBoard();
+        board.set(7, 3, O);
+        board.set(7, 4, X);
+        board.set(7, 5, X);
+        board.set(7, 6, X);
+        assertEquals(ThreatSolver.NONE, new ThreatSolver(board).findWin(X, 10, false, 2000));
+    }
+
+    @Test
+    public void heuristicMove_defendsAgainstTheDoubleFour() {
+        Board board = new ArrayBoard();
+        Model model = new Model(board, new TranspositionTable(16, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED));
+        int[][] stones = {{7, 3, O}, {7, 4, X}, {7, 5, X}, {7, 6, X}, {11, 8, O}, {8, 8, X}, {9, 8, X}, {10, 8, X}};
+        for (int[] stone : stones) {
+            if (model.getCurrentPlayer() != stone[2]) model.changePlayer();
+            model.makeMove(stone[0], stone[1]);
+        }
+        // O to move: after O's answer X must no longer have a forced win.
+        Move move = model.getHeuristicMove(O, X);
+        board.set(move.row, move.col, O);
+        assertEquals(ThreatSolver.NONE, new ThreatSolver(board).findWin(X, 10, false, 2000));
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.largetictac;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Memory cap, generations and keeping the table between the searches of one game.
+ */
+public class TranspositionTableTest {
+    private static final TranspositionTable.ReplacementPolicy POLICY = TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED;
+
+    @Test
+    public void withMaxBytes_staysUnderTheCap() {
+        for (long bytes : new long[]{1 << 10, 1 << 20, 3 << 20, Model.DEFAULT_TABLE_BYTES}) {
+            TranspositionTable table = TranspositionTable.withMaxBytes(bytes, POLICY);
+            assertTrue(table.memoryBytes() <= bytes);
+            assertTrue(table.memoryBytes() * 2 > bytes); // The largest power of 2 that fits
+        }
+    }
+
+    @Test
+    public void entriesOfEarlierSearches_areReplacedFirst() {
+        TranspositionTable table = new TranspositionTable(4, POLICY);
+        long deep = 3;
+        long shallow = 3 + 16; // Same slot
+        table.store(deep, 6, 1.0, TranspositionTable.BOUND_EXACT, 7);
+
+        // Same search: the deeper entry wins the slot.
+        table.store(shallow, 2, 2.0, TranspositionTable.BOUND_EXACT, 8);
+        assertEquals(-1, table.probe(shallow));
+
+        // Next search: the old entry gives way.
+        table.newSearch();
+        table.store(shallow, 2, 2.0, TranspositionTable.BOUND_EXACT, 8);
+        assertEquals(8, table.getBestMove(table.probe(shallow)));
+        assertEquals(-1, table.probe(deep));
+    }
+
+    @Test
+    public void deeperResultOfTheSamePosition_isKept() {
+        TranspositionTable table = new TranspositionTable(4, POLICY);
+        table.store(5, 6, 1.0, TranspositionTable.BOUND_EXACT, 7);
+        table.newSearch();
+        table.store(5, 2, 2.0, TranspositionTable.BOUND_EXACT, 8);
+        assertEquals(6, table.getDepth(table.probe(5)));
+    }
+
+    @Test
+    public void secondSearchOfTheGame_reusesTheFirst() {
+        Model model = new Model();
+        model.setThreatSolverEnabled(false);
+        int[][] stones = {{7, 7}, {8, 8}, {7, 8}, {6, 6}, {9, 7}};
+        for (int[] stone : stones) {
+            model.makeMove(stone[0], stone[1]);
+            model.changePlayer();
+        }
+        int ai = model.getCurrentPlayer();
+        SearchBudget budget = new SearchBudget(0, 0, 4);
+        Move first = model.getHeuristicMove(ai, -ai, budget);
+        long cold = model.getNodeCount();
+
+        model.getHeuristicMove(ai, -ai, budget);
+        assertTrue(model.getNodeCount() < cold);
+
+        // resetGame forgets everything: replaying the game searches from scratch.
+        model.resetGame();
+        for (int[] stone : stones) {
+            model.makeMove(stone[0], stone[1]);
+            model.changePlayer();
+        }
+        assertEquals(first, model.getHeuristicMove(ai, -ai, budget));
+        assertEquals(cold, model.getNodeCount());
+    }
+}
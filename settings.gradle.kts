@@ -21,4 +21,7 @@ dependencyResolutionManagement {
 
 rootProject.name = "largeTicTac"
 include(":app")
+include(":engine")
+include(":benchmark")
+include(":tools")
  
\ No newline at end of file
@@ -0,0 +1,88 @@
+// Command-line tools around the engine (opening book builder, tournament runner, ...). They run on any JVM:
+//   ./gradlew :tools:run --args="selfplay opening.book --games=200"
+//   ./gradlew :tools:tournament --args="--a=time=100 --b=time=100,eval=classic --games=1000"
+//   ./gradlew :tools:analyze --args="analysis.csv games/ --engine=depth=4"
+//   ./gradlew :tools:loadtest --args="--games=1000 --engine=nodes=2000 --human-ms=5000"
+//   ./gradlew :tools:benchmarkGate -PbenchmarkThreshold=10   (runs the JMH benchmarks, fails on a regression)
+//   ./gradlew :tools:installDist   then point a Gomocup manager at tools/build/install/tools/bin/pbrain-largetictac
+plugins {
+    application
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    implementation(project(":engine"))
+    testImplementation(libs.junit)
+}
+
+application {
+    mainClass.set("com.example.largetictac.tools.OpeningBookBuilder")
+}
+
+tasks.register<JavaExec>("tournament") {
+    group = "application"
+    description = "Plays two engine configurations against each other and reports the Elo difference."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.example.largetictac.tools.TournamentRunner")
+}
+
+tasks.register<JavaExec>("analyze") {
+    group = "application"
+    description = "Searches every position of PSQ game records on all cores and writes best moves and blunders to a CSV file."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.example.largetictac.tools.BatchAnalyzer")
+}
+
+tasks.register<JavaExec>("loadtest") {
+    group = "application"
+    description = "Keeps many GameServer games going with simulated humans and reports p50/p99 move latency and games per core."
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.example.largetictac.tools.ServerLoadTest")
+}
+
+// Performance gate: compares a JMH run with benchmark/baseline.json, an earlier run recorded on the same
+// machine with benchmarkBaseline, and fails when a benchmark got more than benchmarkThreshold percent worse.
+val jmhResults = rootProject.file("benchmark/build/results/jmh/results.json")
+val jmhBaseline = rootProject.file("benchmark/baseline.json")
+
+tasks.register<JavaExec>("benchmarkGate") {
+    group = "verification"
+    description = "Runs the JMH benchmarks and fails if one regressed against benchmark/baseline.json."
+    dependsOn(":benchmark:jmh")
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.example.largetictac.tools.BenchmarkGate")
+    args(jmhResults, jmhBaseline, "--threshold=" + (findProperty("benchmarkThreshold") ?: "10"))
+}
+
+tasks.register<Copy>("benchmarkBaseline") {
+    group = "verification"
+    description = "Runs the JMH benchmarks and stores the results as benchmark/baseline.json."
+    dependsOn(":benchmark:jmh")
+    from(jmhResults)
+    into(jmhBaseline.parentFile)
+    rename { jmhBaseline.name }
+}
+
+// A Piskvork protocol brain for tournament managers: bin/pbrain-largetictac in the tools distribution.
+// The serial collector adds no GC threads to compete with the search and the other engine for the cores.
+val pbrainScripts by tasks.registering(CreateStartScripts::class) {
+    applicationName = "pbrain-largetictac"
+    mainClass.set("com.example.largetictac.tools.PiskvorkEngine")
+    classpath = files(tasks.jar) + configurations.runtimeClasspath.get()
+    outputDir = layout.buildDirectory.dir("pbrain").get().asFile
+    defaultJvmOpts = listOf("-XX:+UseSerialGC")
+}
+
+distributions {
+    main {
+        contents {
+            from(pbrainScripts) {
+                into("bin")
+            }
+        }
+    }
+}
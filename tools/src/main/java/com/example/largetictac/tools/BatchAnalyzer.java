@@ -0,0 +1,351 @@
+package com.example.largetictac.tools;
+
+import com.example.largetictac.Model;
+import com.example.largetictac.Move;
+import com.example.largetictac.SearchStats;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Analyses every position of archived games on all cores and streams the results to a CSV file.
+ *
+ *   BatchAnalyzer <out.csv> <file.psq | directory>... [--engine=depth=4] [--threads=<cores>]
+ *                 [--in-flight=<2 x threads>] [--blunder=1000]
+ *
+ * The calling thread reads the files one game at a time (a .psq file may hold many games) and hands
+ * the games to a pool of workers. Each worker owns one Model: it replays a game with makeMove and
+ * changePlayer and searches every position on the way, so the transposition table of one position
+ * helps the next. A writer thread writes the results in input order. At most --in-flight games are
+ * between reading and writing; when the workers or the disk fall behind, reading waits. So memory
+ * stays the same however big the archive is, and more threads analyse more games at once.
+ *
+ * One line per position: file, game (its place in the file), ply, player, the move played and the
+ * engine's best move (1-based x,y as in PSQ), the engine's score for the player to move, how much the
+ * played move lost against it, and the blunder flag (a loss of at least --blunder).
+ * The played move's value is the next position's score seen from the other side, so judging it costs
+ * no extra search. The last move of a game is only judged if it made five.
+ */
+public class BatchAnalyzer {
+    private static final int N = Model.BOARD_SIZE;
+    private static final double WIN_SCORE = 1000000.0;
+    private static final String HEADER = "file,game,ply,player,move_x,move_y,best_x,best_y,score,loss,blunder";
+
+    private final EngineConfig engine;
+    private final int threads;
+    private final double blunderLoss;
+
+    // One permit per game that may be read but not yet written: reading waits for one, writing gives it back.
+    private final Semaphore window;
+    private final BlockingQueue<Game> toAnalyse;
+    // Never holds more than the window, so it needs no bound of its own.
+    private final BlockingQueue<Game> analysed = new LinkedBlockingQueue<>();
+    private static final Game END = new Game(-1, null, 0, new int[0]);
+
+    // Written by the writer thread only, read after it finished.
+    private long games;
+    private long positions;
+    private long blunders;
+    private long failedGames;
+    // Read by the reading thread only.
+    private long skippedGames;
+    private volatile IOException writeFailure;
+
+    /**
+     * One game on its way through the pipeline, with the worker's results per ply.
+     */
+    private static final class Game {
+        final long sequence;
+        final Path file;
+        final int index;
+        final int[] moves;
+        // Plies analysed: the whole game, or up to the move that made five.
+        int plies;
+        final int[] best;
+        // Score of the position for the player to move, and the value of the move played (NaN = unknown).
+        final double[] scores;
+        final double[] played;
+        String error;
+
+        Game(long sequence, Path file, int index, int[] moves) {
+            this.sequence = sequence;
+            this.file = file;
+            this.index = index;
+            this.moves = moves;
+            best = new int[moves.length];
+            scores = new double[moves.length];
+            played = new double[moves.length];
+        }
+    }
+
+    /**
+     * Input: engine - the analysing engine (needs a time, node or depth budget); threads - workers;
+     * inFlight - games read but not yet written, at most; blunderLoss - the loss that makes a move a blunder.
+     * Output: A new BatchAnalyzer.
+     */
+    public BatchAnalyzer(EngineConfig engine, int threads, int inFlight, double blunderLoss) {
+        if (!engine.hasBudget()) {
+            throw new IllegalArgumentException("The analysing engine needs time, nodes or depth: " + engine);
+        }
+        this.engine = engine;
+        this.threads = threads;
+        this.blunderLoss = blunderLoss;
+        window = new Semaphore(inFlight);
+        // Room for every game the window lets through plus one END per worker, so putting never blocks.
+        toAnalyse = new ArrayBlockingQueue<>(inFlight + threads);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("usage: BatchAnalyzer <out.csv> <file.psq | directory>... [--engine=<spec>]"
+                    + " [--threads=N] [--in-flight=N] [--blunder=N]");
+            System.exit(2);
+        }
+        Path out = Paths.get(args[0]);
+        Map<String, String> options = new HashMap<>();
+        List<Path> inputs = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].startsWith("--") && args[i].contains("=")) {
+                options.put(args[i].substring(2, args[i].indexOf('=')), args[i].substring(args[i].indexOf('=') + 1));
+            } else {
+                inputs.add(Paths.get(args[i]));
+            }
+        }
+        EngineConfig engine = EngineConfig.parse(options.getOrDefault("engine", "depth=4"));
+        int threads = Integer.parseInt(options.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        int inFlight = Integer.parseInt(options.getOrDefault("in-flight", String.valueOf(2 * threads)));
+        double blunder = Double.parseDouble(options.getOrDefault("blunder", "1000"));
+
+        BatchAnalyzer analyzer = new BatchAnalyzer(engine, threads, inFlight, blunder);
+        long start = System.nanoTime();
+        analyzer.run(inputs, out);
+        analyzer.printReport(System.nanoTime() - start);
+    }
+
+    /**
+     * Input: inputs - .psq files or directories holding them; output - the CSV file to write.
+     * Output: None
+     * Logic: Starts the workers and the writer, reads the games on this thread, then lets the pipeline
+     * drain. A file that can't be read is skipped; a failure to write the output stops the reading and
+     * is thrown at the end.
+     */
+    public void run(List<Path> inputs, Path output) throws IOException, InterruptedException {
+        try (BufferedWriter out = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            out.write(HEADER);
+            out.newLine();
+            Thread[] workers = new Thread[threads];
+            for (int i = 0; i < threads; i++) {
+                workers[i] = new Thread(new Worker(), "analysis-" + i);
+                workers[i].start();
+            }
+            Thread writer = new Thread(() -> write(out), "analysis-writer");
+            writer.start();
+            try {
+                read(inputs);
+            } finally {
+                for (int i = 0; i < threads; i++) toAnalyse.put(END);
+                for (Thread worker : workers) worker.join();
+                analysed.put(END);
+                writer.join();
+            }
+        }
+        if (writeFailure != null) throw writeFailure;
+    }
+
+    // Reads the games in order and queues them, waiting whenever the window is full.
+    private void read(List<Path> inputs) throws IOException, InterruptedException {
+        long sequence = 0;
+        for (Path input : inputs) {
+            boolean directory = Files.isDirectory(input);
+            // Files.walk visits the tree lazily, so a huge archive isn't listed into memory first.
+            try (Stream<Path> walk = Files.walk(input)) {
+                Iterator<Path> files = walk.filter(p -> !directory || p.toString().toLowerCase().endsWith(".psq"))
+                        .filter(Files::isRegularFile).iterator();
+                while (files.hasNext()) {
+                    Path file = files.next();
+                    try (PsqReader.Games reader = PsqReader.games(file)) {
+                        int[] moves;
+                        while ((moves = reader.next()) != null) {
+                            window.acquire();
+                            if (writeFailure != null) return;
+                            toAnalyse.put(new Game(sequence++, file, reader.getIndex(), moves));
+                        }
+                        skippedGames += reader.getSkipped();
+                    } catch (IOException e) {
+                        System.err.println("Skipping " + file + ": " + e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * One worker thread with its own Model. The SearchListener keeps the score of the last completed
+     * iteration, which is the score of the move the search returns.
+     */
+    private final class Worker implements Runnable, Model.SearchListener {
+        private final Model model = engine.newModel();
+        private final SearchStats stats = new SearchStats();
+        private double lastScore;
+
+        Worker() {
+            model.setSearchStats(stats);
+            model.setSearchListener(this);
+        }
+
+        @Override
+        public void onIterationComplete(int depth, Move bestMove, double score) {
+            lastScore = score;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    Game game = toAnalyse.take();
+                    if (game == END) return;
+                    try {
+                        analyse(game);
+                    } catch (RuntimeException e) {
+                        game.error = e.toString();
+                    }
+                    analysed.put(game);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Input: game - a game read from the archive.
+         * Output: None (the results are stored in the game)
+         * Logic: Starts a new game on the worker's Model and searches every position before playing the
+         * recorded move. Stops after a move that makes five.
+         */
+        private void analyse(Game game) {
+            model.resetGame();
+            Arrays.fill(game.played, Double.NaN);
+            for (int ply = 0; ply < game.moves.length; ply++) {
+                int player = model.getCurrentPlayer();
+                lastScore = Double.NaN;
+                Move best = engine.chooseMove(model, player);
+                game.best[ply] = best.row * N + best.col;
+                game.scores[ply] = score(stats.getSource());
+                if (ply > 0) game.played[ply - 1] = -game.scores[ply];
+                game.plies = ply + 1;
+
+                int row = game.moves[ply] / N;
+                int col = game.moves[ply] % N;
+                if (!model.makeMove(row, col)) {
+                    throw new IllegalStateException("Move " + (ply + 1) + " is on an occupied cell");
+                }
+                if (model.checkWin(row, col) != Model.EMPTY) {
+                    game.played[ply] = WIN_SCORE;
+                    return;
+                }
+                model.changePlayer();
+            }
+        }
+
+        // The score of the last search for the side to move; NaN when the move came without a scored search.
+        private double score(SearchStats.Source source) {
+            switch (source) {
+                case IMMEDIATE_WIN:
+                case THREAT_SOLVER:
+                    return WIN_SCORE;
+                case BOOK:
+                    return Double.NaN;
+                default:
+                    return lastScore;
+            }
+        }
+    }
+
+    // Runs on the writer thread: writes the analysed games in the order they were read.
+    private void write(BufferedWriter out) {
+        Map<Long, Game> pending = new HashMap<>();
+        StringBuilder line = new StringBuilder();
+        long next = 0;
+        try {
+            while (true) {
+                Game game = analysed.take();
+                if (game == END) return;
+                pending.put(game.sequence, game);
+                for (Game ready; (ready = pending.remove(next)) != null; next++) {
+                    if (writeFailure == null) {
+                        try {
+                            writeGame(out, ready, line);
+                        } catch (IOException e) {
+                            writeFailure = e; // Keep draining, so the reader isn't left waiting for permits
+                        }
+                    }
+                    window.release();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeGame(BufferedWriter out, Game game, StringBuilder line) throws IOException {
+        if (game.error != null) {
+            failedGames++;
+            System.err.println("Could not analyse game " + game.index + " of " + game.file + ": " + game.error);
+            return;
+        }
+        String file = "\"" + game.file.toString().replace("\"", "\"\"") + "\"";
+        for (int ply = 0; ply < game.plies; ply++) {
+            double loss = game.best[ply] == game.moves[ply] ? 0 : game.scores[ply] - game.played[ply];
+            boolean blunder = loss >= blunderLoss; // False when either score is unknown (NaN)
+            line.setLength(0);
+            line.append(file).append(',').append(game.index).append(',').append(ply + 1).append(',')
+                    .append(ply % 2 == 0 ? 'X' : 'O').append(',');
+            appendCell(line, game.moves[ply]);
+            appendCell(line, game.best[ply]);
+            appendScore(line, game.scores[ply]);
+            appendScore(line, loss);
+            line.append(blunder ? 1 : 0);
+            out.append(line);
+            out.newLine();
+            positions++;
+            if (blunder) blunders++;
+        }
+        games++;
+        if (games % 1000 == 0) System.out.println(games + " games, " + positions + " positions");
+    }
+
+    private static void appendCell(StringBuilder line, int cell) {
+        line.append(cell % N + 1).append(',').append(cell / N + 1).append(',');
+    }
+
+    // Scores are whole numbers; unknown ones are left empty.
+    private static void appendScore(StringBuilder line, double score) {
+        if (!Double.isNaN(score)) line.append(Math.round(score));
+        line.append(',');
+    }
+
+    private void printReport(long wallNanos) {
+        double seconds = wallNanos / 1e9;
+        System.out.println();
+        System.out.println("engine: " + engine + ", " + threads + " threads");
+        System.out.printf("%d games, %d positions, %d blunders (%d games skipped, %d failed)%n",
+                games, positions, blunders, skippedGames, failedGames);
+        System.out.printf("%.1f s, %.1f positions/s%n", seconds, positions / seconds);
+    }
+}
@@ -0,0 +1,279 @@
+package com.example.largetictac.tools;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Performance regression gate: compares JMH results with a stored baseline and fails (exit code 1)
+ * when a benchmark got worse by more than the threshold.
+ *
+ *   BenchmarkGate <results.json> <baseline.json> [--threshold=10]
+ *
+ * Both files are JMH JSON results (the baseline is simply an earlier results.json, see the
+ * benchmarkBaseline task). Benchmarks are matched by name and parameters. The score gets worse when it
+ * drops in throughput mode and when it grows in the time modes (avgt, sample, ss). The bytes allocated
+ * per operation (gc profiler) count too: growing by more than the threshold and ALLOC_SLACK_BYTES is a
+ * regression, so an allocation-free path can't start allocating unnoticed.
+ *
+ * Benchmarks only in the results are listed as new, ones only in the baseline as missing; neither
+ * fails the gate. Without a baseline file the gate says so and passes.
+ */
+public class BenchmarkGate {
+    // JMH 1.37 (see libs.versions.toml) names the gc profiler's metric without the "·" older versions put first.
+    private static final String[] ALLOC_METRICS = {"gc.alloc.rate.norm", "·gc.alloc.rate.norm"};
+    // A few bytes per operation come and go with JIT decisions.
+    private static final double ALLOC_SLACK_BYTES = 16;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: BenchmarkGate <results.json> <baseline.json> [--threshold=percent]");
+            System.exit(2);
+        }
+        Path results = Paths.get(args[0]);
+        Path baseline = Paths.get(args[1]);
+        double threshold = 10;
+        for (int i = 2; i < args.length; i++) {
+            if (!args[i].startsWith("--threshold=")) throw new IllegalArgumentException("Unknown option: " + args[i]);
+            threshold = Double.parseDouble(args[i].substring("--threshold=".length()));
+        }
+        if (!Files.exists(baseline)) {
+            System.out.println("No baseline at " + baseline + "; record one with ./gradlew :tools:benchmarkBaseline");
+            return;
+        }
+        int regressions = compare(read(baseline), read(results), threshold);
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) regressed by more than %.1f%%%n", regressions, threshold);
+            System.exit(1);
+        }
+        System.out.printf("No benchmark regressed by more than %.1f%%%n", threshold);
+    }
+
+    /**
+     * One benchmark result: its score, whether higher is better, and bytes allocated per operation
+     * (NaN without the gc profiler).
+     */
+    static final class Result {
+        final double score;
+        final String unit;
+        final boolean higherIsBetter;
+        final double allocBytes;
+
+        Result(double score, String unit, boolean higherIsBetter, double allocBytes) {
+            this.score = score;
+            this.unit = unit;
+            this.higherIsBetter = higherIsBetter;
+            this.allocBytes = allocBytes;
+        }
+    }
+
+    /**
+     * Input: baseline, current - results by benchmark key; threshold (double) - percent.
+     * Output: int - How many benchmarks regressed. Prints one line per benchmark.
+     */
+    static int compare(Map<String, Result> baseline, Map<String, Result> current, double threshold) {
+        int regressions = 0;
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result now = entry.getValue();
+            Result before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("NEW         %s: %.4g %s%n", entry.getKey(), now.score, now.unit);
+                continue;
+            }
+            // Positive = worse, in percent of the baseline
+            double worse = 100.0 * (now.score - before.score) / before.score * (now.higherIsBetter ? -1 : 1);
+            boolean regressed = worse > threshold;
+            String alloc = "";
+            if (!Double.isNaN(now.allocBytes) && !Double.isNaN(before.allocBytes)) {
+                double grown = now.allocBytes - before.allocBytes;
+                if (grown > ALLOC_SLACK_BYTES && grown > before.allocBytes * threshold / 100.0) regressed = true;
+                alloc = String.format(", %.0f -> %.0f B/op", before.allocBytes, now.allocBytes);
+            }
+            if (regressed) regressions++;
+            System.out.printf("%-11s %s: %.4g -> %.4g %s (%.1f%% %s)%s%n", regressed ? "REGRESSION" : "ok",
+                    entry.getKey(), before.score, now.score, now.unit, Math.abs(worse), worse > 0 ? "worse" : "better",
+                    alloc);
+        }
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key)) System.out.println("MISSING     " + key);
+        }
+        return regressions;
+    }
+
+    /**
+     * Input: file - JMH results in JSON.
+     * Output: Map - Result by key: the benchmark name, then its parameters as [name=value, ...].
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Result> read(Path file) throws IOException {
+        Object json = new JsonParser(new String(Files.readAllBytes(file), StandardCharsets.UTF_8)).parse();
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (Object item : (List<Object>) json) {
+            Map<String, Object> run = (Map<String, Object>) item;
+            String key = (String) run.get("benchmark");
+            Object params = run.get("params");
+            if (params != null) key += " " + new TreeMap<>((Map<String, Object>) params);
+            String mode = (String) run.get("mode");
+            Map<String, Object> primary = (Map<String, Object>) run.get("primaryMetric");
+            Map<String, Object> secondary = (Map<String, Object>) run.get("secondaryMetrics");
+            results.put(key, new Result(number(primary.get("score")), (String) primary.get("scoreUnit"),
+                    "thrpt".equals(mode), secondary != null ? allocBytes(secondary) : Double.NaN));
+        }
+        return results;
+    }
+
+    // Bytes per operation from the gc profiler's metrics, NaN when it didn't run.
+    @SuppressWarnings("unchecked")
+    private static double allocBytes(Map<String, Object> secondary) {
+        for (String name : ALLOC_METRICS) {
+            Object metric = secondary.get(name);
+            if (metric != null) return number(((Map<String, Object>) metric).get("score"));
+        }
+        return Double.NaN;
+    }
+
+    private static double number(Object value) {
+        if (value instanceof Double) return (Double) value;
+        return Double.parseDouble(String.valueOf(value)); // JMH writes "NaN" as a string
+    }
+
+    /**
+     * Just enough JSON for JMH's result files: objects, arrays, strings, numbers, true/false/null,
+     * and bare NaN/Infinity. Numbers become Double.
+     */
+    static final class JsonParser {
+        private final String text;
+        private int pos;
+
+        JsonParser(String text) {
+            this.text = text;
+        }
+
+        Object parse() {
+            Object value = value();
+            skipSpace();
+            if (pos != text.length()) throw error("Trailing characters");
+            return value;
+        }
+
+        private Object value() {
+            skipSpace();
+            if (pos >= text.length()) throw error("Unexpected end");
+            char c = text.charAt(pos);
+            if (c == '{') return object();
+            if (c == '[') return array();
+            if (c == '"') return string();
+            if (text.startsWith("true", pos)) return literal("true", Boolean.TRUE);
+            if (text.startsWith("false", pos)) return literal("false", Boolean.FALSE);
+            if (text.startsWith("null", pos)) return literal("null", null);
+            return number();
+        }
+
+        private Map<String, Object> object() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            pos++;
+            skipSpace();
+            if (peek() == '}') {
+                pos++;
+                return map;
+            }
+            while (true) {
+                skipSpace();
+                String key = string();
+                skipSpace();
+                expect(':');
+                map.put(key, value());
+                skipSpace();
+                if (peek() == ',') {
+                    pos++;
+                } else {
+                    expect('}');
+                    return map;
+                }
+            }
+        }
+
+        private List<Object> array() {
+            List<Object> list = new ArrayList<>();
+            pos++;
+            skipSpace();
+            if (peek() == ']') {
+                pos++;
+                return list;
+            }
+            while (true) {
+                list.add(value());
+                skipSpace();
+                if (peek() == ',') {
+                    pos++;
+                } else {
+                    expect(']');
+                    return list;
+                }
+            }
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder out = new StringBuilder();
+            while (true) {
+                if (pos >= text.length()) throw error("Unterminated string");
+                char c = text.charAt(pos++);
+                if (c == '"') return out.toString();
+                if (c != '\\') {
+                    out.append(c);
+                    continue;
+                }
+                char escaped = text.charAt(pos++);
+                switch (escaped) {
+                    case 'n': out.append('\n'); break;
+                    case 't': out.append('\t'); break;
+                    case 'r': out.append('\r'); break;
+                    case 'b': out.append('\b'); break;
+                    case 'f': out.append('\f'); break;
+                    case 'u':
+                        out.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        pos += 4;
+                        break;
+                    default: out.append(escaped); break; // \" \\ \/
+                }
+            }
+        }
+
+        private Double number() {
+            int start = pos;
+            while (pos < text.length() && "+-0123456789.eEaNIfinity".indexOf(text.charAt(pos)) >= 0) pos++;
+            if (start == pos) throw error("Unexpected character '" + text.charAt(pos) + "'");
+            return Double.valueOf(text.substring(start, pos));
+        }
+
+        private Object literal(String word, Object value) {
+            pos += word.length();
+            return value;
+        }
+
+        private void expect(char c) {
+            if (peek() != c) throw error("Expected '" + c + "'");
+            pos++;
+        }
+
+        private char peek() {
+            return pos < text.length() ? text.charAt(pos) : '\0';
+        }
+
+        private void skipSpace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at character " + pos);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.largetictac.tools;
+
+import com.example.largetictac.ArrayBoard;
+import com.example.largetictac.MctsSearch;
+import com.example.largetictac.Model;
+import com.example.largetictac.Move;
+import com.example.largetictac.OpeningBook;
+import com.example.largetictac.SearchBudget;
+import com.example.largetictac.TranspositionTable;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * One engine setup for the command-line tools, parsed from a spec like
+ * "time=200,eval=classic,solver=off".
+ *
+ *   time=ms      iterative deepening with a time budget per move
+ *   nodes=N      iterative deepening with a node budget per move
+ *   depth=N      iterative deepening up to N plies (alone, or as a cap with time/nodes)
+ *                With none of the three, the original fixed 2-ply getHeuristicMove is used.
+ *   eval=pattern|classic   PatternTable scores (default) or 2^count scores
+ *   solver=on|off          threat solver before the search (default on)
+ *   tt=on|off              transposition table (default on)
+ *   pvs=on|off             principal variation search, aspiration windows and late move reductions (default on)
+ *   book=path              opening book file
+ *   search=minimax|mcts    search algorithm (default minimax). mcts needs time, nodes (= playouts) or depth
+ *   threads=N              playout threads of mcts (default 1)
+ *   priors=on|off          mcts explores by move ordering priors (PUCT) instead of plain UCT (default off)
+ */
+public class EngineConfig {
+    public final String spec;
+    private final SearchBudget budget;
+    private final boolean patternEvaluation;
+    private final boolean threatSolver;
+    private final boolean transpositionTable;
+    private final boolean principalVariation;
+    private final OpeningBook book;
+    private final boolean mcts;
+    private final int mctsThreads;
+    private final boolean mctsPriors;
+
+    private EngineConfig(String spec, SearchBudget budget, boolean patternEvaluation, boolean threatSolver,
+                         boolean transpositionTable, boolean principalVariation, OpeningBook book, boolean mcts, int mctsThreads,
+                         boolean mctsPriors) {
+        this.spec = spec;
+        this.budget = budget;
+        this.patternEvaluation = patternEvaluation;
+        this.threatSolver = threatSolver;
+        this.transpositionTable = transpositionTable;
+        this.principalVariation = principalVariation;
+        this.book = book;
+        this.mcts = mcts;
+        this.mctsThreads = mctsThreads;
+        this.mctsPriors = mctsPriors;
+    }
+
+    /**
+     * Input: spec (String) - comma-separated key=value pairs, see the class comment. "" is the default engine.
+     * Output: EngineConfig
+     * Logic: Throws IllegalArgumentException for unknown keys or bad values.
+     */
+    public static EngineConfig parse(String spec) throws IOException {
+        long time = 0;
+        long nodes = 0;
+        int depth = 0;
+        boolean pattern = true;
+        boolean solver = true;
+        boolean tt = true;
+        boolean pvs = true;
+        OpeningBook book = null;
+        boolean mcts = false;
+        int threads = 1;
+        boolean priors = false;
+        for (String part : spec.split(",")) {
+            if (part.trim().isEmpty()) continue;
+            String[] kv = part.split("=", 2);
+            if (kv.length != 2) throw new IllegalArgumentException("Expected key=value: " + part);
+            String key = kv[0].trim();
+            String value = kv[1].trim();
+            switch (key) {
+                case "time": time = Long.parseLong(value); break;
+                case "nodes": nodes = Long.parseLong(value); break;
+                case "depth": depth = Integer.parseInt(value); break;
+                case "eval": pattern = parseChoice(key, value, "pattern", "classic"); break;
+                case "solver": solver = parseChoice(key, value, "on", "off"); break;
+                case "tt": tt = parseChoice(key, value, "on", "off"); break;
+                case "pvs": pvs = parseChoice(key, value, "on", "off"); break;
+                case "book": book = OpeningBook.open(Paths.get(value)); break;
+                case "search": mcts = !parseChoice(key, value, "minimax", "mcts"); break;
+                case "threads": threads = Integer.parseInt(value); break;
+                case "priors": priors = parseChoice(key, value, "on", "off"); break;
+                default: throw new IllegalArgumentException("Unknown engine option: " + key);
+            }
+        }
+        SearchBudget budget = null;
+        if (time > 0 || nodes > 0 || depth > 0) {
+            budget = new SearchBudget(time, nodes, depth > 0 ? depth : 64);
+        }
+        if (mcts && budget == null) {
+            throw new IllegalArgumentException("search=mcts needs time, nodes or depth: " + spec);
+        }
+        return new EngineConfig(spec, budget, pattern, solver, tt, pvs, book, mcts, threads, priors);
+    }
+
+    private static boolean parseChoice(String key, String value, String yes, String no) {
+        if (value.equals(yes)) return true;
+        if (value.equals(no)) return false;
+        throw new IllegalArgumentException(key + " must be " + yes + " or " + no + ": " + value);
+    }
+
+    /**
+     * Output: Model - A new game with this configuration applied (with mcts, its own MctsSearch).
+     */
+    public Model newModel() {
+        return configure(new Model(), mcts ? new MctsSearch(mctsThreads) : null);
+    }
+
+    /**
+     * Input: size (int) - rows and columns of the board; memoryBytes (long) - memory for what the search
+     * remembers: the transposition table, or with mcts the tree.
+     * Output: Model - Same as newModel(), on a size x size board with tables that fit in memoryBytes.
+     */
+    public Model newModel(int size, long memoryBytes) {
+        if (mcts) {
+            int capacity = (int) Math.min(memoryBytes / MctsSearch.BYTES_PER_NODE, Integer.MAX_VALUE);
+            Model model = new Model(new ArrayBoard(size),
+                    TranspositionTable.withMaxBytes(0, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED));
+            return configure(model, new MctsSearch(mctsThreads, Math.max(capacity, 1)));
+        }
+        Model model = new Model(new ArrayBoard(size),
+                TranspositionTable.withMaxBytes(memoryBytes, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED));
+        return configure(model, null);
+    }
+
+    private Model configure(Model model, MctsSearch search) {
+        model.setPatternEvaluationEnabled(patternEvaluation);
+        model.setThreatSolverEnabled(threatSolver);
+        model.setTranspositionTableEnabled(transpositionTable);
+        model.setPrincipalVariationSearchEnabled(principalVariation);
+        model.setOpeningBook(book);
+        if (search != null) {
+            search.setPriorsEnabled(mctsPriors);
+            model.setMctsSearch(search);
+        }
+        return model;
+    }
+
+    /**
+     * Input: model - a Model made by newModel; player (int) - the side to move.
+     * Output: Move - This engine's move.
+     */
+    public Move chooseMove(Model model, int player) {
+        if (budget == null) return model.getHeuristicMove(player, -player);
+        return model.getHeuristicMove(player, -player, budget);
+    }
+
+    /**
+     * Output: boolean - True if moves come from the anytime search (time, nodes or depth was given),
+     * which reports its score through Model.SearchListener.
+     */
+    public boolean hasBudget() {
+        return budget != null;
+    }
+
+    /**
+     * Output: SearchBudget - The limits of the anytime search, or null without time, nodes or depth.
+     */
+    public SearchBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * Output: int - The depth cap of the anytime search (64 when none was given).
+     */
+    public int getMaxDepth() {
+        return budget == null ? 64 : budget.maxDepth;
+    }
+
+    @Override
+    public String toString() {
+        return spec.isEmpty() ? "default" : spec;
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.largetictac.tools;
+
+import com.example.largetictac.ArrayBoard;
+import com.example.largetictac.Board;
+import com.example.largetictac.Model;
+import com.example.largetictac.Move;
+import com.example.largetictac.OpeningBook;
+import com.example.largetictac.SearchBudget;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Builds an opening book file offline.
+ *
+ *   selfplay <out.book> [--games=200] [--plies=8] [--time=3000] [--seed=1]
+ *       Plays games from random starts (1-2 random stones near the centre). Every position up to
+ *       --plies stones gets the move of a --time ms search, so the book is a deeper search than the
+ *       app can afford per move. Positions already in the book are not searched again.
+ *
+ *   records <out.book> <file.psq | directory>... [--plies=8] [--min-games=2]
+ *       Reads finished games and, for every position up to --plies stones, keeps the move with the
+ *       best score for the side that played it (win 1, draw 1/2), among moves seen in at least
+ *       --min-games games.
+ */
+public class OpeningBookBuilder {
+    private static final int N = Model.BOARD_SIZE;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: OpeningBookBuilder selfplay <out.book> [--games=N] [--plies=N] [--time=ms] [--seed=N]");
+            System.err.println("       OpeningBookBuilder records <out.book> <file.psq | directory>... [--plies=N] [--min-games=N]");
+            System.exit(2);
+        }
+        Path out = Paths.get(args[1]);
+        Map<String, String> options = new HashMap<>();
+        List<Path> inputs = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].startsWith("--") && args[i].contains("=")) {
+                options.put(args[i].substring(2, args[i].indexOf('=')), args[i].substring(args[i].indexOf('=') + 1));
+            } else {
+                inputs.add(Paths.get(args[i]));
+            }
+        }
+        int plies = Integer.parseInt(options.getOrDefault("plies", "8"));
+
+        List<OpeningBook.Entry> entries;
+        if (args[0].equals("selfplay")) {
+            entries = fromSelfPlay(Integer.parseInt(options.getOrDefault("games", "200")), plies,
+                    Long.parseLong(options.getOrDefault("time", "3000")),
+                    Long.parseLong(options.getOrDefault("seed", "1")));
+        } else if (args[0].equals("records")) {
+            entries = fromRecords(inputs, plies, Integer.parseInt(options.getOrDefault("min-games", "2")));
+        } else {
+            throw new IllegalArgumentException("Unknown mode: " + args[0]);
+        }
+        OpeningBook.write(out, entries, plies - 1);
+        System.out.println("Wrote " + OpeningBook.open(out).size() + " positions to " + out);
+    }
+
+    /**
+     * Input: games, plies, timeMillis, seed - see the class comment.
+     * Output: List of book entries, weight = how often the position came up.
+     */
+    static List<OpeningBook.Entry> fromSelfPlay(int games, int plies, long timeMillis, long seed) {
+        Random random = new Random(seed);
+        SearchBudget budget = SearchBudget.ofTime(timeMillis);
+        Map<Long, int[]> book = new HashMap<>(); // key -> {canonical move, visits}
+
+        for (int game = 0; game < games; game++) {
+            Model model = new Model();
+            Board board = new ArrayBoard();
+            int randomPlies = 1 + random.nextInt(2);
+
+            for (int ply = 0; ply < plies; ply++) {
+                int player = model.getCurrentPlayer();
+                int move;
+                if (ply < randomPlies) {
+                    move = randomCentreMove(board, random);
+                } else {
+                    int symmetry = OpeningBook.canonicalSymmetry(board);
+                    long key = OpeningBook.symmetryKey(board, symmetry);
+                    int[] known = book.get(key);
+                    if (known != null) {
+                        known[1]++;
+                        move = OpeningBook.inverse(symmetry, known[0]);
+                    } else {
+                        Move searched = model.getHeuristicMove(player, -player, budget);
+                        move = searched.row * N + searched.col;
+                        book.put(key, new int[]{OpeningBook.transform(symmetry, move), 1});
+                    }
+                }
+                model.makeMove(move / N, move % N);
+                board.set(move / N, move % N, player);
+                if (model.checkWin(move / N, move % N) != Model.EMPTY) break;
+                model.changePlayer();
+            }
+            System.out.println("game " + (game + 1) + "/" + games + ": " + book.size() + " positions");
+        }
+
+        List<OpeningBook.Entry> entries = new ArrayList<>(book.size());
+        for (Map.Entry<Long, int[]> entry : book.entrySet()) {
+            entries.add(new OpeningBook.Entry(entry.getKey(), entry.getValue()[0], entry.getValue()[1]));
+        }
+        return entries;
+    }
+
+    /**
+     * Input: inputs - .psq files or directories holding them; plies, minGames - see the class comment.
+     * Output: List of book entries, weight = games the chosen move was played in.
+     */
+    static List<OpeningBook.Entry> fromRecords(List<Path> inputs, int plies, int minGames) throws IOException {
+        // key -> canonical move -> {games, points}, points counted in half points (win 2, draw 1)
+        Map<Long, Map<Integer, int[]>> stats = new HashMap<>();
+        int games = 0;
+        for (Path file : listGames(inputs)) {
+            int[] moves;
+            try {
+                moves = PsqReader.read(file);
+            } catch (IOException e) {
+                System.err.println("Skipping " + file + ": " + e.getMessage());
+                continue;
+            }
+            games++;
+            int winner = PsqReader.winner(moves);
+            Board board = new ArrayBoard();
+            int player = Model.PLAYER_X;
+            for (int ply = 0; ply < Math.min(plies, moves.length); ply++) {
+                int symmetry = OpeningBook.canonicalSymmetry(board);
+                long key = OpeningBook.symmetryKey(board, symmetry);
+                int move = OpeningBook.transform(symmetry, moves[ply]);
+                int[] counts = stats.computeIfAbsent(key, k -> new HashMap<>()).computeIfAbsent(move, m -> new int[2]);
+                counts[0]++;
+                counts[1] += winner == player ? 2 : (winner == Model.EMPTY ? 1 : 0);
+
+                board.set(moves[ply] / N, moves[ply] % N, player);
+                player = -player;
+            }
+        }
+        System.out.println("Read " + games + " games, " + stats.size() + " positions");
+
+        List<OpeningBook.Entry> entries = new ArrayList<>();
+        for (Map.Entry<Long, Map<Integer, int[]>> position : stats.entrySet()) {
+            int bestMove = -1;
+            int[] best = null;
+            for (Map.Entry<Integer, int[]> candidate : position.getValue().entrySet()) {
+                int[] counts = candidate.getValue();
+                if (counts[0] < minGames) continue;
+                // Higher average first, then more games
+                if (best == null || (long) counts[1] * best[0] > (long) best[1] * counts[0]
+                        || ((long) counts[1] * best[0] == (long) best[1] * counts[0] && counts[0] > best[0])) {
+                    best = counts;
+                    bestMove = candidate.getKey();
+                }
+            }
+            if (best != null) entries.add(new OpeningBook.Entry(position.getKey(), bestMove, best[0]));
+        }
+        return entries;
+    }
+
+    private static List<Path> listGames(List<Path> inputs) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Path input : inputs) {
+            if (Files.isDirectory(input)) {
+                try (Stream<Path> walk = Files.walk(input)) {
+                    files.addAll(walk.filter(p -> p.toString().toLowerCase().endsWith(".psq"))
+                            .sorted().collect(Collectors.toList()));
+                }
+            } else {
+                files.add(input);
+            }
+        }
+        return files;
+    }
+
+    // A random empty cell at most 2 steps from the centre.
+    private static int randomCentreMove(Board board, Random random) {
+        while (true) {
+            int row = N / 2 - 2 + random.nextInt(5);
+            int col = N / 2 - 2 + random.nextInt(5);
+            if (board.get(row, col) == Model.EMPTY) return row * N + col;
+        }
+    }
+}
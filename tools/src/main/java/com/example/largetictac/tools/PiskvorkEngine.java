@@ -0,0 +1,370 @@
+package com.example.largetictac.tools;
+
+import com.example.largetictac.Model;
+import com.example.largetictac.Move;
+import com.example.largetictac.SearchBudget;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * The engine as a Gomocup brain: speaks the Piskvork protocol on stdin/stdout, so tournament managers
+ * (Piskvork, gomocup's manager, piskvork_linux...) can play it against other engines.
+ *
+ *   PiskvorkEngine [--engine=<spec>]      (or the pbrain-largetictac script of the tools distribution)
+ *
+ * --engine takes an EngineConfig spec, e.g. --engine=pvs=off or --engine=search=mcts,threads=2.
+ * Its time and nodes are not used: the manager's INFO limits decide how long each move may take.
+ *
+ * Commands: START size, RESTART, BEGIN, TURN x,y, BOARD (then x,y,field lines and DONE), TAKEBACK x,y,
+ * INFO key value, ABOUT and END. x is the column and y the row, both from 0. The engine answers a move
+ * as "x,y"; before it, a MESSAGE line tells the depth, nodes and time of the search.
+ *
+ * INFO timeout_turn and timeout_match (ms, 0 = no limit, a turn of 0 = play at once) and time_left
+ * give each move min(turn, time left / MOVES_TO_GO) minus a safety margin. INFO max_memory (bytes,
+ * 0 = no limit) sizes the transposition table (or the mcts tree) after what the JVM itself needs;
+ * the JVM heap caps it too. The tables are made at START, and made again before the next move if
+ * max_memory changes after it.
+ *
+ * A reader thread takes the commands off stdin, so END (or stdin closing) stops a running search.
+ */
+public class PiskvorkEngine {
+    private static final String ABOUT = "name=\"LargeTicTac\", version=\"1.0\"";
+
+    // pisqpipe's defaults, for managers that never send them
+    private static final long DEFAULT_TIMEOUT_TURN = 30000;
+    private static final long DEFAULT_TIMEOUT_MATCH = 0;
+    // The rest of the match time is spread over this many more moves of ours.
+    private static final int MOVES_TO_GO = 20;
+    // Kept back from every move for the pipe, the JIT and the garbage collector: the larger of these.
+    private static final long MIN_RESERVE_MILLIS = 30;
+    private static final int RESERVE_PERCENT = 10;
+    private static final long MIN_MOVE_MILLIS = 5;
+
+    // What the JVM, the code and the board take before any table (a rough measure of a started JVM).
+    private static final long PROCESS_BYTES = 48L << 20;
+    // Table memory without a max_memory limit: plenty for the depths a move reaches in a few seconds.
+    private static final long UNLIMITED_TABLE_BYTES = 256L << 20;
+
+    private final EngineConfig config;
+    private final PrintStream out;
+
+    private int size = Model.BOARD_SIZE;
+    private long timeoutTurn = DEFAULT_TIMEOUT_TURN;
+    private long timeoutMatch = DEFAULT_TIMEOUT_MATCH;
+    private long timeLeft;
+    private long maxMemory;
+
+    // The game as cells (row * size + col) and the colour of each stone, in the order they were played.
+    private final ArrayList<int[]> stones = new ArrayList<>();
+    // null until START, and again after a change the Model can't follow.
+    private volatile Model model;
+    private long modelTableBytes;
+    private boolean started;
+    // Between BOARD and DONE: stone lines, own (1) and opponent's (2) as in the protocol.
+    private ArrayList<int[]> boardLines;
+
+    public PiskvorkEngine(EngineConfig config, PrintStream out) {
+        this.config = config;
+        this.out = out;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String spec = "";
+        for (String arg : args) {
+            if (!arg.startsWith("--engine=")) {
+                System.err.println("usage: PiskvorkEngine [--engine=<spec>]");
+                System.exit(2);
+            }
+            spec = arg.substring("--engine=".length());
+        }
+        // The time is replaced by the INFO limits, but search=mcts won't parse without one.
+        EngineConfig config = EngineConfig.parse("time=1," + spec);
+        PiskvorkEngine engine = new PiskvorkEngine(config, System.out);
+
+        BlockingQueue<String> commands = new LinkedBlockingQueue<>();
+        Thread reader = new Thread(() -> {
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.trim().equalsIgnoreCase("END")) break;
+                    commands.add(line);
+                }
+            } catch (IOException e) {
+                // Nothing more can arrive; same as END.
+            }
+            engine.stop();
+            commands.add("END");
+        }, "piskvork-input");
+        reader.setDaemon(true);
+        reader.start();
+
+        while (engine.handle(commands.take())) {
+            // next command
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Input: None
+     * Output: None
+     * Logic: Safe to call from any thread. A running search returns its best move so far at once;
+     * used when the manager ends the match.
+     */
+    public void stop() {
+        Model current = model;
+        if (current != null) current.stopSearch();
+    }
+
+    /**
+     * Input: line (String) - one line from the manager.
+     * Output: boolean - False after END, true otherwise.
+     * Logic: Runs the command and prints the answer. Errors are answered with ERROR, unknown commands
+     * with UNKNOWN, as the protocol asks; the engine keeps running either way.
+     */
+    public boolean handle(String line) {
+        line = line.trim();
+        if (line.isEmpty()) return true;
+        int space = line.indexOf(' ');
+        String command = (space < 0 ? line : line.substring(0, space)).toUpperCase(Locale.ROOT);
+        String argument = space < 0 ? "" : line.substring(space + 1).trim();
+        try {
+            if (boardLines != null) {
+                boardLine(line);
+                return true;
+            }
+            switch (command) {
+                case "START": start(argument); break;
+                case "RESTART": restart(); break;
+                case "BEGIN": begin(); break;
+                case "TURN": turn(argument); break;
+                case "BOARD": requireStarted(); boardLines = new ArrayList<>(); break;
+                case "TAKEBACK": takeback(argument); break;
+                case "INFO": info(argument); break;
+                case "ABOUT": send(ABOUT); break;
+                case "END": return false;
+                default: send("UNKNOWN " + command); break;
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            send("ERROR " + e.getMessage());
+        }
+        return true;
+    }
+
+    private void start(String argument) {
+        int newSize;
+        try {
+            newSize = Integer.parseInt(argument);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("START needs the board size: " + argument);
+        }
+        if (newSize < 5 || newSize > 100) throw new IllegalArgumentException("unsupported size " + newSize);
+        if (newSize != size) model = null;
+        size = newSize;
+        restart();
+    }
+
+    private void restart() {
+        started = true;
+        stones.clear();
+        timeLeft = timeoutMatch;
+        Model current = model;
+        if (current != null) {
+            current.resetGame();
+        } else {
+            position(); // Allocates the tables now rather than in the first move's time
+        }
+        send("OK");
+    }
+
+    private void begin() {
+        requireStarted();
+        if (!stones.isEmpty()) throw new IllegalStateException("BEGIN on a board with stones");
+        play(Model.PLAYER_X);
+    }
+
+    private void turn(String argument) {
+        requireStarted();
+        int cell = parseCell(argument);
+        // The opponent's stone has the colour whose turn it is; the reply is the other colour.
+        int opponent = stones.size() % 2 == 0 ? Model.PLAYER_X : Model.PLAYER_O;
+        place(cell, opponent);
+        play(-opponent);
+    }
+
+    private void boardLine(String line) {
+        if (line.equalsIgnoreCase("DONE")) {
+            ArrayList<int[]> lines = boardLines;
+            boardLines = null;
+            int own = 0;
+            for (int[] stone : lines) if (stone[1] == 1) own++;
+            // Whoever has fewer stones (X when it's even) is to move, and that is us.
+            int me = own * 2 == lines.size() ? Model.PLAYER_X : Model.PLAYER_O;
+            stones.clear();
+            model = null;
+            for (int[] stone : lines) {
+                place(stone[0], stone[1] == 1 ? me : -me);
+            }
+            play(me);
+            return;
+        }
+        String[] parts = line.split(",");
+        if (parts.length != 3) {
+            send("ERROR expected x,y,field: " + line);
+            return;
+        }
+        try {
+            int cell = parseCell(parts[0] + "," + parts[1]);
+            int field = Integer.parseInt(parts[2].trim());
+            if (field != 1 && field != 2) throw new IllegalArgumentException("unsupported field " + field);
+            boardLines.add(new int[]{cell, field});
+        } catch (IllegalArgumentException e) {
+            send("ERROR " + e.getMessage());
+        }
+    }
+
+    private void takeback(String argument) {
+        requireStarted();
+        int cell = parseCell(argument);
+        if (stones.isEmpty() || stones.get(stones.size() - 1)[0] != cell) {
+            throw new IllegalArgumentException("not the last move: " + argument);
+        }
+        stones.remove(stones.size() - 1);
+        // The Model can't take a stone back; it is rebuilt from the list at the next move.
+        model = null;
+        send("OK");
+    }
+
+    private void info(String argument) {
+        String[] kv = argument.split("\\s+", 2);
+        if (kv.length != 2) return;
+        long value;
+        try {
+            value = Long.parseLong(kv[1].trim());
+        } catch (NumberFormatException e) {
+            return; // game_type, rule, evaluate, folder: nothing the engine uses
+        }
+        switch (kv[0].toLowerCase(Locale.ROOT)) {
+            case "timeout_turn": timeoutTurn = value; break;
+            case "timeout_match": timeoutMatch = value; timeLeft = value; break;
+            case "time_left": timeLeft = value; break;
+            case "max_memory": maxMemory = value; break;
+            default: break;
+        }
+    }
+
+    /**
+     * Input: player (int) - our colour, the side to move.
+     * Output: None
+     * Logic: Searches within this move's time, plays the move and sends it.
+     */
+    private void play(int player) {
+        Model current = position();
+        if (current.getCurrentPlayer() != player) current.changePlayer();
+        long moveMillis = moveTime();
+        long start = System.nanoTime();
+        // The search would try every cell of an empty board; the centre is the usual first move anyway.
+        boolean search = !stones.isEmpty();
+        Move move = search
+                ? current.getHeuristicMove(player, -player, new SearchBudget(moveMillis, 0, config.getMaxDepth()))
+                : new Move(size / 2, size / 2);
+        long elapsed = (System.nanoTime() - start) / 1000000L;
+        if (timeoutMatch > 0) timeLeft -= elapsed;
+
+        int cell = move.row * size + move.col;
+        if (!current.isLegal(move.row, move.col)) {
+            send("ERROR no legal move");
+            return;
+        }
+        place(cell, player);
+        if (search) {
+            send(String.format(Locale.ROOT, "MESSAGE depth %d, %d nodes, %d of %d ms",
+                    current.getLastCompletedDepth(), current.getNodeCount(), elapsed, moveMillis));
+        }
+        send(move.col + "," + move.row);
+    }
+
+    /**
+     * Output: long - Milliseconds for the next search: the turn limit and a share of the match time,
+     * less a margin so the answer is in before the manager's clock runs out.
+     */
+    private long moveTime() {
+        long limit = timeoutTurn > 0 ? timeoutTurn : MIN_MOVE_MILLIS;
+        if (timeoutMatch > 0) limit = Math.min(limit, Math.max(timeLeft, 0) / MOVES_TO_GO);
+        long reserve = Math.max(MIN_RESERVE_MILLIS, limit * RESERVE_PERCENT / 100);
+        return Math.max(limit - reserve, MIN_MOVE_MILLIS);
+    }
+
+    /**
+     * Output: long - Bytes for the transposition table (or tree): max_memory less what the process
+     * needs anyway, at most half the JVM heap.
+     */
+    private long tableBytes() {
+        long bytes = maxMemory > 0 ? maxMemory - PROCESS_BYTES : UNLIMITED_TABLE_BYTES;
+        bytes = Math.min(bytes, Runtime.getRuntime().maxMemory() / 2);
+        return Math.max(bytes, 0);
+    }
+
+    /**
+     * Output: Model - The game so far, on a Model whose tables match the memory limit.
+     * Logic: Keeps the Model (and what its tables learned) from move to move; makes a new one and
+     * replays the stones after a new size, a new memory limit, BOARD or TAKEBACK.
+     */
+    private Model position() {
+        long bytes = tableBytes();
+        Model current = model;
+        if (current != null && bytes == modelTableBytes) return current;
+        current = config.newModel(size, bytes);
+        for (int[] stone : stones) {
+            if (current.getCurrentPlayer() != stone[1]) current.changePlayer();
+            current.makeMove(stone[0] / size, stone[0] % size);
+            current.changePlayer();
+        }
+        modelTableBytes = bytes;
+        model = current;
+        return current;
+    }
+
+    private void place(int cell, int player) {
+        for (int[] stone : stones) {
+            if (stone[0] == cell) throw new IllegalArgumentException("occupied: " + cell % size + "," + cell / size);
+        }
+        stones.add(new int[]{cell, player});
+        Model current = model;
+        if (current != null) {
+            if (current.getCurrentPlayer() != player) current.changePlayer();
+            current.makeMove(cell / size, cell % size);
+            current.changePlayer();
+        }
+    }
+
+    private int parseCell(String text) {
+        String[] parts = text.split(",");
+        try {
+            if (parts.length == 2) {
+                int x = Integer.parseInt(parts[0].trim());
+                int y = Integer.parseInt(parts[1].trim());
+                if (x >= 0 && x < size && y >= 0 && y < size) return y * size + x;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("bad coordinates: " + text);
+    }
+
+    private void requireStarted() {
+        if (!started) throw new IllegalStateException("START first");
+    }
+
+    private void send(String line) {
+        out.println(line);
+        out.flush();
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.largetictac.tools;
+
+import com.example.largetictac.Model;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads games saved in Piskvork's PSQ format:
+ *
+ *   Piskvorky 15x15, 11:11, 0
+ *   8,8,0
+ *   9,7,1203
+ *   ...
+ *
+ * The first line names the board size, then one "x,y,time" line per move (1-based column, row,
+ * milliseconds). Anything after the last move line (engine names, results) is ignored.
+ *
+ * Archives may hold many games in one file, one after another; Games reads those one game at a time.
+ */
+public final class PsqReader {
+    private static final int N = Model.BOARD_SIZE;
+
+    private PsqReader() {
+    }
+
+    /**
+     * Input: file (Path) - a .psq file.
+     * Output: int[] - The moves in order, packed as row * BOARD_SIZE + col.
+     */
+    public static int[] read(Path file) throws IOException {
+        return parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Input: text (String) - the whole content of a PSQ file.
+     * Output: int[] - The moves in order, packed as row * BOARD_SIZE + col.
+     * Logic: Checks the header is a 15x15 game, then reads move lines until the first line that
+     * isn't one. Throws IOException for other board sizes, moves off the board or repeated cells.
+     */
+    public static int[] parse(String text) throws IOException {
+        String[] lines = text.split("\r?\n");
+        if (lines.length == 0 || !lines[0].startsWith("Piskvorky")) {
+            throw new IOException("Not a PSQ game: missing 'Piskvorky' header");
+        }
+        String size = lines[0].substring("Piskvorky".length()).trim();
+        if (!size.startsWith(N + "x" + N)) {
+            throw new IOException("Only " + N + "x" + N + " games are supported: " + lines[0]);
+        }
+
+        int[] moves = new int[N * N];
+        boolean[] used = new boolean[N * N];
+        int count = 0;
+        for (int i = 1; i < lines.length; i++) {
+            String[] parts = lines[i].trim().split(",");
+            if (parts.length != 3) break;
+            int x;
+            int y;
+            try {
+                x = Integer.parseInt(parts[0].trim());
+                y = Integer.parseInt(parts[1].trim());
+                Integer.parseInt(parts[2].trim());
+            } catch (NumberFormatException e) {
+                break; // First non-move line
+            }
+            if (x < 1 || x > N || y < 1 || y > N) {
+                throw new IOException("Move off the board on line " + (i + 1) + ": " + lines[i]);
+            }
+            int cell = (y - 1) * N + (x - 1);
+            if (used[cell]) {
+                throw new IOException("Cell played twice on line " + (i + 1) + ": " + lines[i]);
+            }
+            used[cell] = true;
+            moves[count++] = cell;
+        }
+        int[] result = new int[count];
+        System.arraycopy(moves, 0, result, 0, count);
+        return result;
+    }
+
+    /**
+     * Input: file (Path) - a .psq file holding one or more games, each starting with its own header.
+     * Output: Games - Reads the games one by one, so only one game is in memory at a time.
+     */
+    public static Games games(Path file) throws IOException {
+        return new Games(Files.newBufferedReader(file, StandardCharsets.UTF_8), file);
+    }
+
+    /**
+     * The games of one file, read line by line. Malformed games are reported on stderr and skipped.
+     */
+    public static final class Games implements Closeable {
+        private final BufferedReader reader;
+        private final Path file;
+        private final StringBuilder text = new StringBuilder();
+        // The header line of the next game, already read (null at the start and at the end of the file)
+        private String header;
+        private int index;
+        private int skipped;
+
+        private Games(BufferedReader reader, Path file) {
+            this.reader = reader;
+            this.file = file;
+        }
+
+        /**
+         * Input: None
+         * Output: int[] - The next game's moves (see parse), or null after the last game.
+         * Logic: Collects the lines from one "Piskvorky" header up to the next and parses them.
+         * Lines before the first header are ignored.
+         */
+        public int[] next() throws IOException {
+            while (header == null) {
+                header = reader.readLine();
+                if (header == null) return null;
+                if (!header.startsWith("Piskvorky")) header = null;
+            }
+            while (true) {
+                text.setLength(0);
+                text.append(header).append('\n');
+                header = null;
+                String line;
+                while ((line = reader.readLine()) != null && !line.startsWith("Piskvorky")) {
+                    text.append(line).append('\n');
+                }
+                header = line;
+                index++;
+                try {
+                    return parse(text.toString());
+                } catch (IOException e) {
+                    skipped++;
+                    System.err.println("Skipping game " + index + " of " + file + ": " + e.getMessage());
+                    if (header == null) return null;
+                }
+            }
+        }
+
+        /**
+         * Output: int - 1-based position in the file of the game last returned by next (skipped games count too).
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * Output: int - How many malformed games were skipped so far.
+         */
+        public int getSkipped() {
+            return skipped;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * Input: moves - a game, X moves first.
+     * Output: int - PLAYER_X or PLAYER_O if that side made five, EMPTY otherwise (draw or unfinished).
+     * Moves after the first five are ignored.
+     */
+    public static int winner(int[] moves) {
+        Model model = new Model();
+        for (int cell : moves) {
+            int row = cell / N;
+            int col = cell % N;
+            model.makeMove(row, col);
+            int winner = model.checkWin(row, col);
+            if (winner != Model.EMPTY) return winner;
+            model.changePlayer();
+        }
+        return Model.EMPTY;
+    }
+}
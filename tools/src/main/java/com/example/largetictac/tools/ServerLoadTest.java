@@ -0,0 +1,229 @@
+package com.example.largetictac.tools;
+
+import com.example.largetictac.GameServer;
+import com.example.largetictac.Model;
+import com.example.largetictac.Move;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test of GameServer: keeps many games going at once with simulated humans and measures how
+ * long the AI's answers take.
+ *
+ *   ServerLoadTest [--games=1000] [--workers=<cores>] [--engine=time=20] [--deadline=500]
+ *                  [--human-ms=0] [--seconds=20] [--warmup=5]
+ *
+ * Every game has a simulated human: --human-ms after the AI's move, it plays a random empty cell next
+ * to a stone. A game that ends is replaced by a new one, half of them with the AI first, so --games
+ * are always running. --engine is an EngineConfig spec with a time, nodes or depth budget; --deadline
+ * is each request's deadline in ms.
+ *
+ * Latency is from the human's move to the AI's answer, queueing included; moves of the first
+ * --warmup seconds are left out. Prints p50/p90/p99/max latency, AI moves per second and per core,
+ * late moves, the heap one idle game takes, and games per core: how many games like these one core
+ * can serve, from the worker time one move costs (each game asks for a move every human-ms + p50).
+ */
+public class ServerLoadTest {
+    private final GameServer server;
+    private final long humanMillis;
+    private final ScheduledExecutorService humans = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "simulated-humans");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile boolean running = true;
+    private volatile boolean recording;
+    private final AtomicInteger finishedGames = new AtomicInteger();
+    private final AtomicInteger errors = new AtomicInteger();
+    // Latencies in microseconds, guarded by this.
+    private long[] latencies = new long[1 << 16];
+    private int latencyCount;
+
+    public ServerLoadTest(GameServer server, long humanMillis) {
+        this.server = server;
+        this.humanMillis = humanMillis;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                System.err.println("usage: ServerLoadTest [--games=N] [--workers=N] [--engine=<spec>] [--deadline=ms]"
+                        + " [--human-ms=N] [--seconds=N] [--warmup=N]");
+                System.exit(2);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        int games = Integer.parseInt(options.getOrDefault("games", "1000"));
+        int workers = Integer.parseInt(options.getOrDefault("workers",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        EngineConfig engine = EngineConfig.parse(options.getOrDefault("engine", "time=20"));
+        if (engine.getBudget() == null) throw new IllegalArgumentException("--engine needs time, nodes or depth");
+        long deadline = Long.parseLong(options.getOrDefault("deadline", "500"));
+        long humanMillis = Long.parseLong(options.getOrDefault("human-ms", "0"));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "20"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "5"));
+
+        GameServer server = new GameServer(workers, engine::newModel, engine.getBudget(), deadline);
+        System.out.printf("%d games on %d workers, engine %s, deadline %d ms, human %d ms%n",
+                games, workers, engine, deadline, humanMillis);
+        System.out.printf("heap per idle game: %d bytes%n", idleGameBytes(server));
+
+        ServerLoadTest test = new ServerLoadTest(server, humanMillis);
+        test.run(games, warmup, seconds);
+        server.shutdown();
+    }
+
+    /**
+     * Input: games (int) - games kept running; warmup, seconds (int) - unmeasured, then measured time.
+     * Output: None
+     * Logic: Starts the games, records latencies after the warmup and prints the report.
+     */
+    public void run(int games, int warmup, int seconds) throws InterruptedException {
+        // Spread over one human move, as if the players had come one by one.
+        for (int i = 0; i < games; i++) {
+            boolean aiFirst = i % 2 == 0;
+            humans.schedule(() -> startGame(aiFirst), i * humanMillis / games, TimeUnit.MILLISECONDS);
+        }
+        Thread.sleep(warmup * 1000L);
+
+        long movesBefore = server.getAiMoves();
+        long lateBefore = server.getLateMoves();
+        long busyBefore = server.getBusyNanos();
+        int finishedBefore = finishedGames.get();
+        recording = true;
+        long start = System.nanoTime();
+        Thread.sleep(seconds * 1000L);
+        recording = false;
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        long moves = server.getAiMoves() - movesBefore;
+        long late = server.getLateMoves() - lateBefore;
+        double moveMillis = moves == 0 ? 0 : (server.getBusyNanos() - busyBefore) / 1e6 / moves;
+        int finished = finishedGames.get() - finishedBefore;
+        running = false;
+
+        long[] sorted;
+        synchronized (this) {
+            sorted = Arrays.copyOf(latencies, latencyCount);
+        }
+        Arrays.sort(sorted);
+        double mean = sorted.length == 0 ? 0 : Arrays.stream(sorted).average().orElse(0) / 1000.0;
+        int workers = server.getWorkerCount();
+        double movesPerSecond = moves / elapsed;
+        double perCore = movesPerSecond / workers;
+
+        System.out.printf("AI moves %d in %.1f s: %.0f/s, %.0f per core per second; %d games finished%n",
+                moves, elapsed, movesPerSecond, perCore, finished);
+        System.out.printf("latency ms: p50 %.1f  p90 %.1f  p99 %.1f  max %.1f  mean %.1f%n",
+                percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99),
+                percentile(sorted, 100), mean);
+        System.out.printf("late moves (1-ply answers past the deadline) %d, errors %d, queue at the end %d%n",
+                late, errors.get(), server.getQueueLength());
+        // A game asks for a move every human-ms + latency; one core answers one every moveMillis.
+        System.out.printf("one move costs %.1f ms of a core: games per core %.0f at %d ms per human move%n",
+                moveMillis, moveMillis == 0 ? 0 : (humanMillis + percentile(sorted, 50)) / moveMillis, humanMillis);
+    }
+
+    private void startGame(boolean aiFirst) {
+        if (!running) return;
+        int game = server.newGame(aiFirst ? Model.PLAYER_X : Model.PLAYER_O);
+        if (aiFirst) {
+            await(game, server.requestAiMove(game), System.nanoTime());
+        } else {
+            humanMove(game);
+        }
+    }
+
+    // Plays the simulated human's move and waits for the AI's answer.
+    private void humanMove(int game) {
+        if (!running) return;
+        try {
+            int cell = chooseHumanCell(server.getMoves(game));
+            long sent = System.nanoTime();
+            CompletableFuture<Move> reply = server.play(game, cell / Model.BOARD_SIZE, cell % Model.BOARD_SIZE);
+            await(game, reply, sent);
+        } catch (RuntimeException e) {
+            errors.incrementAndGet();
+            replace(game);
+        }
+    }
+
+    private void await(int game, CompletableFuture<Move> reply, long sent) {
+        reply.whenComplete((move, error) -> {
+            if (error != null) {
+                if (running) errors.incrementAndGet();
+                replace(game);
+                return;
+            }
+            if (move != null) record(System.nanoTime() - sent);
+            if (server.getWinner(game) != Model.EMPTY) {
+                replace(game);
+            } else if (humanMillis > 0) {
+                humans.schedule(() -> humanMove(game), humanMillis, TimeUnit.MILLISECONDS);
+            } else {
+                humans.execute(() -> humanMove(game));
+            }
+        });
+    }
+
+    private void replace(int game) {
+        boolean aiFirst = server.getMoves(game).length % 2 == 0;
+        server.endGame(game);
+        finishedGames.incrementAndGet();
+        humans.execute(() -> startGame(aiFirst));
+    }
+
+    private synchronized void record(long nanos) {
+        if (!recording) return;
+        if (latencyCount == latencies.length) latencies = Arrays.copyOf(latencies, 2 * latencies.length);
+        latencies[latencyCount++] = nanos / 1000;
+    }
+
+    // A random empty cell next to a stone (the centre on an empty board).
+    private static int chooseHumanCell(int[] moves) {
+        int n = Model.BOARD_SIZE;
+        if (moves.length == 0) return n / 2 * n + n / 2;
+        boolean[] taken = new boolean[n * n];
+        for (int cell : moves) taken[cell] = true;
+        Random random = ThreadLocalRandom.current();
+        while (true) {
+            int stone = moves[random.nextInt(moves.length)];
+            int row = stone / n + random.nextInt(3) - 1;
+            int col = stone % n + random.nextInt(3) - 1;
+            if (row >= 0 && row < n && col >= 0 && col < n && !taken[row * n + col]) return row * n + col;
+        }
+    }
+
+    private static double percentile(long[] sorted, int percent) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(percent / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1000.0;
+    }
+
+    // Heap taken by one new game, measured over 10000 of them.
+    private static long idleGameBytes(GameServer server) {
+        int count = 10000;
+        int[] ids = new int[count];
+        long before = usedHeap();
+        for (int i = 0; i < count; i++) ids[i] = server.newGame(Model.PLAYER_O);
+        long after = usedHeap();
+        for (int id : ids) server.endGame(id);
+        return (after - before) / count;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
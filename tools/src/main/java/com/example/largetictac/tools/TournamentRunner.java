@@ -0,0 +1,254 @@
+package com.example.largetictac.tools;
+
+import com.example.largetictac.Model;
+import com.example.largetictac.Move;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Headless engine-vs-engine match on all cores.
+ *
+ *   TournamentRunner --a=<spec> --b=<spec> [--games=1000] [--threads=<cores>]
+ *                    [--openings=random | <file.psq | directory>] [--opening-plies=2] [--seed=1]
+ *
+ * Engine specs are EngineConfig strings, e.g. --a=time=100 --b=time=100,eval=classic.
+ * Games come in pairs: both engines play the same opening once with each colour, so a lucky
+ * opening can't decide the match. Openings are random stones near the centre, or the first
+ * --opening-plies moves of PSQ game records.
+ *
+ * Prints wins/draws/losses of A, its score and Elo difference with a 95% confidence interval,
+ * games per second, and nodes per second of each engine.
+ */
+public class TournamentRunner {
+    private static final int N = Model.BOARD_SIZE;
+
+    private final EngineConfig engineA;
+    private final EngineConfig engineB;
+    private final List<int[]> openings;
+
+    private final AtomicInteger winsA = new AtomicInteger();
+    private final AtomicInteger draws = new AtomicInteger();
+    private final AtomicInteger winsB = new AtomicInteger();
+    private final AtomicInteger finished = new AtomicInteger();
+    // Index 0 = engine A, 1 = engine B
+    private final LongAdder[] nodes = {new LongAdder(), new LongAdder()};
+    private final LongAdder[] searchNanos = {new LongAdder(), new LongAdder()};
+    private final LongAdder[] moves = {new LongAdder(), new LongAdder()};
+
+    public TournamentRunner(EngineConfig engineA, EngineConfig engineB, List<int[]> openings) {
+        this.engineA = engineA;
+        this.engineB = engineB;
+        this.openings = openings;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                System.err.println("usage: TournamentRunner --a=<spec> --b=<spec> [--games=N] [--threads=N]"
+                        + " [--openings=random|<psq file or dir>] [--opening-plies=N] [--seed=N]");
+                System.exit(2);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        EngineConfig a = EngineConfig.parse(options.getOrDefault("a", ""));
+        EngineConfig b = EngineConfig.parse(options.getOrDefault("b", ""));
+        int games = Integer.parseInt(options.getOrDefault("games", "1000"));
+        int threads = Integer.parseInt(options.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        int openingPlies = Integer.parseInt(options.getOrDefault("opening-plies", "2"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+        String source = options.getOrDefault("openings", "random");
+
+        int pairs = (games + 1) / 2;
+        List<int[]> openings = source.equals("random")
+                ? randomOpenings(pairs, openingPlies, seed)
+                : recordOpenings(Paths.get(source), openingPlies);
+        if (openings.isEmpty()) throw new IllegalArgumentException("No openings with " + openingPlies + " moves");
+
+        TournamentRunner runner = new TournamentRunner(a, b, openings);
+        long start = System.nanoTime();
+        runner.run(games, threads);
+        runner.printReport(System.nanoTime() - start);
+    }
+
+    /**
+     * Input: games (int), threads (int)
+     * Output: None
+     * Logic: Game i uses opening i / 2, and engine A plays X in even games. Every game is its own task.
+     */
+    public void run(int games, int threads) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < games; i++) {
+            final int game = i;
+            pool.execute(() -> {
+                playGame(openings.get((game / 2) % openings.size()), game % 2 == 0);
+                int done = finished.incrementAndGet();
+                if (done % Math.max(1, games / 10) == 0) {
+                    System.out.printf("%d/%d games, A %d - %d draws - %d B%n", done, games, winsA.get(), draws.get(), winsB.get());
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+    }
+
+    /**
+     * Input: opening - moves played before the engines take over; aIsX - whether engine A plays X.
+     * Output: None (the result is added to the counters)
+     * Logic: Each engine has its own Model (own tables and settings); every move goes to both.
+     * A full board is a draw. An engine that returns an illegal move loses the game.
+     */
+    private void playGame(int[] opening, boolean aIsX) {
+        Model modelA = engineA.newModel();
+        Model modelB = engineB.newModel();
+        for (int cell : opening) {
+            play(modelA, modelB, cell);
+        }
+
+        int result = Model.EMPTY; // Winner
+        for (int ply = opening.length; ply < N * N && result == Model.EMPTY; ply++) {
+            int player = modelA.getCurrentPlayer();
+            boolean aToMove = (player == Model.PLAYER_X) == aIsX;
+            int engine = aToMove ? 0 : 1;
+
+            long t0 = System.nanoTime();
+            Move move = aToMove ? engineA.chooseMove(modelA, player) : engineB.chooseMove(modelB, player);
+            searchNanos[engine].add(System.nanoTime() - t0);
+            nodes[engine].add((aToMove ? modelA : modelB).getNodeCount());
+            moves[engine].increment();
+
+            if (move == null || !modelA.isLegal(move.row, move.col)) {
+                result = -player; // Illegal move forfeits
+                break;
+            }
+            if (play(modelA, modelB, move.row * N + move.col)) result = player;
+        }
+        // The models are dropped with the game; so are their mcts playout threads.
+        for (Model model : new Model[]{modelA, modelB}) {
+            if (model.getMctsSearch() != null) model.getMctsSearch().shutdown();
+        }
+
+        int winnerA = aIsX ? Model.PLAYER_X : Model.PLAYER_O;
+        if (result == Model.EMPTY) {
+            draws.incrementAndGet();
+        } else if (result == winnerA) {
+            winsA.incrementAndGet();
+        } else {
+            winsB.incrementAndGet();
+        }
+    }
+
+    // Plays the cell on both models. Output: true if it made five.
+    private static boolean play(Model modelA, Model modelB, int cell) {
+        int row = cell / N;
+        int col = cell % N;
+        modelA.makeMove(row, col);
+        modelB.makeMove(row, col);
+        boolean won = modelA.checkWin(row, col) != Model.EMPTY;
+        modelA.changePlayer();
+        modelB.changePlayer();
+        return won;
+    }
+
+    private void printReport(long wallNanos) {
+        int w = winsA.get();
+        int d = draws.get();
+        int l = winsB.get();
+        int n = w + d + l;
+        double score = (w + 0.5 * d) / n;
+        // Standard error of the mean score from the spread of the single-game results
+        double variance = (w * sq(1 - score) + d * sq(0.5 - score) + l * sq(score)) / n;
+        double margin = 1.96 * Math.sqrt(variance / n);
+        double seconds = wallNanos / 1e9;
+
+        System.out.println();
+        System.out.println("A: " + engineA + "   vs   B: " + engineB);
+        System.out.printf("games %d   A wins %d   draws %d   B wins %d%n", n, w, d, l);
+        System.out.printf("score A %.1f%% +- %.1f%%   Elo %+.0f  [%+.0f, %+.0f] (95%%)%n",
+                100 * score, 100 * margin, elo(score), elo(score - margin), elo(score + margin));
+        System.out.printf("%.1f s, %.2f games/s, %.0f nodes/s total%n",
+                seconds, n / seconds, (nodes[0].sum() + nodes[1].sum()) / seconds);
+        for (int e = 0; e < 2; e++) {
+            double searchSeconds = searchNanos[e].sum() / 1e9;
+            System.out.printf("%s: %.0f nodes/s per search thread, %.1f ms per move%n", e == 0 ? "A" : "B",
+                    searchSeconds > 0 ? nodes[e].sum() / searchSeconds : 0,
+                    moves[e].sum() > 0 ? 1000 * searchSeconds / moves[e].sum() : 0);
+        }
+    }
+
+    /**
+     * Input: score (double) - expected score between 0 and 1.
+     * Output: double - The Elo difference that gives that score (infinite at 0 and 1).
+     */
+    static double elo(double score) {
+        if (score <= 0) return Double.NEGATIVE_INFINITY;
+        if (score >= 1) return Double.POSITIVE_INFINITY;
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    private static double sq(double x) {
+        return x * x;
+    }
+
+    /**
+     * Output: List of openings, each 'plies' random cells at most 2 steps from the centre.
+     */
+    static List<int[]> randomOpenings(int count, int plies, long seed) {
+        Random random = new Random(seed);
+        List<int[]> openings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int[] opening = new int[plies];
+            boolean[] used = new boolean[N * N];
+            for (int k = 0; k < plies; k++) {
+                int cell;
+                do {
+                    cell = (N / 2 - 2 + random.nextInt(5)) * N + (N / 2 - 2 + random.nextInt(5));
+                } while (used[cell]);
+                used[cell] = true;
+                opening[k] = cell;
+            }
+            openings.add(opening);
+        }
+        return openings;
+    }
+
+    /**
+     * Output: List of openings, the first 'plies' moves of every PSQ game under the path that is long enough.
+     */
+    static List<int[]> recordOpenings(Path source, int plies) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (Files.isDirectory(source)) {
+            try (Stream<Path> walk = Files.walk(source)) {
+                files.addAll(walk.filter(p -> p.toString().toLowerCase().endsWith(".psq")).sorted()
+                        .collect(Collectors.toList()));
+            }
+        } else {
+            files.add(source);
+        }
+        List<int[]> openings = new ArrayList<>();
+        for (Path file : files) {
+            int[] moves = PsqReader.read(file);
+            if (moves.length <= plies) continue;
+            int[] opening = new int[plies];
+            System.arraycopy(moves, 0, opening, 0, plies);
+            openings.add(opening);
+        }
+        return openings;
+    }
+}
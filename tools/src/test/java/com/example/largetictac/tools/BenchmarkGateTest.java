@@ -0,0 +1,130 @@
+package com.example.largetictac.tools;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * The gate's verdict: which way each mode gets worse, the threshold itself, allocation growth,
+ * benchmarks that come and go, and reading JMH's JSON.
+ */
+public class BenchmarkGateTest {
+    private static final double NO_ALLOC = Double.NaN;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void throughput_regressesWhenItDrops() {
+        assertEquals(1, compareOne(throughput(100, NO_ALLOC), throughput(89, NO_ALLOC)));
+        assertEquals(0, compareOne(throughput(100, NO_ALLOC), throughput(95, NO_ALLOC)));
+        assertEquals(0, compareOne(throughput(100, NO_ALLOC), throughput(150, NO_ALLOC)));
+    }
+
+    @Test
+    public void averageTime_regressesWhenItGrows() {
+        assertEquals(1, compareOne(averageTime(100, NO_ALLOC), averageTime(111, NO_ALLOC)));
+        assertEquals(0, compareOne(averageTime(100, NO_ALLOC), averageTime(105, NO_ALLOC)));
+        assertEquals(0, compareOne(averageTime(100, NO_ALLOC), averageTime(50, NO_ALLOC)));
+    }
+
+    @Test
+    public void exactlyAtTheThreshold_passes() {
+        assertEquals(0, compareOne(throughput(100, NO_ALLOC), throughput(90, NO_ALLOC)));
+        assertEquals(0, compareOne(averageTime(100, NO_ALLOC), averageTime(110, NO_ALLOC)));
+    }
+
+    @Test
+    public void allocation_regressesBeyondTheSlack() {
+        // An allocation-free benchmark may wobble by a few bytes, but not start allocating.
+        assertEquals(0, compareOne(averageTime(100, 0), averageTime(100, 8)));
+        assertEquals(1, compareOne(averageTime(100, 0), averageTime(100, 200)));
+        assertEquals(0, compareOne(averageTime(100, 1000), averageTime(100, 1050)));
+        assertEquals(1, compareOne(averageTime(100, 1000), averageTime(100, 1200)));
+    }
+
+    @Test
+    public void newAndMissingBenchmarks_doNotFail() {
+        Map<String, BenchmarkGate.Result> baseline = new LinkedHashMap<>();
+        baseline.put("Search.old", throughput(100, NO_ALLOC));
+        baseline.put("Search.kept", throughput(100, NO_ALLOC));
+        Map<String, BenchmarkGate.Result> current = new LinkedHashMap<>();
+        current.put("Search.kept", throughput(100, NO_ALLOC));
+        current.put("Search.new", throughput(1, NO_ALLOC));
+        assertEquals(0, BenchmarkGate.compare(baseline, current, 10));
+    }
+
+    @Test
+    public void read_parsesJmhResults() throws Exception {
+        // Laid out the way JMH 1.37 writes results.json with the gc profiler (see benchmark/build.gradle.kts).
+        Path file = Paths.get(BenchmarkGateTest.class.getResource("jmh-1.37-results.json").toURI());
+        Map<String, BenchmarkGate.Result> results = BenchmarkGate.read(file);
+        assertEquals(2, results.size());
+        BenchmarkGate.Result search = results.get("com.example.largetictac.benchmark.MoveOrderingBenchmark.search"
+                + " {depth=4, killersAndHistory=true, position=middle}");
+        assertNotNull(results.keySet().toString(), search);
+        assertEquals(11.7761998, search.score, 0);
+        assertEquals("ms/op", search.unit);
+        assertFalse(search.higherIsBetter);
+        assertEquals(1064.9, search.allocBytes, 0);
+        BenchmarkGate.Result evaluate = results.get(
+                "com.example.largetictac.benchmark.ModelBenchmark.evaluateBoardState {position=crowded}");
+        assertEquals(2185034.47, evaluate.score, 1e-6);
+        assertTrue(evaluate.higherIsBetter);
+        assertEquals(0.0004, evaluate.allocBytes, 0);
+    }
+
+    @Test
+    public void read_acceptsTheOldAllocationMetricName() throws IOException {
+        // JMH before 1.36 put a "·" in front of the gc profiler's metrics.
+        Path file = folder.newFile("results.json").toPath();
+        String json = "[\n"
+                + "  {\"jmhVersion\": \"1.35\", \"benchmark\": \"b.Search.minimax\", \"mode\": \"thrpt\",\n"
+                + "   \"params\": {\"threads\": \"2\", \"depth\": \"4\"},\n"
+                + "   \"primaryMetric\": {\"score\": 1234.5, \"scoreError\": \"NaN\", \"scoreUnit\": \"ops/s\",\n"
+                + "                     \"rawData\": [[1230.0, 1239.0]]},\n"
+                + "   \"secondaryMetrics\": {\"·gc.alloc.rate.norm\": {\"score\": 16.0, \"scoreUnit\": \"B/op\"}}},\n"
+                + "  {\"benchmark\": \"b.Model.evaluate\", \"mode\": \"avgt\",\n"
+                + "   \"primaryMetric\": {\"score\": 2.5e-1, \"scoreUnit\": \"us/op\"}, \"secondaryMetrics\": {}}\n"
+                + "]\n";
+        Files.write(file, json.getBytes(StandardCharsets.UTF_8));
+
+        Map<String, BenchmarkGate.Result> results = BenchmarkGate.read(file);
+        assertEquals(2, results.size());
+        BenchmarkGate.Result search = results.get("b.Search.minimax {depth=4, threads=2}");
+        assertNotNull(results.keySet().toString(), search);
+        assertEquals(1234.5, search.score, 0);
+        assertEquals(16.0, search.allocBytes, 0);
+        BenchmarkGate.Result evaluate = results.get("b.Model.evaluate");
+        assertEquals(0.25, evaluate.score, 0);
+        assertFalse(evaluate.higherIsBetter);
+        assertTrue(Double.isNaN(evaluate.allocBytes));
+    }
+
+    // Regressions (0 or 1) of one benchmark at the default 10% threshold.
+    private static int compareOne(BenchmarkGate.Result before, BenchmarkGate.Result now) {
+        Map<String, BenchmarkGate.Result> baseline = new LinkedHashMap<>();
+        baseline.put("Bench.run", before);
+        Map<String, BenchmarkGate.Result> current = new LinkedHashMap<>();
+        current.put("Bench.run", now);
+        return BenchmarkGate.compare(baseline, current, 10);
+    }
+
+    private static BenchmarkGate.Result throughput(double score, double allocBytes) {
+        return new BenchmarkGate.Result(score, "ops/s", true, allocBytes);
+    }
+
+    private static BenchmarkGate.Result averageTime(double score, double allocBytes) {
+        return new BenchmarkGate.Result(score, "us/op", false, allocBytes);
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.largetictac.tools;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * The Piskvork protocol as a manager speaks it: scripted command lines in, the engine's reply lines out.
+ */
+public class PiskvorkEngineTest {
+    private ByteArrayOutputStream output;
+    private PiskvorkEngine engine;
+    private int read;
+
+    @Before
+    public void setUp() throws IOException {
+        output = new ByteArrayOutputStream();
+        // As main() does: a time that INFO replaces. Small tables and short turns keep the test quick.
+        engine = new PiskvorkEngine(EngineConfig.parse("time=1"), new PrintStream(output, true, "UTF-8"));
+        send("INFO max_memory 52428800", "INFO timeout_turn 200");
+    }
+
+    @Test
+    public void start_isAnsweredWithOk() {
+        assertEquals(Arrays.asList("OK"), send("START 15"));
+        assertEquals(Arrays.asList("OK"), send("RESTART"));
+        assertTrue(send("START 3").get(0).startsWith("ERROR"));
+        assertTrue(send("START x").get(0).startsWith("ERROR"));
+    }
+
+    @Test
+    public void commandsBeforeStart_areErrors() {
+        assertTrue(send("BEGIN").get(0).startsWith("ERROR"));
+        assertTrue(send("TURN 7,7").get(0).startsWith("ERROR"));
+        assertTrue(send("BOARD").get(0).startsWith("ERROR"));
+    }
+
+    @Test
+    public void unknownCommand_isAnsweredWithUnknown() {
+        assertEquals(Arrays.asList("UNKNOWN SWAP2BOARD"), send("swap2board"));
+        assertTrue(send("ABOUT").get(0).startsWith("name=\"LargeTicTac\""));
+        assertTrue(engine.handle("INFO rule 1"));
+        assertFalse(engine.handle("END"));
+    }
+
+    @Test
+    public void beginAndTurn_playLegalMoves() {
+        send("START 15");
+        assertEquals(Arrays.asList("7,7"), send("BEGIN"));
+        List<String> reply = send("TURN 8,7");
+        assertEquals(2, reply.size());
+        assertTrue(reply.get(0), reply.get(0).startsWith("MESSAGE depth "));
+        int[] move = cell(reply.get(1));
+        assertFalse(Arrays.equals(new int[]{7, 7}, move));
+        assertFalse(Arrays.equals(new int[]{8, 7}, move));
+
+        assertTrue(send("TURN 8,7").get(0).startsWith("ERROR occupied"));
+        assertTrue(send("TURN 15,0").get(0).startsWith("ERROR bad coordinates"));
+    }
+
+    @Test
+    public void board_asO_blocksTheFourAtTheRightCell() {
+        // The opponent (2) has four in column x=3 (y=2..5), closed at y=1 by us (1). With one stone fewer
+        // than the opponent we are O. Only x=3, y=6 stops the five; swapped x and y would answer 6,3.
+        send("START 15");
+        List<String> reply = send("BOARD", "3,2,2", "3,1,1", "3,3,2", "10,10,1", "3,4,2", "12,12,1", "3,5,2", "DONE");
+        assertEquals("3,6", reply.get(reply.size() - 1));
+    }
+
+    @Test
+    public void board_asX_completesItsFour() {
+        // Our four in row y=5 (x=5..8), the same number of stones as the opponent: we are X and win.
+        send("START 15");
+        List<String> reply = send("BOARD", "5,5,1", "0,0,2", "6,5,1", "14,14,2", "7,5,1", "0,14,2", "8,5,1", "14,0,2", "DONE");
+        String move = reply.get(reply.size() - 1);
+        assertTrue(move, move.equals("4,5") || move.equals("9,5"));
+    }
+
+    @Test
+    public void badBoardLine_isAnErrorAndTheRestStillCounts() {
+        send("START 15");
+        assertTrue(send("BOARD", "7,7").get(0).startsWith("ERROR expected x,y,field"));
+        assertTrue(send("7,7,3").get(0).startsWith("ERROR unsupported field"));
+        List<String> reply = send("7,7,2", "DONE");
+        assertFalse(reply.get(reply.size() - 1).equals("7,7"));
+    }
+
+    @Test
+    public void takeback_onlyTakesTheLastMove() {
+        send("START 15");
+        send("BEGIN");
+        List<String> reply = send("TURN 8,8");
+        String answer = reply.get(reply.size() - 1);
+        assertTrue(send("TAKEBACK 8,8").get(0).startsWith("ERROR not the last move"));
+        assertEquals(Arrays.asList("OK"), send("TAKEBACK " + answer));
+        assertEquals(Arrays.asList("OK"), send("TAKEBACK 8,8"));
+        // 8,8 is empty again and the engine still plays O.
+        reply = send("TURN 8,8");
+        assertEquals(2, reply.size());
+    }
+
+    @Test
+    public void info_setsTheTimePerMove() {
+        send("START 15");
+        send("BEGIN");
+        // The turn limit less the 30 ms reserve.
+        assertTrue(send("TURN 8,8").get(0).endsWith(" of 170 ms"));
+        // A twentieth of the match time left, less the reserve.
+        send("INFO timeout_match 100000", "INFO time_left 2000");
+        assertTrue(send("TURN 0,14").get(0).endsWith(" of 70 ms"));
+    }
+
+    // Feeds the lines to the engine; Output: the lines it answered with.
+    private List<String> send(String... lines) {
+        for (String line : lines) {
+            assertTrue(engine.handle(line));
+        }
+        String text = new String(output.toByteArray(), StandardCharsets.UTF_8);
+        String fresh = text.substring(read);
+        read = text.length();
+        List<String> replies = new ArrayList<>();
+        for (String reply : fresh.split("\\R")) {
+            if (!reply.isEmpty()) replies.add(reply);
+        }
+        return replies;
+    }
+
+    // "x,y" to {x, y}.
+    private static int[] cell(String move) {
+        assertTrue(move, move.matches("\\d+,\\d+"));
+        String[] parts = move.split(",");
+        return new int[]{Integer.parseInt(parts[0]), Integer.parseInt(parts[1])};
+    }
+}
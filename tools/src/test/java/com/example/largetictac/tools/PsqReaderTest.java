@@ -0,0 +1,80 @@
+package com.example.largetictac.tools;
+
+import com.example.largetictac.Model;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+/**
+ * Parsing PSQ game records: moves, the end of the move list, malformed records and the winner.
+ */
+public class PsqReaderTest {
+    private static final int N = Model.BOARD_SIZE;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void validRecord_givesTheMovesInOrder() throws IOException {
+        // x is the 1-based column, y the 1-based row. The engine names after the moves are not moves.
+        int[] moves = PsqReader.parse("Piskvorky 15x15, 11:11, 0\r\n8,8,0\r\n9,7,1203\r\n1,15,55\r\npbrain-a.exe\r\n-1\r\n");
+        assertArrayEquals(new int[]{7 * N + 7, 6 * N + 8, 14 * N}, moves);
+    }
+
+    @Test
+    public void malformedRecords_areRejected() {
+        String[] records = {
+                "8,8,0\n",                                   // No header
+                "Piskvorky 20x20, 11:11, 0\n8,8,0\n",        // Other board size
+                "Piskvorky 15x15, 11:11, 0\n16,8,0\n",       // Off the board
+                "Piskvorky 15x15, 11:11, 0\n8,8,0\n8,8,10\n" // Same cell twice
+        };
+        for (String record : records) {
+            try {
+                PsqReader.parse(record);
+                fail("accepted: " + record);
+            } catch (IOException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void nonMoveLine_endsTheMoveList() throws IOException {
+        assertEquals(1, PsqReader.parse("Piskvorky 15x15, 11:11, 0\n8,8,0\n9,x,5\n9,7,0\n").length);
+    }
+
+    @Test
+    public void winner_isTheSideThatMadeFive() throws IOException {
+        // X plays row 8 from column 4 to 8, O answers on row 10; the move after the five is ignored.
+        String xWins = "Piskvorky 15x15, 11:11, 0\n4,8,0\n4,10,0\n5,8,0\n5,10,0\n6,8,0\n6,10,0\n7,8,0\n7,10,0\n8,8,0\n8,10,0\n";
+        assertEquals(Model.PLAYER_X, PsqReader.winner(PsqReader.parse(xWins)));
+        // O makes five on column 2 while X wastes moves on the diagonal.
+        String oWins = "Piskvorky 15x15, 11:11, 0\n10,10,0\n2,1,0\n12,11,0\n2,2,0\n14,9,0\n2,3,0\n1,14,0\n2,4,0\n15,1,0\n2,5,0\n";
+        assertEquals(Model.PLAYER_O, PsqReader.winner(PsqReader.parse(oWins)));
+        assertEquals(Model.EMPTY, PsqReader.winner(PsqReader.parse("Piskvorky 15x15, 11:11, 0\n8,8,0\n9,9,0\n")));
+    }
+
+    @Test
+    public void archive_skipsMalformedGames() throws IOException {
+        Path file = folder.newFile("archive.psq").toPath();
+        String archive = "Piskvorky 15x15, 11:11, 0\n8,8,0\n9,9,0\n"
+                + "Piskvorky 15x15, 11:11, 0\n8,8,0\n8,8,0\n"
+                + "Piskvorky 15x15, 11:11, 0\n1,1,0\n";
+        Files.write(file, archive.getBytes(StandardCharsets.UTF_8));
+        try (PsqReader.Games games = PsqReader.games(file)) {
+            assertEquals(2, games.next().length);
+            assertArrayEquals(new int[]{0}, games.next());
+            assertEquals(3, games.getIndex());
+            assertEquals(1, games.getSkipped());
+            assertNull(games.next());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.largetictac.tools;
+
+import com.example.largetictac.Model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * The Elo conversion behind the tournament result, and the random openings both engines play from.
+ */
+public class TournamentRunnerTest {
+    private static final int N = Model.BOARD_SIZE;
+
+    @Test
+    public void elo_isZeroForAnEvenScore() {
+        assertEquals(0.0, TournamentRunner.elo(0.5), 1e-9);
+        assertEquals(190.85, TournamentRunner.elo(0.75), 0.01);
+    }
+
+    @Test
+    public void elo_isSymmetric() {
+        for (double score = 0.05; score < 0.5; score += 0.05) {
+            assertEquals(-TournamentRunner.elo(score), TournamentRunner.elo(1 - score), 1e-9);
+            assertTrue(TournamentRunner.elo(score) < 0);
+        }
+        assertEquals(Double.NEGATIVE_INFINITY, TournamentRunner.elo(0), 0);
+        assertEquals(Double.POSITIVE_INFINITY, TournamentRunner.elo(1), 0);
+    }
+
+    @Test
+    public void randomOpenings_haveThePlyCountNearTheCentre() {
+        List<int[]> openings = TournamentRunner.randomOpenings(50, 4, 7);
+        assertEquals(50, openings.size());
+        for (int[] opening : openings) {
+            assertEquals(4, opening.length);
+            HashSet<Integer> cells = new HashSet<>();
+            for (int cell : opening) {
+                assertTrue("cell used twice", cells.add(cell));
+                assertTrue(Math.abs(cell / N - N / 2) <= 2);
+                assertTrue(Math.abs(cell % N - N / 2) <= 2);
+            }
+        }
+    }
+
+    @Test
+    public void randomOpenings_dependOnlyOnTheSeed() {
+        List<int[]> first = TournamentRunner.randomOpenings(20, 3, 42);
+        List<int[]> second = TournamentRunner.randomOpenings(20, 3, 42);
+        List<int[]> other = TournamentRunner.randomOpenings(20, 3, 43);
+        boolean differs = false;
+        for (int i = 0; i < first.size(); i++) {
+            assertArrayEquals(first.get(i), second.get(i));
+            differs |= !Arrays.equals(first.get(i), other.get(i));
+        }
+        assertTrue(differs);
+    }
+}